@@ -0,0 +1,65 @@
+package ru.andryxx.patcher.processor;
+
+import java.util.List;
+
+/**
+ * Source-level description of a generated patch class.
+ *
+ * @param packageName  package of the generated class (the package of the source type)
+ * @param simpleName   simple name of the generated class
+ * @param fromType     canonical name of the source type
+ * @param toType       canonical name of the target type
+ * @param steps        mappings in the order they are applied
+ * @param transformers lazily resolved {@code @Transform} functions referenced by the steps
+ * @param conversions  default transformer functions referenced by the steps
+ */
+record PatchModel(
+        String packageName,
+        String simpleName,
+        String fromType,
+        String toType,
+        List<Step> steps,
+        List<TransformerRef> transformers,
+        List<ConversionRef> conversions
+) {
+    String qualifiedName() {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    /**
+     * @param read       expression reading the value from {@code fromObject}
+     * @param valueType  declared type of the value read
+     * @param convert    format converting the value ({@code %s}) to the target type
+     * @param write      format writing the converted value ({@code %s}) to {@code toObject}
+     * @param ignoreNull whether null values are skipped, only set for reference types
+     */
+    record Step(
+            String fromName,
+            String toName,
+            String read,
+            String valueType,
+            String convert,
+            String write,
+            boolean ignoreNull,
+            boolean logChange
+    ) {
+    }
+
+    /**
+     * @param fieldName name of the generated field caching the function
+     * @param field     source field name the transformer is declared on
+     * @param from      class literal of the source value type
+     * @param to        class literal of the target value type
+     * @param keys      keys of the registered transformers, in declaration order
+     */
+    record TransformerRef(String fieldName, String field, String from, String to, List<String> keys) {
+    }
+
+    /**
+     * @param fieldName name of the generated constant holding the function
+     * @param from      class literal of the source value type
+     * @param to        class literal of the target value type
+     */
+    record ConversionRef(String fieldName, String from, String to) {
+    }
+}
@@ -0,0 +1,406 @@
+package ru.andryxx.patcher.processor;
+
+import ru.andryxx.patcher.engine.DefaultTransformers;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves mappings between two types the same way the default runtime patcher
+ * ({@code Patcher.forType}) does: explicit {@code @MapTo} mappings first, then auto mappings through
+ * target setters and public fields, then annotation-driven ignore, null and logging rules.
+ * Conversions are resolved in the runtime order: {@code @Transform}, direct assignment, default transformers.
+ * Primitive widening and default transformers are looked up in {@link DefaultTransformers} of the core library
+ * on the processor path, so the generated code uses the rules and functions the runtime patcher would select.
+ */
+class PatchModelBuilder {
+    private static final String MAP_TO = PatcherProcessor.ANNOTATIONS + "MapTo";
+    private static final String TRANSFORM = PatcherProcessor.ANNOTATIONS + "Transform";
+    private static final String IGNORE = PatcherProcessor.ANNOTATIONS + "Ignore";
+    private static final String IGNORE_IF_NULL = PatcherProcessor.ANNOTATIONS + "IgnoreIfNull";
+    private static final String LOG_CHANGE = PatcherProcessor.ANNOTATIONS + "LogChange";
+
+    private record Accessor(String expression, TypeMirror type, Element element) {
+    }
+
+    private final Elements elements;
+    private final Types types;
+    private final TypeElement fromType;
+    private final TypeElement toType;
+    private final String packageName;
+
+    private final Map<String, String> mapTo = new LinkedHashMap<>();
+    private final Map<String, List<String>> transforms = new LinkedHashMap<>();
+    private final Map<String, Element> fromFields = new LinkedHashMap<>();
+    private final Set<String> ignored = new HashSet<>();
+    private final Set<String> ignoreIfNull = new HashSet<>();
+    private final Set<String> logChange = new HashSet<>();
+
+    private final List<PatchModel.Step> steps = new ArrayList<>();
+    private final List<PatchModel.TransformerRef> transformers = new ArrayList<>();
+    private final List<PatchModel.ConversionRef> conversions = new ArrayList<>();
+    private final Set<String> usedFromNames = new HashSet<>();
+    private final Set<String> usedToNames = new HashSet<>();
+
+    PatchModelBuilder(ProcessingEnvironment env, TypeElement fromType, TypeElement toType) {
+        this.elements = env.getElementUtils();
+        this.types = env.getTypeUtils();
+        this.fromType = fromType;
+        this.toType = toType;
+        this.packageName = elements.getPackageOf(fromType).getQualifiedName().toString();
+    }
+
+    PatchModel build() {
+        requireAccessible(fromType, fromType);
+        requireAccessible(toType, fromType);
+        collectAnnotations();
+
+        for (Map.Entry<String, String> entry : mapTo.entrySet()) {
+            addStep(entry.getKey(), entry.getValue(), false);
+        }
+        usedFromNames.addAll(mapTo.keySet());
+        usedToNames.addAll(mapTo.values());
+        for (ExecutableElement method : publicInstanceMethods(toType)) {
+            String name = method.getSimpleName().toString();
+            if (name.length() > 3 && name.startsWith("set") && method.getParameters().size() == 1) {
+                addAutoStep(uncapitalize(name.substring(3)));
+            }
+        }
+        for (VariableElement field : publicInstanceFields(toType)) {
+            addAutoStep(field.getSimpleName().toString());
+        }
+
+        return new PatchModel(
+                packageName,
+                flatName(fromType) + "To" + flatName(toType) + "Patch",
+                fromType.getQualifiedName().toString(),
+                toType.getQualifiedName().toString(),
+                steps,
+                transformers,
+                conversions
+        );
+    }
+
+    private void collectAnnotations() {
+        boolean globalIgnoreNull = hasAnnotation(fromType, IGNORE_IF_NULL);
+        boolean globalLogChange = hasAnnotation(toType, LOG_CHANGE);
+        for (VariableElement field : ElementFilter.fieldsIn(fromType.getEnclosedElements())) {
+            String name = field.getSimpleName().toString();
+            fromFields.put(name, field);
+            if (hasAnnotation(field, IGNORE)) {
+                ignored.add(name);
+            }
+            if (globalIgnoreNull || hasAnnotation(field, IGNORE_IF_NULL)) {
+                ignoreIfNull.add(name);
+            }
+            AnnotationValue target = annotationValue(field, MAP_TO);
+            if (target != null) {
+                String toName = (String) target.getValue();
+                if (toName.indexOf('.') >= 0) {
+                    throw new ProcessingException("Nested @MapTo path '" + toName
+                                                  + "' is not supported by generated patches", field);
+                }
+                if (mapTo.containsValue(toName)) {
+                    throw new ProcessingException("Field '" + toName + "' of " + toType.getQualifiedName()
+                                                  + " is already a @MapTo target", field);
+                }
+                mapTo.put(name, toName);
+            }
+            AnnotationValue keys = annotationValue(field, TRANSFORM);
+            if (keys != null) {
+                List<String> values = new ArrayList<>();
+                for (Object key : (List<?>) keys.getValue()) {
+                    values.add((String) ((AnnotationValue) key).getValue());
+                }
+                transforms.put(name, values);
+            }
+        }
+        for (VariableElement field : ElementFilter.fieldsIn(toType.getEnclosedElements())) {
+            String name = field.getSimpleName().toString();
+            if (hasAnnotation(field, IGNORE)) {
+                ignored.add(name);
+            }
+            if (globalLogChange || hasAnnotation(field, LOG_CHANGE)) {
+                logChange.add(name);
+            }
+        }
+    }
+
+    private void addAutoStep(String name) {
+        if (name.isEmpty() || usedFromNames.contains(name) || usedToNames.contains(name)) {
+            return;
+        }
+        if (addStep(name, name, true)) {
+            usedFromNames.add(name);
+            usedToNames.add(name);
+        }
+    }
+
+    /**
+     * @return whether the mapping was resolved; unresolvable auto mappings are skipped silently
+     */
+    private boolean addStep(String fromName, String toName, boolean autoMapping) {
+        Element origin = fromFields.getOrDefault(fromName, fromType);
+        Accessor getter = resolveGetter(fromName);
+        Accessor setter = resolveSetter(toName);
+        if (getter == null || setter == null) {
+            if (autoMapping) {
+                return false;
+            }
+            throw new ProcessingException(getter == null
+                    ? "Cannot find getter or field '" + fromName + "' in " + fromType.getQualifiedName()
+                    : "Cannot find setter or field '" + toName + "' in " + toType.getQualifiedName(), origin);
+        }
+        if (ignored.contains(fromName) || ignored.contains(toName)) {
+            return true;
+        }
+
+        TypeMirror from = types.erasure(getter.type());
+        TypeMirror to = types.erasure(setter.type());
+        if (!isAccessible(from) || !isAccessible(to)) {
+            if (autoMapping) {
+                return false;
+            }
+            throw new ProcessingException("Types of mapping " + fromName + " to " + toName
+                                          + " are not accessible from package '" + packageName + "'", origin);
+        }
+
+        String convert = resolveConversion(fromName, from, to);
+        if (convert == null) {
+            if (autoMapping) {
+                return false;
+            }
+            throw new ProcessingException("Unable to find suitable transformation for " + fromName
+                                          + " (" + from + ") to " + toName + " (" + to + ")", origin);
+        }
+        steps.add(new PatchModel.Step(
+                fromName,
+                toName,
+                getter.expression(),
+                from.toString(),
+                convert,
+                setter.expression(),
+                !from.getKind().isPrimitive() && ignoreIfNull.contains(toName),
+                logChange.contains(toName)
+        ));
+        return true;
+    }
+
+    private String resolveConversion(String fromName, TypeMirror from, TypeMirror to) {
+        List<String> keys = transforms.get(fromName);
+        if (keys != null) {
+            String fieldName = "transformer" + transformers.size();
+            transformers.add(new PatchModel.TransformerRef(
+                    fieldName, fromName, from + ".class", to + ".class", keys));
+            return "(" + boxed(to) + ") " + fieldName + "().apply(%s)";
+        }
+        Class<?> fromClass = loadClass(from);
+        Class<?> toClass = loadClass(to);
+        if (from.getKind().isPrimitive() || to.getKind().isPrimitive()
+                ? types.isSameType(from, to)
+                  || fromClass != null && toClass != null && DefaultTransformers.isWidening(fromClass, toClass)
+                : types.isAssignable(from, to)) {
+            return "%s";
+        }
+        if (fromClass == null || toClass == null || DefaultTransformers.find(fromClass, toClass) == null) {
+            return null;
+        }
+        String fieldName = "CONVERSION_" + conversions.size();
+        conversions.add(new PatchModel.ConversionRef(fieldName, from + ".class", to + ".class"));
+        return "(" + boxed(to) + ") " + fieldName + ".apply(%s)";
+    }
+
+    private TypeMirror boxed(TypeMirror type) {
+        return type.getKind().isPrimitive() ? types.boxedClass((PrimitiveType) type).asType() : type;
+    }
+
+    /**
+     * Loads an erased type the way the runtime sees it. Types of the compiled sources cannot be loaded,
+     * which is fine: the default transformers only convert between JDK types.
+     *
+     * @return the class, or null if the processor cannot load it
+     */
+    private Class<?> loadClass(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return switch (type.getKind()) {
+                case BOOLEAN -> boolean.class;
+                case BYTE -> byte.class;
+                case SHORT -> short.class;
+                case CHAR -> char.class;
+                case INT -> int.class;
+                case LONG -> long.class;
+                case FLOAT -> float.class;
+                default -> double.class;
+            };
+        }
+        if (!(type instanceof DeclaredType declaredType)) {
+            return null;
+        }
+        try {
+            return Class.forName(elements.getBinaryName((TypeElement) declaredType.asElement()).toString(), false,
+                    DefaultTransformers.class.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private Accessor resolveGetter(String name) {
+        for (ExecutableElement method : publicInstanceMethods(fromType)) {
+            if (method.getParameters().isEmpty()
+                && method.getSimpleName().contentEquals("get" + capitalize(name))) {
+                return new Accessor("fromObject." + method.getSimpleName() + "()", method.getReturnType(), method);
+            }
+        }
+        for (ExecutableElement method : publicInstanceMethods(fromType)) {
+            if (method.getParameters().isEmpty()
+                && method.getReturnType().getKind() == TypeKind.BOOLEAN
+                && method.getSimpleName().contentEquals("is" + capitalize(name))) {
+                return new Accessor("fromObject." + method.getSimpleName() + "()", method.getReturnType(), method);
+            }
+        }
+        if (fromType.getKind() == ElementKind.RECORD) {
+            for (RecordComponentElement component : fromType.getRecordComponents()) {
+                if (component.getSimpleName().contentEquals(name)) {
+                    return new Accessor("fromObject." + name + "()", component.asType(), component);
+                }
+            }
+        }
+        for (VariableElement field : publicInstanceFields(fromType)) {
+            if (field.getSimpleName().contentEquals(name)) {
+                return new Accessor("fromObject." + name, field.asType(), field);
+            }
+        }
+        return null;
+    }
+
+    private Accessor resolveSetter(String name) {
+        for (ExecutableElement method : publicInstanceMethods(toType)) {
+            if (method.getParameters().size() == 1
+                && method.getSimpleName().contentEquals("set" + capitalize(name))) {
+                return new Accessor("toObject." + method.getSimpleName() + "(%s)",
+                        method.getParameters().getFirst().asType(), method);
+            }
+        }
+        for (VariableElement field : publicInstanceFields(toType)) {
+            if (field.getSimpleName().contentEquals(name) && !field.getModifiers().contains(Modifier.FINAL)) {
+                return new Accessor("toObject." + name + " = %s", field.asType(), field);
+            }
+        }
+        return null;
+    }
+
+    private List<ExecutableElement> publicInstanceMethods(TypeElement type) {
+        return ElementFilter.methodsIn(elements.getAllMembers(type)).stream()
+                .filter(this::isPublicInstance)
+                .toList();
+    }
+
+    private List<VariableElement> publicInstanceFields(TypeElement type) {
+        return ElementFilter.fieldsIn(elements.getAllMembers(type)).stream()
+                .filter(this::isPublicInstance)
+                .toList();
+    }
+
+    private boolean isPublicInstance(Element element) {
+        Set<Modifier> modifiers = element.getModifiers();
+        return modifiers.contains(Modifier.PUBLIC) && !modifiers.contains(Modifier.STATIC);
+    }
+
+    private boolean isAccessible(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return true;
+        }
+        if (type instanceof ArrayType arrayType) {
+            return isAccessible(arrayType.getComponentType());
+        }
+        if (type instanceof DeclaredType declaredType) {
+            return isAccessible((TypeElement) declaredType.asElement());
+        }
+        return false;
+    }
+
+    private boolean isAccessible(TypeElement type) {
+        boolean samePackage = elements.getPackageOf(type).getQualifiedName().contentEquals(packageName);
+        for (Element e = type; !(e instanceof PackageElement); e = e.getEnclosingElement()) {
+            Set<Modifier> modifiers = e.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || !samePackage && !modifiers.contains(Modifier.PUBLIC)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void requireAccessible(TypeElement type, Element origin) {
+        if (!isAccessible(type)) {
+            throw new ProcessingException(type.getQualifiedName()
+                                          + " must be accessible from package '"
+                                          + packageName + "'", origin);
+        }
+    }
+
+    private static boolean hasAnnotation(Element element, String annotation) {
+        return annotationMirror(element, annotation) != null;
+    }
+
+    private static AnnotationValue annotationValue(Element element, String annotation) {
+        AnnotationMirror mirror = annotationMirror(element, annotation);
+        if (mirror == null) {
+            return null;
+        }
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static AnnotationMirror annotationMirror(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Binary simple name with {@code $} replaced, matching {@code GeneratedPatches.flatName} at runtime.
+     */
+    private String flatName(TypeElement type) {
+        String binaryName = elements.getBinaryName(type).toString();
+        return binaryName.substring(binaryName.lastIndexOf('.') + 1).replace('$', '_');
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static String uncapitalize(String name) {
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+}
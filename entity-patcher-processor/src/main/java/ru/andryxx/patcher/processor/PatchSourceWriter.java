@@ -0,0 +1,132 @@
+package ru.andryxx.patcher.processor;
+
+import java.util.stream.Collectors;
+
+/**
+ * Renders a {@link PatchModel} as Java source of a {@code GeneratedPatch} implementation.
+ */
+class PatchSourceWriter {
+    private final PatchModel model;
+    private final StringBuilder out = new StringBuilder();
+
+    PatchSourceWriter(PatchModel model) {
+        this.model = model;
+    }
+
+    String write() {
+        if (!model.packageName().isEmpty()) {
+            line(0, "package " + model.packageName() + ";");
+            line(0, "");
+        }
+        String from = model.fromType();
+        String to = model.toType();
+        line(0, "@javax.annotation.processing.Generated(\"" + PatcherProcessor.class.getName() + "\")");
+        line(0, "@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+        line(0, "public final class " + model.simpleName()
+                + " implements ru.andryxx.patcher.engine.GeneratedPatch<" + from + ", " + to + "> {");
+        line(1, "private static final java.util.Map<String, String> MAPPINGS = java.util.Map.ofEntries("
+                + model.steps().stream()
+                        .map(step -> "java.util.Map.entry(" + literal(step.toName()) + ", "
+                                     + literal(step.fromName()) + ")")
+                        .collect(Collectors.joining(", "))
+                + ");");
+        for (PatchModel.ConversionRef conversion : model.conversions()) {
+            line(1, "private static final java.util.function.Function<Object, Object> " + conversion.fieldName()
+                    + " = ru.andryxx.patcher.engine.DefaultTransformers.find(" + conversion.from() + ", "
+                    + conversion.to() + ");");
+        }
+        for (PatchModel.TransformerRef transformer : model.transformers()) {
+            line(1, "private java.util.function.Function<Object, Object> " + transformer.fieldName() + ";");
+        }
+        line(0, "");
+
+        line(1, "@Override");
+        line(1, "public Class<" + from + "> fromType() {");
+        line(2, "return " + from + ".class;");
+        line(1, "}");
+        line(0, "");
+        line(1, "@Override");
+        line(1, "public Class<" + to + "> toType() {");
+        line(2, "return " + to + ".class;");
+        line(1, "}");
+        line(0, "");
+
+        line(1, "@Override");
+        line(1, "public java.util.Map<String, String> mappings() {");
+        line(2, "return MAPPINGS;");
+        line(1, "}");
+        line(0, "");
+
+        line(1, "@Override");
+        line(1, "public void patch(" + from + " fromObject, " + to
+                + " toObject, ru.andryxx.patcher.logging.PatchLogger logger) {");
+        for (PatchModel.Step step : model.steps()) {
+            writeStep(step);
+        }
+        line(1, "}");
+
+        for (PatchModel.TransformerRef transformer : model.transformers()) {
+            writeTransformer(transformer);
+        }
+        line(0, "}");
+        return out.toString();
+    }
+
+    private void writeStep(PatchModel.Step step) {
+        line(2, "try {");
+        line(3, step.valueType() + " " + "value = " + step.read() + ";");
+        int indent = 3;
+        if (step.ignoreNull()) {
+            line(3, "if (value != null) {");
+            indent++;
+        }
+        String converted = step.convert().formatted("value");
+        if (step.logChange()) {
+            line(indent, "var newValue = " + converted + ";");
+            converted = "newValue";
+        }
+        line(indent, step.write().formatted(converted) + ";");
+        if (step.logChange()) {
+            line(indent, "if (logger != null) {");
+            line(indent + 1, "logger.log(" + literal(step.fromName()) + ", " + literal(step.toName())
+                             + ", newValue);");
+            line(indent, "}");
+        }
+        if (step.ignoreNull()) {
+            line(3, "}");
+        }
+        line(2, "} catch (Exception e) {");
+        line(3, "throw new ru.andryxx.patcher.exceptions.MappingExecutionException(\"Exception during mapping "
+                + step.fromName() + " to " + step.toName() + "\", e);");
+        line(2, "}");
+    }
+
+    /**
+     * Transformers are resolved on first use, so they only have to be registered before the first patch call.
+     */
+    private void writeTransformer(PatchModel.TransformerRef transformer) {
+        String field = transformer.fieldName();
+        String keys = transformer.keys().stream().map(PatchSourceWriter::literal).collect(Collectors.joining(", "));
+        line(0, "");
+        line(1, "private java.util.function.Function<Object, Object> " + field + "() {");
+        line(2, "java.util.function.Function<Object, Object> function = " + field + ";");
+        line(2, "if (function == null) {");
+        line(3, "function = ru.andryxx.patcher.engine.GeneratedPatch.transformer(" + literal(transformer.field())
+                + ", " + transformer.from() + ", " + transformer.to() + ", " + keys + ");");
+        line(3, field + " = function;");
+        line(2, "}");
+        line(2, "return function;");
+        line(1, "}");
+    }
+
+    private void line(int indent, String text) {
+        if (!text.isEmpty()) {
+            out.append("    ".repeat(indent)).append(text);
+        }
+        out.append('\n');
+    }
+
+    private static String literal(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
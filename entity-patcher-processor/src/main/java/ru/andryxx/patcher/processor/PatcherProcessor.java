@@ -0,0 +1,100 @@
+package ru.andryxx.patcher.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates reflection-free {@code GeneratedPatch} implementations for types annotated with
+ * {@code @GeneratePatcher}. Generated classes follow the runtime naming convention, so
+ * {@code Patcher.forType} picks them up without any registration.
+ */
+@SupportedAnnotationTypes(PatcherProcessor.GENERATE_PATCHER)
+public class PatcherProcessor extends AbstractProcessor {
+    static final String ANNOTATIONS = "ru.andryxx.patcher.annotations.";
+    static final String GENERATE_PATCHER = ANNOTATIONS + "GeneratePatcher";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(GENERATE_PATCHER);
+        if (annotation == null) {
+            return false;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.RECORD) {
+                error("@GeneratePatcher is only supported on classes and records", element);
+                continue;
+            }
+            TypeElement fromType = (TypeElement) element;
+            for (TypeElement toType : targets(fromType)) {
+                try {
+                    generate(fromType, toType);
+                } catch (ProcessingException e) {
+                    error(e.getMessage(), e.getElement() != null ? e.getElement() : fromType);
+                }
+            }
+        }
+        return true;
+    }
+
+    private List<TypeElement> targets(TypeElement fromType) {
+        List<TypeElement> targets = new ArrayList<>();
+        for (AnnotationMirror mirror : fromType.getAnnotationMirrors()) {
+            if (!((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName()
+                    .contentEquals(GENERATE_PATCHER)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                    : mirror.getElementValues().entrySet()) {
+                if (!entry.getKey().getSimpleName().contentEquals("value")) {
+                    continue;
+                }
+                @SuppressWarnings("unchecked")
+                var values = (List<? extends AnnotationValue>) entry.getValue().getValue();
+                for (AnnotationValue value : values) {
+                    targets.add((TypeElement) ((DeclaredType) value.getValue()).asElement());
+                }
+            }
+        }
+        return targets;
+    }
+
+    private void generate(TypeElement fromType, TypeElement toType) {
+        PatchModel model = new PatchModelBuilder(processingEnv, fromType, toType).build();
+        try {
+            JavaFileObject file = processingEnv.getFiler()
+                    .createSourceFile(model.qualifiedName(), fromType, toType);
+            try (Writer writer = file.openWriter()) {
+                writer.write(new PatchSourceWriter(model).write());
+            }
+        } catch (IOException e) {
+            throw new ProcessingException("Unable to write " + model.qualifiedName() + ": " + e.getMessage(),
+                    fromType);
+        }
+    }
+
+    private void error(String message, Element element) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
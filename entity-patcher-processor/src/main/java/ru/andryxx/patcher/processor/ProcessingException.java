@@ -0,0 +1,19 @@
+package ru.andryxx.patcher.processor;
+
+import javax.lang.model.element.Element;
+
+/**
+ * Mapping problem detected at compile time, reported as an error on {@link #getElement()}.
+ */
+class ProcessingException extends RuntimeException {
+    private final transient Element element;
+
+    ProcessingException(String message, Element element) {
+        super(message);
+        this.element = element;
+    }
+
+    Element getElement() {
+        return element;
+    }
+}
@@ -0,0 +1,96 @@
+package ru.andryxx.patcher.engine;
+
+import org.junit.jupiter.api.Test;
+import ru.andryxx.patcher.annotations.GeneratePatcher;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Patches of this class are generated by {@code PatcherProcessor} while compiling the tests.
+ */
+public class GeneratedPatchesTest {
+    private static final StackWalker WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    @GeneratePatcher(Entity.class)
+    public static class Dto {
+        public String name;
+        public int age;
+        // not converted by the int -> Long default transformer, neither at runtime nor in the generated patch
+        public Integer score;
+    }
+
+    public static class Entity {
+        private String name;
+        private Long age;
+        private Long score = 5L;
+        // class calling the last setter, to tell the generated patch from the runtime plan
+        private Class<?> writer;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+            writer = WALKER.getCallerClass();
+        }
+
+        public Long getAge() {
+            return age;
+        }
+
+        public void setAge(Long age) {
+            this.age = age;
+        }
+
+        public Long getScore() {
+            return score;
+        }
+
+        public void setScore(Long score) {
+            this.score = score;
+        }
+    }
+
+    public static class NotGenerated {
+        public String name;
+    }
+
+    @Test
+    public void shouldFindGeneratedPatch_ByNamingConvention() throws ClassNotFoundException {
+        GeneratedPatch<Dto, Entity> patch = GeneratedPatches.find(Dto.class, Entity.class);
+
+        assertInstanceOf(Class.forName(GeneratedPatches.className(Dto.class, Entity.class)), patch);
+        assertEquals(Map.of("name", "name", "age", "age"), patch.mappings());
+        assertNull(GeneratedPatches.find(NotGenerated.class, Entity.class));
+    }
+
+    @Test
+    public void shouldUseGeneratedPatch_UntilConfigurationChanges() throws ClassNotFoundException {
+        Class<?> patchClass = Class.forName(GeneratedPatches.className(Dto.class, Entity.class));
+        Dto dto = new Dto();
+        dto.name = "foo";
+        dto.age = 30;
+        dto.score = 40;
+
+        var patcher = Patcher.forType(Dto.class, Entity.class);
+        Entity generated = new Entity();
+        patcher.patch(dto, generated);
+        assertEquals(patchClass, generated.writer);
+        assertEquals("foo", generated.getName());
+        assertEquals(30L, generated.getAge());
+        assertEquals(5L, generated.getScore());
+
+        patcher.ignoreNull();
+        Entity reflective = new Entity();
+        patcher.patch(dto, reflective);
+        assertNotEquals(patchClass, reflective.writer);
+        assertEquals("foo", reflective.getName());
+        assertEquals(30L, reflective.getAge());
+    }
+}
@@ -0,0 +1,262 @@
+package ru.andryxx.patcher.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.andryxx.patcher.engine.GeneratedPatch;
+import ru.andryxx.patcher.engine.Patcher;
+import ru.andryxx.patcher.engine.Transformer;
+import ru.andryxx.patcher.exceptions.MappingExecutionException;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PatcherProcessorTest {
+    private static final String ENTITY = """
+            package test;
+
+            import ru.andryxx.patcher.annotations.Ignore;
+
+            import java.time.LocalDate;
+
+            public class Entity {
+                private String name;
+                private int age;
+                private LocalDate birthday;
+                public Long id;
+                public String fullName;
+                @Ignore
+                public String secret;
+
+                public String getName() { return name; }
+                public void setName(String name) { this.name = name; }
+                public int getAge() { return age; }
+                public void setAge(int age) { this.age = age; }
+                public LocalDate getBirthday() { return birthday; }
+                public void setBirthday(LocalDate birthday) { this.birthday = birthday; }
+            }
+            """;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void shouldGeneratePatch_UsedByDefaultPatcher() throws Exception {
+        ClassLoader loader = compile(Map.of(
+                "test/Dto.java", """
+                        package test;
+
+                        import ru.andryxx.patcher.annotations.*;
+
+                        @GeneratePatcher(Entity.class)
+                        public class Dto {
+                            @IgnoreIfNull
+                            public String name;
+                            public int age;
+                            public String birthday;
+                            public int id;
+                            @MapTo("fullName")
+                            public String title;
+                            public String secret;
+                        }
+                        """,
+                "test/Entity.java", ENTITY));
+        Class<?> dtoClass = loader.loadClass("test.Dto");
+        Class<?> entityClass = loader.loadClass("test.Entity");
+        assertGenerated(loader, "test.DtoToEntityPatch");
+
+        Object dto = dtoClass.getConstructor().newInstance();
+        dtoClass.getField("age").set(dto, 30);
+        dtoClass.getField("birthday").set(dto, "2000-01-02");
+        dtoClass.getField("id").set(dto, 7);
+        dtoClass.getField("title").set(dto, "Mr. Foo");
+        dtoClass.getField("secret").set(dto, "secret");
+        Object entity = entityClass.getConstructor().newInstance();
+        entityClass.getMethod("setName", String.class).invoke(entity, "foo");
+
+        patch(dtoClass, entityClass, dto, entity);
+
+        assertEquals("foo", entityClass.getMethod("getName").invoke(entity));
+        assertEquals(30, entityClass.getMethod("getAge").invoke(entity));
+        assertEquals(LocalDate.of(2000, 1, 2), entityClass.getMethod("getBirthday").invoke(entity));
+        assertEquals(7L, entityClass.getField("id").get(entity));
+        assertEquals("Mr. Foo", entityClass.getField("fullName").get(entity));
+        assertNull(entityClass.getField("secret").get(entity));
+    }
+
+    @Test
+    public void shouldResolveTransformers_OnFirstUse() throws Exception {
+        ClassLoader loader = compile(Map.of(
+                "test/Dto.java", """
+                        package test;
+
+                        import ru.andryxx.patcher.annotations.*;
+
+                        @GeneratePatcher(Entity.class)
+                        public class Dto {
+                            @Transform("processorTest.upper")
+                            public String name;
+                        }
+                        """,
+                "test/Entity.java", ENTITY));
+        Class<?> dtoClass = loader.loadClass("test.Dto");
+        Class<?> entityClass = loader.loadClass("test.Entity");
+        Transformer.register("processorTest.upper", Transformer.of(String.class, String.class, String::toUpperCase));
+
+        Object dto = dtoClass.getConstructor().newInstance();
+        dtoClass.getField("name").set(dto, "foo");
+        Object entity = entityClass.getConstructor().newInstance();
+        patch(dtoClass, entityClass, dto, entity);
+
+        assertEquals("FOO", entityClass.getMethod("getName").invoke(entity));
+    }
+
+    @Test
+    public void shouldWrapExceptions_WithMappingNames() throws Exception {
+        ClassLoader loader = compile(Map.of(
+                "test/Dto.java", """
+                        package test;
+
+                        import ru.andryxx.patcher.annotations.*;
+
+                        @GeneratePatcher(Entity.class)
+                        public class Dto {
+                            public String birthday;
+                        }
+                        """,
+                "test/Entity.java", ENTITY));
+        Class<?> dtoClass = loader.loadClass("test.Dto");
+        Class<?> entityClass = loader.loadClass("test.Entity");
+        Object dto = dtoClass.getConstructor().newInstance();
+        dtoClass.getField("birthday").set(dto, "not a date");
+        Object entity = entityClass.getConstructor().newInstance();
+
+        var e = assertThrows(MappingExecutionException.class, () -> patch(dtoClass, entityClass, dto, entity));
+        assertEquals("Exception during mapping birthday to birthday", e.getMessage());
+    }
+
+    @Test
+    public void shouldReportError_ForUnresolvableExplicitMapping() throws Exception {
+        List<Diagnostic<? extends JavaFileObject>> errors = compileWithErrors(Map.of(
+                "test/Dto.java", """
+                        package test;
+
+                        import ru.andryxx.patcher.annotations.*;
+
+                        @GeneratePatcher(Entity.class)
+                        public class Dto {
+                            @MapTo("missing")
+                            public String name;
+                        }
+                        """,
+                "test/Entity.java", ENTITY));
+        assertFalse(errors.isEmpty());
+        assertTrue(errors.getFirst().getMessage(null).contains("Cannot find setter or field 'missing'"));
+    }
+
+    @Test
+    public void shouldReadRecordComponents() throws Exception {
+        ClassLoader loader = compile(Map.of(
+                "test/Dto.java", """
+                        package test;
+
+                        import ru.andryxx.patcher.annotations.*;
+
+                        @GeneratePatcher(Entity.class)
+                        public record Dto(String name, int age, @MapTo("fullName") String title) {
+                        }
+                        """,
+                "test/Entity.java", ENTITY));
+        Class<?> dtoClass = loader.loadClass("test.Dto");
+        Class<?> entityClass = loader.loadClass("test.Entity");
+        assertGenerated(loader, "test.DtoToEntityPatch");
+
+        Object dto = dtoClass.getConstructor(String.class, int.class, String.class).newInstance("foo", 30, "Mr. Foo");
+        Object entity = entityClass.getConstructor().newInstance();
+
+        patch(dtoClass, entityClass, dto, entity);
+
+        assertEquals("foo", entityClass.getMethod("getName").invoke(entity));
+        assertEquals(30, entityClass.getMethod("getAge").invoke(entity));
+        assertEquals("Mr. Foo", entityClass.getField("fullName").get(entity));
+    }
+
+    @Test
+    public void shouldReportError_ForNestedMapToPath() throws Exception {
+        List<Diagnostic<? extends JavaFileObject>> errors = compileWithErrors(Map.of(
+                "test/Dto.java", """
+                        package test;
+
+                        import ru.andryxx.patcher.annotations.*;
+
+                        @GeneratePatcher(Entity.class)
+                        public class Dto {
+                            @MapTo("address.city")
+                            public String city;
+                        }
+                        """,
+                "test/Entity.java", ENTITY));
+        assertFalse(errors.isEmpty());
+        assertTrue(errors.getFirst().getMessage(null).contains("Nested @MapTo path 'address.city'"));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void patch(Class<?> dtoClass, Class<?> entityClass, Object dto, Object entity) {
+        Patcher patcher = Patcher.forType(dtoClass, entityClass);
+        patcher.patch(dto, entity);
+    }
+
+    private static void assertGenerated(ClassLoader loader, String className) throws ClassNotFoundException {
+        assertTrue(GeneratedPatch.class.isAssignableFrom(loader.loadClass(className)));
+    }
+
+    private ClassLoader compile(Map<String, String> sources) throws IOException {
+        List<Diagnostic<? extends JavaFileObject>> errors = compileWithErrors(sources);
+        assertTrue(errors.isEmpty(), errors::toString);
+        return new URLClassLoader(new URL[]{dir.resolve("classes").toUri().toURL()}, getClass().getClassLoader());
+    }
+
+    private List<Diagnostic<? extends JavaFileObject>> compileWithErrors(Map<String, String> sources)
+            throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            Path file = dir.resolve("src").resolve(source.getKey());
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, source.getValue());
+            files.add(file);
+        }
+        Files.createDirectories(dir.resolve("classes"));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    List.of("-classpath", System.getProperty("java.class.path"),
+                            "-d", dir.resolve("classes").toString()),
+                    null, fileManager.getJavaFileObjectsFromPaths(files));
+            task.setProcessors(List.of(new PatcherProcessor()));
+            task.call();
+        }
+        return diagnostics.getDiagnostics().stream()
+                .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                .toList();
+    }
+}
@@ -0,0 +1,76 @@
+package ru.andryxx.patcher.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.andryxx.patcher.classes.TestDTO;
+import ru.andryxx.patcher.classes.TestEntity;
+import ru.andryxx.patcher.engine.Patcher;
+import ru.andryxx.patcher.mapping.access.AccessorFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Compares reflective accessors with {@code LambdaMetafactory}-compiled ones,
+ * both for a single property copy and for a full DTO to entity patch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccessorBenchmark {
+    @Param({"reflective", "compiled"})
+    public String accessors;
+
+    private Function<Object, Object> nameGetter;
+    private BiConsumer<Object, Object> nameSetter;
+    private Function<Object, Object> ageGetter;
+    private BiConsumer<Object, Object> ageSetter;
+    private Patcher<TestDTO, TestEntity> patcher;
+
+    private TestDTO dto;
+    private TestEntity entity;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        AccessorFactory factory = accessors.equals("compiled")
+                ? AccessorFactory.compiled()
+                : AccessorFactory.reflective();
+        nameGetter = factory.getter(TestDTO.class.getMethod("getFullName"));
+        nameSetter = factory.setter(TestEntity.class.getMethod("setName", String.class));
+        ageGetter = factory.getter(TestDTO.class.getMethod("getAge"));
+        ageSetter = factory.setter(TestEntity.class.getMethod("setAge", int.class));
+
+        patcher = Patcher.forType(TestDTO.class, TestEntity.class)
+                .withAccessorFactory(factory)
+                .withFieldMapping("fullName", "name");
+
+        dto = new TestDTO();
+        dto.setFullName("foo");
+        dto.setAge(42);
+        dto.setActive(true);
+        dto.setBirthdate("2000-01-01");
+        dto.publicField = "bar";
+        entity = new TestEntity();
+    }
+
+    @Benchmark
+    public TestEntity copyReference() {
+        nameSetter.accept(entity, nameGetter.apply(dto));
+        return entity;
+    }
+
+    @Benchmark
+    public TestEntity copyPrimitive() {
+        ageSetter.accept(entity, ageGetter.apply(dto));
+        return entity;
+    }
+
+    @Benchmark
+    public TestEntity patch() {
+        patcher.patch(dto, entity);
+        return entity;
+    }
+}
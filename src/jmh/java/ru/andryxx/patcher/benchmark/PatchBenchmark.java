@@ -0,0 +1,47 @@
+package ru.andryxx.patcher.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.andryxx.patcher.classes.TestDTO;
+import ru.andryxx.patcher.classes.TestEntity;
+import ru.andryxx.patcher.engine.Patcher;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full DTO to entity patch with the interpreted plan and with a generated patch class.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PatchBenchmark {
+    @Param({"interpreted", "generated"})
+    public String engine;
+
+    private Patcher<TestDTO, TestEntity> patcher;
+    private TestDTO dto;
+    private TestEntity entity;
+
+    @Setup
+    public void setup() {
+        patcher = Patcher.forType(TestDTO.class, TestEntity.class)
+                .withCodeGeneration(engine.equals("generated"))
+                .withFieldMapping("fullName", "name")
+                .ignoreTo("birthdate");
+
+        dto = new TestDTO();
+        dto.setFullName("foo");
+        dto.setAge(42);
+        dto.setActive(true);
+        dto.publicField = "bar";
+        entity = new TestEntity();
+    }
+
+    @Benchmark
+    public TestEntity patch() {
+        patcher.patch(dto, entity);
+        return entity;
+    }
+}
@@ -0,0 +1,41 @@
+package ru.andryxx.patcher.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.andryxx.patcher.classes.TestDTO;
+import ru.andryxx.patcher.classes.TestEntity;
+import ru.andryxx.patcher.classes.WideTypeNamingResolver;
+import ru.andryxx.patcher.mapping.MappingStrategy;
+import ru.andryxx.patcher.mapping.registry.DefaultMappingRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link DefaultMappingRegistry#scanEntityMappings} against class width,
+ * with every tenth property mapped explicitly. Time per scan should grow linearly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScanBenchmark {
+    @Param({"10", "100", "300", "1000"})
+    public int width;
+
+    private DefaultMappingRegistry registry;
+
+    @Setup
+    public void setup() {
+        registry = new DefaultMappingRegistry(new WideTypeNamingResolver(width), MappingStrategy.USE_FIELDS);
+        for (int i = 0; i < width; i += 10) {
+            registry.registerFieldMapping("p" + i, "p" + (width - 1 - i));
+        }
+    }
+
+    @Benchmark
+    public DefaultMappingRegistry scan() {
+        registry.scanEntityMappings(TestDTO.class, TestEntity.class);
+        return registry;
+    }
+}
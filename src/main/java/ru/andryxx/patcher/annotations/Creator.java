@@ -0,0 +1,17 @@
+package ru.andryxx.patcher.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a constructor or a static factory method used to create instances of the declaring type,
+ * e.g. by {@code Patcher.map}, instead of the constructor without parameters.
+ * A creator with parameters makes the type immutable for the patcher: its parameters are the components
+ * the instance is constructed from, see {@code ru.andryxx.patcher.mapping.Construction}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.CONSTRUCTOR, ElementType.METHOD})
+public @interface Creator {
+}
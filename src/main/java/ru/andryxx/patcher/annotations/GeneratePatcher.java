@@ -0,0 +1,16 @@
+package ru.andryxx.patcher.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Requests compile-time generation of patchers from the annotated type to each of the given target types.
+ * Requires {@code entity-patcher-processor} on the annotation processor path.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface GeneratePatcher {
+    Class<?>[] value();
+}
@@ -1,9 +1,8 @@
 package ru.andryxx.patcher.engine;
 
-import ru.andryxx.patcher.annotations.*;
 import ru.andryxx.patcher.exceptions.MappingExecutionException;
+import ru.andryxx.patcher.mapping.TypeMetadata;
 
-import java.lang.reflect.Field;
 import java.util.*;
 
 class AnnotationProcessor {
@@ -19,55 +18,30 @@ class AnnotationProcessor {
 
 
     public AnnotationMetadata process(Class<?> dClass, Class<?> eClass) {
-        Set<String> fromIgnoreList = new HashSet<>();
-        Set<String> toIgnoreList = new HashSet<>();
-        Set<String> ignoreIfNullList = new HashSet<>();
-        Set<String> logChangeList = new HashSet<>();
-        Map<String, String> mappingMap = new HashMap<>();
-        Map<String, List<Transformer<?, ?>>> transformerMap = new HashMap<>();
+        // annotations are scanned once per class and cached process-wide
+        TypeMetadata.Annotations from = TypeMetadata.of(dClass).annotations();
+        TypeMetadata.Annotations to = TypeMetadata.of(eClass).annotations();
 
-        boolean globalIgnoreNull = dClass.isAnnotationPresent(IgnoreIfNull.class);
-        boolean globalLogChange = eClass.isAnnotationPresent(LogChange.class);
-        // from object fields
-        for (Field field : dClass.getDeclaredFields()) {
-            if (field.isAnnotationPresent(Ignore.class)) {
-                fromIgnoreList.add(field.getName());
-            }
-            if (globalIgnoreNull || field.isAnnotationPresent(IgnoreIfNull.class)) {
-                ignoreIfNullList.add(field.getName());
-            }
-            if (field.isAnnotationPresent(MapTo.class)) {
-                MapTo mapTo = field.getAnnotation(MapTo.class);
-                mappingMap.put(field.getName(), mapTo.value());
-            }
-            if (field.isAnnotationPresent(Transform.class)) {
-                Transform transform = field.getAnnotation(Transform.class);
-                for (String value : transform.value()) {
-                    Transformer<?, ?> transformer = Transformer.get(value);
-                    if (transformer == null) {
-                        throw new MappingExecutionException("Could not find transformer '"
-                                                            + value + "' for field '" + field.getName() + "'");
-                    }
-                    transformerMap.computeIfAbsent(field.getName(), k -> new ArrayList<>()).add(transformer);
+        Set<String> fromIgnoreList = new HashSet<>(from.ignored());
+        fromIgnoreList.addAll(to.ignored());
+        Map<String, List<Transformer<?, ?>>> transformerMap = new HashMap<>();
+        // transformers are looked up on every call, since they can be registered at any time
+        for (Map.Entry<String, List<String>> entry : from.transforms().entrySet()) {
+            for (String value : entry.getValue()) {
+                Transformer<?, ?> transformer = Transformer.get(value);
+                if (transformer == null) {
+                    throw new MappingExecutionException("Could not find transformer '"
+                                                        + value + "' for field '" + entry.getKey() + "'");
                 }
-            }
-        }
-
-        // to objectFields
-        for (Field field : eClass.getDeclaredFields()) {
-            if (field.isAnnotationPresent(Ignore.class)) {
-                fromIgnoreList.add(field.getName());
-            }
-            if (globalLogChange || field.isAnnotationPresent(LogChange.class)) {
-                logChangeList.add(field.getName());
+                transformerMap.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).add(transformer);
             }
         }
         return new AnnotationMetadata(
                 fromIgnoreList,
-                toIgnoreList,
-                ignoreIfNullList,
-                logChangeList,
-                mappingMap,
+                new HashSet<>(),
+                from.ignoreIfNull(),
+                to.logChange(),
+                from.mapTo(),
                 transformerMap
         );
     }
@@ -0,0 +1,68 @@
+package ru.andryxx.patcher.engine;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+/**
+ * Applies an action to every index of a range, splitting the range in halves between
+ * threads of the common fork-join pool until parts are not larger than the threshold.
+ * Each index is processed exactly once, so results written by index keep the input order.
+ * Tasks are never serialized, although {@link RecursiveAction} is {@code Serializable}.
+ */
+@SuppressWarnings("serial")
+final class BatchTask extends RecursiveAction {
+    static final int DEFAULT_THRESHOLD = 1024;
+
+    private final int from;
+    private final int to;
+    private final int threshold;
+    private final IntConsumer action;
+    // the first exception thrown by any part; remaining parts stop once it is set
+    private final AtomicReference<RuntimeException> failure;
+
+    private BatchTask(int from, int to, int threshold, IntConsumer action, AtomicReference<RuntimeException> failure) {
+        this.from = from;
+        this.to = to;
+        this.threshold = threshold;
+        this.action = action;
+        this.failure = failure;
+    }
+
+    /**
+     * Runs the action for indexes {@code [0, size)}; batches not larger than the threshold
+     * are processed in the calling thread.
+     * The first exception thrown by the action is rethrown as is, not wrapped by the pool.
+     */
+    static void run(int size, int threshold, IntConsumer action) {
+        if (size <= threshold) {
+            for (int i = 0; i < size; i++) {
+                action.accept(i);
+            }
+            return;
+        }
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        ForkJoinPool.commonPool().invoke(new BatchTask(0, size, threshold, action, failure));
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from > threshold) {
+            int middle = (from + to) >>> 1;
+            invokeAll(new BatchTask(from, middle, threshold, action, failure),
+                    new BatchTask(middle, to, threshold, action, failure));
+            return;
+        }
+        try {
+            for (int i = from; i < to && failure.get() == null; i++) {
+                action.accept(i);
+            }
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+}
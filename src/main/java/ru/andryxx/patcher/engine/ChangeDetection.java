@@ -0,0 +1,87 @@
+package ru.andryxx.patcher.engine;
+
+import ru.andryxx.patcher.mapping.MappingPair;
+import ru.andryxx.patcher.mapping.access.PropertyGetter;
+import ru.andryxx.patcher.mapping.access.PropertySetter;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Wraps setters and primitive copies so that they read the current target value first
+ * and write only if the new value differs. Skipped writes are counted.
+ * Primitives are compared unboxed, doubles by their bits like {@link Double#equals(Object)},
+ * other values with {@link Objects#equals(Object, Object)}.
+ */
+final class ChangeDetection {
+    private ChangeDetection() {
+    }
+
+    static BiConsumer<Object, Object> setter(BiConsumer<Object, Object> setter,
+                                             Function<Object, Object> currentValue,
+                                             LongAdder skipped) {
+        return (e, value) -> {
+            if (Objects.equals(currentValue.apply(e), value)) {
+                skipped.increment();
+            } else {
+                setter.accept(e, value);
+            }
+        };
+    }
+
+    /**
+     * @param currentValue getter of the target property, returning a value of the mapping target type
+     * @return unboxed copy writing only changed values, or null if the mapping types are not supported
+     */
+    static PrimitiveCopy copy(MappingPair mapping, Function<Object, Object> currentValue, LongAdder skipped) {
+        Class<?> from = mapping.fromObjectValueType();
+        Class<?> to = mapping.toObjectValueType();
+        if (!PrimitiveCopy.isSupported(from, to)) {
+            return null;
+        }
+        PropertyGetter getter = PrimitiveCopy.propertyGetter(mapping.getter());
+        PropertySetter setter = PrimitiveCopy.propertySetter(mapping.setter());
+        PropertyGetter current = PrimitiveCopy.propertyGetter(currentValue);
+        if (to == int.class) {
+            return (d, e) -> {
+                int value = getter.getInt(d);
+                if (current.getInt(e) == value) {
+                    skipped.increment();
+                } else {
+                    setter.setInt(e, value);
+                }
+            };
+        }
+        if (to == long.class) {
+            return (d, e) -> {
+                long value = from == int.class ? getter.getInt(d) : getter.getLong(d);
+                if (current.getLong(e) == value) {
+                    skipped.increment();
+                } else {
+                    setter.setLong(e, value);
+                }
+            };
+        }
+        if (to == double.class) {
+            return (d, e) -> {
+                double value = from == int.class ? getter.getInt(d)
+                        : from == long.class ? getter.getLong(d) : getter.getDouble(d);
+                if (Double.doubleToLongBits(current.getDouble(e)) == Double.doubleToLongBits(value)) {
+                    skipped.increment();
+                } else {
+                    setter.setDouble(e, value);
+                }
+            };
+        }
+        return (d, e) -> {
+            boolean value = getter.getBoolean(d);
+            if (current.getBoolean(e) == value) {
+                skipped.increment();
+            } else {
+                setter.setBoolean(e, value);
+            }
+        };
+    }
+}
@@ -0,0 +1,317 @@
+package ru.andryxx.patcher.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal class file writer covering the instructions needed by {@link PatchClassGenerator}.
+ * Emits class file version 49, so no stack map frames have to be computed.
+ */
+final class ClassFileWriter {
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    static final int ALOAD = 0x19;
+    static final int ASTORE = 0x3a;
+    static final int AALOAD = 0x32;
+    static final int DUP = 0x59;
+    static final int SIPUSH = 0x11;
+    static final int LDC_W = 0x13;
+    static final int IFEQ = 0x99;
+    static final int IFNULL = 0xc6;
+    static final int RETURN = 0xb1;
+    static final int GETSTATIC = 0xb2;
+    static final int PUTSTATIC = 0xb3;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKESTATIC = 0xb8;
+    static final int INVOKEINTERFACE = 0xb9;
+    static final int NEW = 0xbb;
+    static final int ATHROW = 0xbf;
+    static final int CHECKCAST = 0xc0;
+
+    private static final int CLASS_VERSION = 49;
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final Map<String, Integer> poolIndex = new HashMap<>();
+    private int poolSize = 1;
+
+    private final int thisClass;
+    private final int superClass;
+    private final int[] interfaces;
+    private final List<byte[]> fields = new ArrayList<>();
+    private final List<Code> methods = new ArrayList<>();
+
+    ClassFileWriter(String name, String superName, String... interfaceNames) {
+        this.thisClass = classRef(name);
+        this.superClass = classRef(superName);
+        this.interfaces = new int[interfaceNames.length];
+        for (int i = 0; i < interfaceNames.length; i++) {
+            interfaces[i] = classRef(interfaceNames[i]);
+        }
+    }
+
+    int utf8(String value) {
+        return constant("U" + value, out -> {
+            out.writeByte(1);
+            out.writeUTF(value);
+        });
+    }
+
+    int classRef(String internalName) {
+        int name = utf8(internalName);
+        return constant("C" + internalName, out -> {
+            out.writeByte(7);
+            out.writeShort(name);
+        });
+    }
+
+    int string(String value) {
+        int utf = utf8(value);
+        return constant("S" + value, out -> {
+            out.writeByte(8);
+            out.writeShort(utf);
+        });
+    }
+
+    int fieldRef(String owner, String name, String descriptor) {
+        return memberRef(9, owner, name, descriptor);
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        return memberRef(10, owner, name, descriptor);
+    }
+
+    int interfaceMethodRef(String owner, String name, String descriptor) {
+        return memberRef(11, owner, name, descriptor);
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        int ownerIndex = classRef(owner);
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        int nameAndType = constant("N" + name + ' ' + descriptor, out -> {
+            out.writeByte(12);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        });
+        return constant(tag + owner + '.' + name + descriptor, out -> {
+            out.writeByte(tag);
+            out.writeShort(ownerIndex);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    private interface PoolEntry {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private int constant(String key, PoolEntry entry) {
+        Integer index = poolIndex.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            entry.write(poolOut);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        poolIndex.put(key, poolSize);
+        return poolSize++;
+    }
+
+    void field(int access, String name, String descriptor) {
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        fields.add(new byte[]{
+                (byte) (access >> 8), (byte) access,
+                (byte) (nameIndex >> 8), (byte) nameIndex,
+                (byte) (descriptorIndex >> 8), (byte) descriptorIndex,
+                0, 0
+        });
+    }
+
+    Code method(int access, String name, String descriptor, int maxStack, int maxLocals) {
+        Code code = new Code(access, utf8(name), utf8(descriptor), maxStack, maxLocals);
+        methods.add(code);
+        return code;
+    }
+
+    byte[] toByteArray() {
+        int codeAttribute = utf8("Code");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(CLASS_VERSION);
+            out.writeShort(poolSize);
+            pool.writeTo(out);
+            out.writeShort(ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaces.length);
+            for (int i : interfaces) {
+                out.writeShort(i);
+            }
+            out.writeShort(fields.size());
+            for (byte[] field : fields) {
+                out.write(field);
+            }
+            out.writeShort(methods.size());
+            for (Code method : methods) {
+                method.writeTo(out, codeAttribute);
+            }
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private record Handler(Label start, Label end, Label handler, int type) {
+    }
+
+    static final class Label {
+        private int position = -1;
+        private final List<Integer> branches = new ArrayList<>();
+    }
+
+    /**
+     * Bytecode of a single method. Branch offsets are resolved when the class is written.
+     */
+    final class Code {
+        private final int access;
+        private final int name;
+        private final int descriptor;
+        private final int maxStack;
+        private final int maxLocals;
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+        private final List<Label> labels = new ArrayList<>();
+        private final List<Handler> handlers = new ArrayList<>();
+
+        private Code(int access, int name, int descriptor, int maxStack, int maxLocals) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.maxStack = maxStack;
+            this.maxLocals = maxLocals;
+        }
+
+        Code op(int opcode) {
+            code.write(opcode);
+            return this;
+        }
+
+        Code local(int opcode, int index) {
+            code.write(opcode);
+            code.write(index);
+            return this;
+        }
+
+        Code sipush(int value) {
+            code.write(SIPUSH);
+            u2(value);
+            return this;
+        }
+
+        Code ldc(int constant) {
+            code.write(LDC_W);
+            u2(constant);
+            return this;
+        }
+
+        Code type(int opcode, String internalName) {
+            code.write(opcode);
+            u2(classRef(internalName));
+            return this;
+        }
+
+        Code field(int opcode, String owner, String name, String descriptor) {
+            code.write(opcode);
+            u2(fieldRef(owner, name, descriptor));
+            return this;
+        }
+
+        Code invoke(int opcode, String owner, String name, String descriptor) {
+            code.write(opcode);
+            u2(methodRef(owner, name, descriptor));
+            return this;
+        }
+
+        Code invokeInterface(String owner, String name, String descriptor, int argSlots) {
+            code.write(INVOKEINTERFACE);
+            u2(interfaceMethodRef(owner, name, descriptor));
+            code.write(argSlots + 1);
+            code.write(0);
+            return this;
+        }
+
+        Label label() {
+            Label label = new Label();
+            labels.add(label);
+            return label;
+        }
+
+        Code place(Label label) {
+            label.position = code.size();
+            return this;
+        }
+
+        Code jump(int opcode, Label target) {
+            target.branches.add(code.size());
+            code.write(opcode);
+            u2(0);
+            return this;
+        }
+
+        Code tryCatch(Label start, Label end, Label handler, String exceptionType) {
+            handlers.add(new Handler(start, end, handler, classRef(exceptionType)));
+            return this;
+        }
+
+        private void u2(int value) {
+            code.write(value >> 8);
+            code.write(value);
+        }
+
+        private void writeTo(DataOutputStream out, int codeAttribute) throws IOException {
+            byte[] bytes = code.toByteArray();
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalStateException("Method code is too large: " + bytes.length + " bytes");
+            }
+            for (Label label : labels) {
+                for (int branch : label.branches) {
+                    int offset = label.position - branch;
+                    bytes[branch + 1] = (byte) (offset >> 8);
+                    bytes[branch + 2] = (byte) offset;
+                }
+            }
+            out.writeShort(access);
+            out.writeShort(name);
+            out.writeShort(descriptor);
+            out.writeShort(1);
+            out.writeShort(codeAttribute);
+            out.writeInt(12 + bytes.length + 8 * handlers.size());
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.writeShort(handlers.size());
+            for (Handler handler : handlers) {
+                out.writeShort(handler.start.position);
+                out.writeShort(handler.end.position);
+                out.writeShort(handler.handler.position);
+                out.writeShort(handler.type);
+            }
+            out.writeShort(0);
+        }
+    }
+}
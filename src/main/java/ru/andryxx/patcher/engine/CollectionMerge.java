@@ -0,0 +1,196 @@
+package ru.andryxx.patcher.engine;
+
+import ru.andryxx.patcher.exceptions.MappingExecutionException;
+import ru.andryxx.patcher.mapping.MappingPair;
+import ru.andryxx.patcher.mapping.PropertyReader;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Strategy of patching a target collection field from a source collection of other element type.
+ * The target collection is modified in place, so collections tracked by an ORM are not replaced.
+ * <p>
+ * Elements are converted with an element patcher, by default {@code Patcher.forType(sourceType, targetType)},
+ * created once with the strategy.
+ *
+ * @param <S> type of source elements
+ * @param <T> type of target elements
+ */
+public final class CollectionMerge<S, T> {
+    private enum Mode {
+        REPLACE, APPEND, BY_KEY
+    }
+
+    private final Mode mode;
+    private final Class<S> sourceType;
+    private final Function<? super S, ?> sourceKey;
+    private final Function<? super T, ?> targetKey;
+    private final Patcher<S, T> elementPatcher;
+
+    private CollectionMerge(Mode mode,
+                            Class<S> sourceType,
+                            Function<? super S, ?> sourceKey,
+                            Function<? super T, ?> targetKey,
+                            Patcher<S, T> elementPatcher) {
+        this.mode = mode;
+        this.sourceType = sourceType;
+        this.sourceKey = sourceKey;
+        this.targetKey = targetKey;
+        this.elementPatcher = elementPatcher.freeze();
+    }
+
+    /**
+     * Clears the target collection and adds a new element for each source element.
+     */
+    public static <S, T> CollectionMerge<S, T> replace(Class<S> sourceType, Class<T> targetType) {
+        return new CollectionMerge<>(Mode.REPLACE, sourceType, null, null,
+                Patcher.forType(sourceType, targetType));
+    }
+
+    /**
+     * Adds a new element for each source element, keeping the existing ones.
+     */
+    public static <S, T> CollectionMerge<S, T> append(Class<S> sourceType, Class<T> targetType) {
+        return new CollectionMerge<>(Mode.APPEND, sourceType, null, null,
+                Patcher.forType(sourceType, targetType));
+    }
+
+    /**
+     * Matches elements by key: matching target elements are patched in place, source elements without
+     * a match are added as new elements and target elements without a match are removed.
+     * Existing elements keep their order; new elements are added at the end.
+     *
+     * @param sourceKey key of a source element, e.g. its id; null keys never match
+     * @param targetKey key of a target element
+     */
+    public static <S, T, K> CollectionMerge<S, T> byKey(Class<S> sourceType,
+                                                         Class<T> targetType,
+                                                         Function<? super S, ? extends K> sourceKey,
+                                                         Function<? super T, ? extends K> targetKey) {
+        return new CollectionMerge<>(Mode.BY_KEY, sourceType,
+                Objects.requireNonNull(sourceKey), Objects.requireNonNull(targetKey),
+                Patcher.forType(sourceType, targetType));
+    }
+
+    /**
+     * @return a copy of this strategy converting elements with the given patcher; the patcher is frozen
+     */
+    public CollectionMerge<S, T> withElementPatcher(Patcher<S, T> elementPatcher) {
+        return new CollectionMerge<>(mode, sourceType, sourceKey, targetKey, elementPatcher);
+    }
+
+    /**
+     * Creates a setter that merges a source collection into the current target collection,
+     * creating the target collection if it is null.
+     *
+     * @param target getter of the current target collection, or null if it cannot be read
+     */
+    BiConsumer<Object, Object> setter(MappingPair mapping, PropertyReader target, Supplier<Object> creator) {
+        Class<?> fieldType = mapping.toObjectValueType();
+        if (!Collection.class.isAssignableFrom(mapping.fromObjectValueType())
+            || !Collection.class.isAssignableFrom(fieldType)) {
+            throw new MappingExecutionException("Collection merge of " + mapping.fromFieldName() + " ("
+                                                + mapping.fromObjectValueType() + ") to " + mapping.toFieldName()
+                                                + " (" + fieldType + ") requires collection types");
+        }
+        BiConsumer<Object, Object> setter = mapping.setter();
+        Function<Object, Object> getter = target != null ? target.getter() : null;
+        return (eObject, value) -> {
+            if (value == null) {
+                setter.accept(eObject, null);
+                return;
+            }
+            @SuppressWarnings("unchecked")
+            Collection<T> current = getter != null ? (Collection<T>) getter.apply(eObject) : null;
+            boolean created = current == null;
+            if (created) {
+                current = newCollection(fieldType, creator);
+            }
+            merge((Collection<?>) value, current);
+            if (created) {
+                setter.accept(eObject, current);
+            }
+        };
+    }
+
+    /**
+     * Merges the source elements into the target collection.
+     */
+    void merge(Collection<?> source, Collection<T> target) {
+        switch (mode) {
+            case REPLACE -> {
+                target.clear();
+                addAll(source, target);
+            }
+            case APPEND -> addAll(source, target);
+            case BY_KEY -> mergeByKey(source, target);
+        }
+    }
+
+    private void addAll(Collection<?> source, Collection<T> target) {
+        for (Object element : source) {
+            target.add(element == null ? null : elementPatcher.map(sourceType.cast(element)));
+        }
+    }
+
+    private void mergeByKey(Collection<?> source, Collection<T> target) {
+        Map<Object, T> matches = HashMap.newHashMap(target.size());
+        for (T element : target) {
+            Object key = element != null ? targetKey.apply(element) : null;
+            if (key != null) {
+                matches.putIfAbsent(key, element);
+            }
+        }
+        Set<T> kept = Collections.newSetFromMap(new IdentityHashMap<>(matches.size()));
+        List<T> added = new ArrayList<>();
+        for (Object element : source) {
+            if (element == null) {
+                continue;
+            }
+            S sourceElement = sourceType.cast(element);
+            Object key = sourceKey.apply(sourceElement);
+            T match = key != null ? matches.remove(key) : null;
+            if (match != null) {
+                elementPatcher.patch(sourceElement, match);
+                kept.add(match);
+            } else {
+                added.add(elementPatcher.map(sourceElement));
+            }
+        }
+        if (kept.size() < target.size()) {
+            target.removeIf(element -> !kept.contains(element));
+        }
+        target.addAll(added);
+    }
+
+    private Collection<T> newCollection(Class<?> fieldType, Supplier<Object> creator) {
+        if (fieldType.isAssignableFrom(ArrayList.class)) {
+            return new ArrayList<>();
+        }
+        if (fieldType.isAssignableFrom(LinkedHashSet.class)) {
+            return new LinkedHashSet<>();
+        }
+        if (fieldType.isAssignableFrom(TreeSet.class)) {
+            return new TreeSet<>();
+        }
+        if (creator == null) {
+            throw new MappingExecutionException("Unable to initialize collection " + fieldType.getName());
+        }
+        @SuppressWarnings("unchecked")
+        Collection<T> collection = (Collection<T>) creator.get();
+        return collection;
+    }
+}
@@ -0,0 +1,15 @@
+package ru.andryxx.patcher.engine;
+
+import ru.andryxx.patcher.logging.PatchLogger;
+
+/**
+ * Patch steps compiled into a single class by {@link PatchClassGenerator}.
+ */
+interface CompiledPatch<D, E> {
+    /**
+     * Applies every step of the plan the class was generated from.
+     *
+     * @param logger logger for steps with change logging enabled, may be null
+     */
+    void patch(D dObject, E eObject, PatchLogger logger);
+}
@@ -0,0 +1,157 @@
+package ru.andryxx.patcher.engine;
+
+import ru.andryxx.patcher.exceptions.MappingExecutionException;
+import ru.andryxx.patcher.mapping.MappingPair;
+import ru.andryxx.patcher.mapping.PropertyReader;
+import ru.andryxx.patcher.mapping.TypeMetadata;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Deep patching of nested beans: a bean-typed source value is patched into the existing target sub-object
+ * instead of replacing the reference, creating the sub-object with the creator resolved by the mapping registry
+ * if it is null.
+ * <p>
+ * Child patchers are derived from the configuration of the patcher being compiled, see
+ * {@link PatcherEngine#derive(Class, Class)}, so they use its global transformers, null handling, logger
+ * and registry settings. They are created once per pair of runtime types and cached in {@link Children},
+ * which belongs to the compiled plan and is shared by the whole tree of its children.
+ * Every source object patched within one outermost patch call is tracked with the targets it was patched into,
+ * so shared references stay shared and cycles end at the object that is already being patched. A source object
+ * mapped to fields of different types is patched into a target of each type.
+ * The identity map is kept per thread and cleared, not reallocated, after each outermost call.
+ */
+final class DeepPatch {
+    private record ChildKey(Class<?> dClass, Class<?> eClass) {
+    }
+
+    /**
+     * Child patchers of a plan, derived from the configuration the plan was compiled with.
+     */
+    static final class Children {
+        private final PatcherEngine<Object, Object> settings;
+        private final Map<ChildKey, PatcherSnapshot<Object, Object>> children = new ConcurrentHashMap<>();
+
+        Children(PatcherEngine<Object, Object> settings) {
+            this.settings = settings;
+        }
+
+        private PatcherSnapshot<Object, Object> get(Class<?> dClass, Class<?> eClass) {
+            return children.computeIfAbsent(new ChildKey(dClass, eClass), key -> create(key.dClass(), key.eClass()));
+        }
+
+        @SuppressWarnings("unchecked")
+        private PatcherSnapshot<Object, Object> create(Class<?> dClass, Class<?> eClass) {
+            PatcherEngine<Object, Object> child = settings.derive((Class<Object>) dClass, (Class<Object>) eClass);
+            child.setDeep(true);
+            child.setDeepChildren(this);
+            return child.snapshot();
+        }
+    }
+
+    private static final class Visits {
+        private final Map<Object, List<Object>> targets = new IdentityHashMap<>();
+        private int depth;
+
+        /**
+         * @return the target the source object was patched into, if it is an instance of the type, or null
+         */
+        private Object target(Object dObject, Class<?> type) {
+            List<Object> visited = targets.get(dObject);
+            if (visited != null) {
+                for (Object target : visited) {
+                    if (type.isInstance(target)) {
+                        return target;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final ThreadLocal<Visits> VISITS = ThreadLocal.withInitial(Visits::new);
+
+    private DeepPatch() {
+    }
+
+    /**
+     * @return whether values of the type are patched recursively: classes with properties of their own,
+     * excluding JDK types, enums, immutable types such as records, arrays, collections and maps
+     */
+    static boolean isBean(Class<?> type) {
+        return !type.isPrimitive()
+               && !type.isArray()
+               && !type.isEnum()
+               && !type.isInterface()
+               && !Collection.class.isAssignableFrom(type)
+               && !Map.class.isAssignableFrom(type)
+               && !type.getName().startsWith("java.")
+               && !type.getName().startsWith("javax.")
+               && TypeMetadata.of(type).construction().isEmpty();
+    }
+
+    static boolean isDeep(Class<?> fromType, Class<?> toType) {
+        return isBean(fromType) && isBean(toType);
+    }
+
+    /**
+     * Registers the objects of a starting patch call. Must be paired with {@link #exit()}.
+     */
+    static void enter(Object dObject, Object eObject) {
+        Visits visits = VISITS.get();
+        visits.depth++;
+        visits.targets.computeIfAbsent(dObject, key -> new ArrayList<>(1)).add(eObject);
+    }
+
+    static void exit() {
+        Visits visits = VISITS.get();
+        if (--visits.depth == 0) {
+            visits.targets.clear();
+        }
+    }
+
+    /**
+     * Creates a setter that patches the source value into the current target value.
+     *
+     * @param target   getter of the current target value, or null if it cannot be read
+     * @param children child patchers of the plan
+     * @param creator  factory of new target values, or null if they cannot be created
+     */
+    static BiConsumer<Object, Object> setter(MappingPair mapping, PropertyReader target, Children children,
+                                             Supplier<Object> creator) {
+        BiConsumer<Object, Object> setter = mapping.setter();
+        Function<Object, Object> getter = target != null ? target.getter() : null;
+        Class<?> toType = mapping.toObjectValueType();
+        return (eObject, dValue) -> {
+            if (dValue == null) {
+                setter.accept(eObject, null);
+                return;
+            }
+            Object visited = VISITS.get().target(dValue, toType);
+            if (visited != null) {
+                setter.accept(eObject, visited);
+                return;
+            }
+            Object current = getter != null ? getter.apply(eObject) : null;
+            boolean created = current == null;
+            if (created) {
+                if (creator == null) {
+                    throw new MappingExecutionException("Unable to initialize instance " + toType.getName());
+                }
+                current = creator.get();
+            }
+            children.get(dValue.getClass(), current.getClass()).patch(dValue, current);
+            if (created || getter == null) {
+                setter.accept(eObject, current);
+            }
+        };
+    }
+}
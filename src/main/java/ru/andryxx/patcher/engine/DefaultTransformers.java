@@ -0,0 +1,66 @@
+package ru.andryxx.patcher.engine;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Global transformers registered by {@link Patcher#forType(Class, Class)}.
+ * <p>
+ * This is the single source of these conversions: the annotation processor resolves conversions of generated
+ * patches through {@link #find(Class, Class)} as well, so a generated patch converts values with the same
+ * functions and by the same resolution rules as the default runtime patcher.
+ */
+public final class DefaultTransformers {
+    private static final List<Transformer<?, ?>> TRANSFORMERS = List.of(
+            Transformer.of(String.class, LocalDateTime.class, LocalDateTime::parse),
+            Transformer.of(String.class, LocalDate.class, LocalDate::parse),
+            Transformer.of(int.class, Integer.class, Integer::valueOf),
+            Transformer.of(long.class, Long.class, Long::valueOf),
+            Transformer.of(int.class, Long.class, Long::valueOf)
+    );
+
+    private static final TransformerTable TABLE = new TransformerTable(globalTransformers(), Map.of());
+
+    private DefaultTransformers() {
+    }
+
+    /**
+     * @return transformers in registration order
+     */
+    public static List<Transformer<?, ?>> all() {
+        return TRANSFORMERS;
+    }
+
+    /**
+     * Resolves the conversion the default patcher applies to a value of one declared type written to another,
+     * by the rules of global transformers: an exact match, then the most specific compatible transformer,
+     * then the shortest chain of transformers.
+     *
+     * @return the conversion function, or null if the default transformers cannot convert the types
+     */
+    @SuppressWarnings("unchecked")
+    public static Function<Object, Object> find(Class<?> from, Class<?> to) {
+        return (Function<Object, Object>) TABLE.global(from, to);
+    }
+
+    /**
+     * @return whether the default patcher assigns a value of one primitive type to another by widening,
+     * which it does unless a default transformer is registered for the pair
+     */
+    public static boolean isWidening(Class<?> from, Class<?> to) {
+        return PrimitiveCopy.isSupported(from, to) && !TABLE.isRegistered(from, to);
+    }
+
+    private static Map<Class<?>, Map<Class<?>, Function<?, ?>>> globalTransformers() {
+        Map<Class<?>, Map<Class<?>, Function<?, ?>>> transformers = new LinkedHashMap<>();
+        for (Transformer<?, ?> transformer : TRANSFORMERS) {
+            transformers.computeIfAbsent(transformer.inputType(), input -> new LinkedHashMap<>())
+                    .put(transformer.outputType(), transformer.function());
+        }
+        return transformers;
+    }
+}
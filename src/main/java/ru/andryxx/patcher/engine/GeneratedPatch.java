@@ -0,0 +1,71 @@
+package ru.andryxx.patcher.engine;
+
+import ru.andryxx.patcher.exceptions.MappingExecutionException;
+import ru.andryxx.patcher.logging.PatchLogger;
+
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Reflection-free patch generated at compile time for a type annotated with
+ * {@link ru.andryxx.patcher.annotations.GeneratePatcher}.
+ * <p>
+ * Implementations are located by naming convention: class {@code <From>To<To>Patch} in the package of the
+ * source type, where nested type names are joined with {@code _}.
+ * {@link Patcher#forType(Class, Class)} uses the generated patch until the patcher configuration is changed,
+ * and only while its {@link #mappings()} are the mappings of the runtime plan.
+ */
+public interface GeneratedPatch<D, E> {
+    Class<D> fromType();
+
+    Class<E> toType();
+
+    /**
+     * Mappings applied by {@link #patch}, by target field name. The runtime patcher compares them with its own plan
+     * and patches without the generated patch if they differ, e.g. if a conversion resolved at compile time
+     * is not applied at runtime.
+     *
+     * @return source field names by target field name, or null if unknown, in which case the patch is not used
+     */
+    default Map<String, String> mappings() {
+        return null;
+    }
+
+    /**
+     * Applies every mapping resolved at compile time.
+     *
+     * @param logger logger for fields with change logging enabled, may be null
+     */
+    void patch(D fromObject, E toObject, PatchLogger logger);
+
+    /**
+     * Resolves the first registered transformer compatible with the given types,
+     * the same way {@code @Transform} is resolved at runtime.
+     *
+     * @param field source field name, used in error messages
+     * @param keys  keys of registered transformers
+     * @return transformer function
+     * @throws MappingExecutionException if a key is not registered or no transformer fits
+     */
+    @SuppressWarnings("unchecked")
+    static Function<Object, Object> transformer(String field, Class<?> from, Class<?> to, String... keys) {
+        for (String key : keys) {
+            Transformer<?, ?> transformer = Transformer.get(key);
+            if (transformer == null) {
+                throw new MappingExecutionException("Could not find transformer '"
+                                                    + key + "' for field '" + field + "'");
+            }
+            if (boxed(transformer.inputType()).isAssignableFrom(boxed(from))
+                && boxed(to).isAssignableFrom(boxed(transformer.outputType()))) {
+                return (Function<Object, Object>) transformer.function();
+            }
+        }
+        throw new MappingExecutionException("Unable to find suitable transformation for "
+                                            + field + " (" + from + ") to (" + to + ")");
+    }
+
+    private static Class<?> boxed(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+}
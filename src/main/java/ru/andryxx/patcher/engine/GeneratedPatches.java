@@ -0,0 +1,60 @@
+package ru.andryxx.patcher.engine;
+
+import ru.andryxx.patcher.exceptions.MappingExecutionException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Locates compile-time generated patches by naming convention, see {@link GeneratedPatch}.
+ */
+final class GeneratedPatches {
+    private static final ClassValue<Map<Class<?>, Optional<GeneratedPatch<?, ?>>>> CACHE = new ClassValue<>() {
+        @Override
+        protected Map<Class<?>, Optional<GeneratedPatch<?, ?>>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private GeneratedPatches() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <D, E> GeneratedPatch<D, E> find(Class<D> dClass, Class<E> eClass) {
+        return (GeneratedPatch<D, E>) CACHE.get(dClass)
+                .computeIfAbsent(eClass, _ -> load(dClass, eClass))
+                .orElse(null);
+    }
+
+    static String className(Class<?> dClass, Class<?> eClass) {
+        String packageName = dClass.getPackageName();
+        return (packageName.isEmpty() ? "" : packageName + ".")
+               + flatName(dClass) + "To" + flatName(eClass) + "Patch";
+    }
+
+    private static String flatName(Class<?> type) {
+        String name = type.getName();
+        return name.substring(name.lastIndexOf('.') + 1).replace('$', '_');
+    }
+
+    private static Optional<GeneratedPatch<?, ?>> load(Class<?> dClass, Class<?> eClass) {
+        Class<?> patchClass;
+        try {
+            patchClass = Class.forName(className(dClass, eClass), true, dClass.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return Optional.empty();
+        }
+        try {
+            GeneratedPatch<?, ?> patch = (GeneratedPatch<?, ?>) patchClass.getDeclaredConstructor().newInstance();
+            if (patch.fromType() != dClass || patch.toType() != eClass) {
+                return Optional.empty();
+            }
+            return Optional.of(patch);
+        } catch (ClassCastException | InstantiationException | IllegalAccessException
+                 | InvocationTargetException | NoSuchMethodException e) {
+            throw new MappingExecutionException("Unable to initialize generated patch " + patchClass.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package ru.andryxx.patcher.engine;
+
+import ru.andryxx.patcher.exceptions.MappingExecutionException;
+import ru.andryxx.patcher.exceptions.ValidationException;
+import ru.andryxx.patcher.logging.PatchLogger;
+import ru.andryxx.patcher.mapping.MappingPair;
+import ru.andryxx.patcher.mapping.MappingStrategy;
+import ru.andryxx.patcher.mapping.access.AccessorFactory;
+import ru.andryxx.patcher.validation.PatchValidator;
+
+import java.lang.reflect.Array;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Patches objects directly from {@code Map<String, ?>} sources, such as parsed JSON bodies,
+ * following JSON Merge Patch (RFC 7396) semantics:
+ * <ul>
+ *     <li>only keys present in the map are applied, keys without a target property are ignored;</li>
+ *     <li>a {@code null} value clears the property, primitives are reset to their default value;</li>
+ *     <li>a nested map is merged into the current value of the property, which is created if it is null;</li>
+ *     <li>any other value replaces the property, converted by its runtime type.</li>
+ * </ul>
+ * Target properties are the steps of the plan of a {@link Patcher} from the target type onto itself, so keys
+ * are resolved with the same registry, annotations, ignored fields, null handling, conditions and logging as
+ * object sources, and values are converted by the same transformer resolution, with a range-checked
+ * conversion between number types as the last resort. Nested objects are patched with the settings of this
+ * patcher that do not depend on the target type.
+ * <p>
+ * Target properties must be readable and writable. Keys are resolved to target properties once per configuration,
+ * so a patch costs one lookup per present key. A configured map patcher is not thread-safe,
+ * use {@link #freeze()} to get an immutable instance that can be shared between threads.
+ */
+public class MapPatcher<E> {
+    /**
+     * Key to step table of a snapshot of the configuration.
+     */
+    private record Steps<E>(PatcherSnapshot<Map<String, ?>, E> snapshot, Map<String, MapPatcher<E>.MapStep> byKey) {
+    }
+
+    private static final Object NO_CONVERSION = new Object();
+
+    private final Class<E> eClass;
+    private final Patcher<Map<String, ?>, E> patcher;
+    private final Map<String, String> keyMappings;
+    // rebuilt when the snapshot of the patcher or the key mappings change
+    private volatile Steps<E> steps;
+
+    MapPatcher(Class<E> eClass, Patcher<Map<String, ?>, E> patcher) {
+        this(eClass, patcher, new LinkedHashMap<>());
+    }
+
+    private MapPatcher(Class<E> eClass, Patcher<Map<String, ?>, E> patcher, Map<String, String> keyMappings) {
+        this.eClass = eClass;
+        this.patcher = patcher;
+        this.keyMappings = keyMappings;
+    }
+
+    /**
+     * Maps values of the key to the target field instead of the field with the same name.
+     */
+    public MapPatcher<E> withFieldMapping(String key, String toField) {
+        if (patcher.isFrozen()) {
+            Map<String, String> changed = new LinkedHashMap<>(keyMappings);
+            changed.put(key, toField);
+            return new MapPatcher<>(eClass, patcher, Map.copyOf(changed));
+        }
+        keyMappings.put(key, toField);
+        steps = null;
+        return this;
+    }
+
+    public MapPatcher<E> withMappingStrategy(MappingStrategy strategy) {
+        return configure(p -> p.withMappingStrategy(strategy));
+    }
+
+    public MapPatcher<E> withAccessorFactory(AccessorFactory accessorFactory) {
+        return configure(p -> p.withAccessorFactory(accessorFactory));
+    }
+
+    /**
+     * Adds a transformer applied to values of any key whose runtime type is compatible with its input type.
+     */
+    public <T, R> MapPatcher<E> withTransformer(Transformer<T, R> transformer) {
+        return configure(p -> p.withTransformer(transformer));
+    }
+
+    public <T, R> MapPatcher<E> withTransformer(Class<T> from, Class<R> to, Function<T, R> fn) {
+        return withTransformer(Transformer.of(from, to, fn));
+    }
+
+    /**
+     * Adds a transformer for values of the key, taking precedence over direct assignment and global transformers.
+     */
+    public <T, R> MapPatcher<E> withTransformer(String key, Transformer<T, R> transformer) {
+        return configure(p -> p.withTransformer(key, transformer));
+    }
+
+    public <T, R> MapPatcher<E> withTransformer(String key, Class<T> from, Class<R> to, Function<T, R> fn) {
+        return withTransformer(key, Transformer.of(from, to, fn));
+    }
+
+    public MapPatcher<E> withCondition(String field, BiPredicate<Map<String, ?>, E> condition) {
+        return configure(p -> p.withCondition(field, condition));
+    }
+
+    /**
+     * Skips null values instead of clearing the properties.
+     */
+    public MapPatcher<E> ignoreNull() {
+        return configure(Patcher::ignoreNull);
+    }
+
+    public MapPatcher<E> ignoreNull(String key) {
+        return configure(p -> p.ignoreNull(key));
+    }
+
+    public MapPatcher<E> ignoreTo(String field) {
+        return configure(p -> p.ignoreTo(field));
+    }
+
+    public MapPatcher<E> withMap(BiConsumer<Map<String, ?>, E> mapping) {
+        return configure(p -> p.withMap(mapping));
+    }
+
+    public MapPatcher<E> withLogger(PatchLogger logger) {
+        return configure(p -> p.withLogger(logger));
+    }
+
+    public MapPatcher<E> logChange() {
+        return configure(Patcher::logChange);
+    }
+
+    public MapPatcher<E> logChange(String field) {
+        return configure(p -> p.logChange(field));
+    }
+
+    public MapPatcher<E> withValidator(PatchValidator<E> validator) {
+        return configure(p -> p.withValidator(validator));
+    }
+
+    /**
+     * Returns an immutable, thread-safe map patcher with the current configuration, see {@link Patcher#freeze()}.
+     *
+     * @return frozen map patcher, or this instance if it is already frozen
+     */
+    public MapPatcher<E> freeze() {
+        if (patcher.isFrozen()) {
+            return this;
+        }
+        MapPatcher<E> frozen = new MapPatcher<>(eClass, patcher.freeze(), Map.copyOf(keyMappings));
+        // key errors are reported here, like plan errors
+        frozen.steps();
+        return frozen;
+    }
+
+    public boolean isFrozen() {
+        return patcher.isFrozen();
+    }
+
+    public void patch(Map<String, ?> source, E target) throws ValidationException, MappingExecutionException {
+        Steps<E> steps = steps();
+        steps.snapshot().patchWith(source, target, (map, object) -> merge(steps.byKey(), map, object));
+    }
+
+    public E map(Map<String, ?> source, Supplier<? extends E> supplier) {
+        E instance = supplier.get();
+        patch(source, instance);
+        return instance;
+    }
+
+    public E map(Map<String, ?> source) {
+        return map(source, () -> eClass.cast(steps().snapshot().newInstance(eClass)));
+    }
+
+    /**
+     * Applies a configuration change to the patcher, or to a copy of the configuration if it is frozen.
+     */
+    private MapPatcher<E> configure(UnaryOperator<Patcher<Map<String, ?>, E>> change) {
+        Patcher<Map<String, ?>, E> changed = change.apply(patcher);
+        return changed == patcher ? this : new MapPatcher<>(eClass, changed, keyMappings);
+    }
+
+    private void merge(Map<String, MapStep> steps, Map<String, ?> source, E target) {
+        for (Map.Entry<String, ?> entry : source.entrySet()) {
+            MapStep step = steps.get(entry.getKey());
+            if (step == null) {
+                continue;
+            }
+            try {
+                step.apply(source, target, entry.getValue());
+            } catch (Exception e) {
+                throw new MappingExecutionException("Exception during mapping " + entry.getKey()
+                                                    + " to " + step.mapping.toFieldName(), e);
+            }
+        }
+    }
+
+    private Steps<E> steps() {
+        PatcherSnapshot<Map<String, ?>, E> snapshot = patcher.snapshot();
+        Steps<E> steps = this.steps;
+        if (steps == null || steps.snapshot() != snapshot) {
+            synchronized (this) {
+                steps = this.steps;
+                if (steps == null || steps.snapshot() != snapshot) {
+                    steps = new Steps<>(snapshot, buildSteps(snapshot));
+                    this.steps = steps;
+                }
+            }
+        }
+        return steps;
+    }
+
+    /**
+     * Keys are the source names of the plan steps, which are the target names unless annotations map them.
+     * Steps of ignored targets are known to the plan as selectable steps, so keys mapped to them are skipped.
+     */
+    private Map<String, MapStep> buildSteps(PatcherSnapshot<Map<String, ?>, E> snapshot) {
+        PatcherEngine<Object, Object> nested = patcher.derive(Object.class, Object.class);
+        Map<String, PatcherEngine.PatchStep<Map<String, ?>, E>> properties = new HashMap<>();
+        for (PatcherEngine.PatchStep<Map<String, ?>, E> step : snapshot.plan().steps()) {
+            properties.put(step.mapping().toFieldName(), step);
+        }
+        Set<String> known = new HashSet<>();
+        for (PatcherEngine.PatchStep<Map<String, ?>, E> step : snapshot.plan().selectableSteps()) {
+            known.add(step.mapping().toFieldName());
+        }
+        Set<String> mappedTargets = new HashSet<>(keyMappings.values());
+        Map<String, MapStep> steps = new HashMap<>();
+        for (PatcherEngine.PatchStep<Map<String, ?>, E> step : properties.values()) {
+            if (!mappedTargets.contains(step.mapping().toFieldName())) {
+                String key = step.mapping().fromFieldName();
+                steps.put(key, new MapStep(key, step, snapshot, nested));
+            }
+        }
+        for (Map.Entry<String, String> keyMapping : keyMappings.entrySet()) {
+            PatcherEngine.PatchStep<Map<String, ?>, E> step = properties.get(keyMapping.getValue());
+            if (step != null) {
+                steps.put(keyMapping.getKey(), new MapStep(keyMapping.getKey(), step, snapshot, nested));
+            } else if (!known.contains(keyMapping.getValue())) {
+                throw new MappingExecutionException("Cannot find readable and writable property '"
+                                                    + keyMapping.getValue() + "' in " + eClass.getName());
+            }
+        }
+        return Map.copyOf(steps);
+    }
+
+    /**
+     * RFC 7396 merge of a patch into a copy of a map value: null values remove keys, nested maps are merged.
+     */
+    private static Map<Object, Object> mergeMaps(Object current, Map<?, ?> patch) {
+        Map<Object, Object> result = current instanceof Map<?, ?> map ? new LinkedHashMap<>(map) : new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : patch.entrySet()) {
+            if (entry.getValue() == null) {
+                result.remove(entry.getKey());
+            } else if (entry.getValue() instanceof Map<?, ?> nested) {
+                result.put(entry.getKey(), mergeMaps(result.get(entry.getKey()), nested));
+            } else {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, ?> stringKeys(Map<?, ?> patch) {
+        for (Object key : patch.keySet()) {
+            if (!(key instanceof String)) {
+                throw new MappingExecutionException("Nested patch keys must be strings: " + key);
+            }
+        }
+        return (Map<String, ?>) patch;
+    }
+
+    /**
+     * Converts an integral value to another integral type only if it fits, and any number to floating point.
+     * Fractional values have to be converted to integral types by a transformer.
+     */
+    private static Function<Object, Object> numberConversion(Class<?> valueType, Class<?> target) {
+        if (!Number.class.isAssignableFrom(valueType)) {
+            return null;
+        }
+        if (target == Double.class) {
+            return value -> ((Number) value).doubleValue();
+        }
+        if (target == Float.class) {
+            return value -> ((Number) value).floatValue();
+        }
+        boolean integral = valueType == Integer.class || valueType == Long.class
+                           || valueType == Short.class || valueType == Byte.class;
+        if (!integral) {
+            return null;
+        }
+        if (target == Long.class) {
+            return value -> ((Number) value).longValue();
+        }
+        if (target == Integer.class) {
+            return value -> Math.toIntExact(((Number) value).longValue());
+        }
+        if (target == Short.class) {
+            return value -> (short) checkRange(((Number) value).longValue(), Short.MIN_VALUE, Short.MAX_VALUE);
+        }
+        if (target == Byte.class) {
+            return value -> (byte) checkRange(((Number) value).longValue(), Byte.MIN_VALUE, Byte.MAX_VALUE);
+        }
+        return null;
+    }
+
+    private static long checkRange(long value, long min, long max) {
+        if (value < min || value > max) {
+            throw new ArithmeticException("Value " + value + " is out of range [" + min + ", " + max + "]");
+        }
+        return value;
+    }
+
+    /**
+     * Writes values of one key to one target property with the settings of its plan step.
+     * Conversions are resolved once per runtime value type.
+     */
+    private final class MapStep {
+        private final String key;
+        private final PatcherEngine.PatchStep<Map<String, ?>, E> step;
+        private final MappingPair mapping;
+        private final Class<?> type;
+        private final Object nullValue;
+        private final TransformerTable transformers;
+        private final PatchLogger logger;
+        private final PatcherEngine<Object, Object> nestedSettings;
+        private final Map<Class<?>, Object> conversions = new ConcurrentHashMap<>();
+        private volatile MapPatcher<Object> nested;
+
+        private MapStep(String key,
+                        PatcherEngine.PatchStep<Map<String, ?>, E> step,
+                        PatcherSnapshot<Map<String, ?>, E> snapshot,
+                        PatcherEngine<Object, Object> nestedSettings) {
+            this.key = key;
+            this.step = step;
+            this.mapping = step.mapping();
+            this.type = PatcherEngine.boxed(mapping.toObjectValueType());
+            this.nullValue = mapping.toObjectValueType().isPrimitive()
+                    ? Array.get(Array.newInstance(mapping.toObjectValueType(), 1), 0)
+                    : null;
+            this.transformers = snapshot.transformers();
+            this.logger = snapshot.logger();
+            this.nestedSettings = nestedSettings;
+        }
+
+        void apply(Map<String, ?> source, E target, Object value) {
+            if (value == null && step.ignoreNull()) {
+                return;
+            }
+            if (!step.test(source, target)) {
+                return;
+            }
+            Object newValue = convert(target, value);
+            mapping.setter().accept(target, newValue);
+            if (logger != null && step.logChange()) {
+                logger.log(key, mapping.toFieldName(), newValue);
+            }
+        }
+
+        private Object convert(E target, Object value) {
+            if (value == null) {
+                return nullValue;
+            }
+            if (value instanceof Map<?, ?> patch && transformers.field(key, value.getClass(), type) == null) {
+                return mergeInto(mapping.getter().apply(target), patch);
+            }
+            Function<Object, Object> conversion = conversion(value.getClass());
+            if (conversion == null) {
+                throw new MappingExecutionException("Unable to find suitable transformation for "
+                                                    + value.getClass().getName() + " to "
+                                                    + mapping.toObjectValueType().getName());
+            }
+            return conversion.apply(value);
+        }
+
+        private Object mergeInto(Object current, Map<?, ?> patch) {
+            if (type == Object.class || Map.class.isAssignableFrom(type)) {
+                return mergeMaps(current, patch);
+            }
+            MapPatcher<Object> nested = nested();
+            Steps<Object> steps = nested.steps();
+            Object bean = current != null ? current : steps.snapshot().newInstance(type);
+            nested.merge(steps.byKey(), stringKeys(patch), bean);
+            return bean;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Function<Object, Object> conversion(Class<?> valueType) {
+            Object conversion = conversions.computeIfAbsent(valueType, this::resolveConversion);
+            return conversion == NO_CONVERSION ? null : (Function<Object, Object>) conversion;
+        }
+
+        /**
+         * Same precedence as for object sources: key transformers, direct assignment, global transformers.
+         */
+        private Object resolveConversion(Class<?> valueType) {
+            Function<?, ?> field = transformers.field(key, valueType, type);
+            if (field != null) {
+                return field;
+            }
+            if (type.isAssignableFrom(valueType)) {
+                return Function.identity();
+            }
+            Function<?, ?> global = transformers.global(valueType, type);
+            if (global != null) {
+                return global;
+            }
+            Function<Object, Object> number = numberConversion(valueType, type);
+            return number != null ? number : NO_CONVERSION;
+        }
+
+        /**
+         * Nested objects are patched with the type-independent settings of the configuration of this step.
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private MapPatcher<Object> nested() {
+            MapPatcher<Object> nested = this.nested;
+            if (nested == null) {
+                Class<Object> nestedType = (Class<Object>) type;
+                PatcherEngine engine = nestedSettings.derive(nestedType, nestedType);
+                nested = new MapPatcher<>(nestedType, Patcher.frozen(nestedType, nestedType, engine), Map.of());
+                this.nested = nested;
+            }
+            return nested;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package ru.andryxx.patcher.engine;
+
+import ru.andryxx.patcher.exceptions.MappingExecutionException;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+
+import static ru.andryxx.patcher.engine.ClassFileWriter.*;
+
+/**
+ * Emits a hidden class with straight-line getter -> transform -> setter code for every step of a plan.
+ * Accessors, transformers and conditions are stored in static final fields of the generated class,
+ * so every call site in it is monomorphic and can be inlined by the JIT.
+ * Null-ignore and log-change flags are resolved while generating and produce no code when disabled.
+ * Steps with a {@link PrimitiveCopy} are emitted as a single unboxed copy call.
+ */
+final class PatchClassGenerator {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final AtomicLong COUNTER = new AtomicLong();
+
+    private static final String OBJECT = "java/lang/Object";
+    private static final String FUNCTION = "java/util/function/Function";
+    private static final String BI_CONSUMER = "java/util/function/BiConsumer";
+    private static final String BI_PREDICATE = "java/util/function/BiPredicate";
+    private static final String LOGGER = "ru/andryxx/patcher/logging/PatchLogger";
+    private static final String EXCEPTION = "java/lang/Exception";
+    private static final String MAPPING_EXCEPTION = MappingExecutionException.class.getName().replace('.', '/');
+    private static final String COMPILED_PATCH = CompiledPatch.class.getName().replace('.', '/');
+    private static final String PRIMITIVE_COPY = PrimitiveCopy.class.getName().replace('.', '/');
+
+    private static final int THIS = 0;
+    private static final int FROM = 1;
+    private static final int TO = 2;
+    private static final int PATCH_LOGGER = 3;
+    private static final int VALUE = 4;
+    private static final int CAUGHT = 5;
+
+    private PatchClassGenerator() {
+    }
+
+    static <D, E> CompiledPatch<D, E> generate(PatcherEngine.PatchStep<D, E>[] steps) {
+        String className = PatchClassGenerator.class.getPackageName().replace('.', '/')
+                           + "/CompiledPatch" + COUNTER.incrementAndGet();
+        ClassFileWriter writer = new ClassFileWriter(className, OBJECT, COMPILED_PATCH);
+        List<Object> classData = new ArrayList<>();
+        List<String> fieldTypes = new ArrayList<>();
+
+        ClassFileWriter.Code patch = writer.method(ACC_PUBLIC, "patch",
+                "(Ljava/lang/Object;Ljava/lang/Object;L" + LOGGER + ";)V", 4, 6);
+        List<Runnable> handlers = new ArrayList<>();
+        for (PatcherEngine.PatchStep<D, E> step : steps) {
+            ClassFileWriter.Label start = patch.label();
+            ClassFileWriter.Label end = patch.label();
+            ClassFileWriter.Label handler = patch.label();
+            patch.place(start);
+
+            if (step.primitiveCopy() != null) {
+                conditions(writer, classData, fieldTypes, patch, className, step, end);
+                String copy = constant(writer, classData, fieldTypes, step.primitiveCopy(), PRIMITIVE_COPY);
+                patch.field(GETSTATIC, className, copy, "L" + PRIMITIVE_COPY + ";")
+                        .local(ALOAD, FROM)
+                        .local(ALOAD, TO)
+                        .invokeInterface(PRIMITIVE_COPY, "copy", "(Ljava/lang/Object;Ljava/lang/Object;)V", 2);
+                patch.place(end);
+                patch.tryCatch(start, end, handler, EXCEPTION);
+                handlers.add(handler(writer, patch, step, handler));
+                continue;
+            }
+
+            String getter = constant(writer, classData, fieldTypes, step.mapping().getter(), FUNCTION);
+            patch.field(GETSTATIC, className, getter, "L" + FUNCTION + ";")
+                    .local(ALOAD, FROM)
+                    .invokeInterface(FUNCTION, "apply", "(Ljava/lang/Object;)Ljava/lang/Object;", 1)
+                    .local(ASTORE, VALUE);
+            if (step.ignoreNull()) {
+                patch.local(ALOAD, VALUE).jump(IFNULL, end);
+            }
+            conditions(writer, classData, fieldTypes, patch, className, step, end);
+            if (step.applier().hasFunction()) {
+                String function = constant(writer, classData, fieldTypes, step.applier().function(), FUNCTION);
+                patch.field(GETSTATIC, className, function, "L" + FUNCTION + ";")
+                        .local(ALOAD, VALUE)
+                        .invokeInterface(FUNCTION, "apply", "(Ljava/lang/Object;)Ljava/lang/Object;", 1)
+                        .local(ASTORE, VALUE);
+            }
+            String setter = constant(writer, classData, fieldTypes, step.applier().setter(), BI_CONSUMER);
+            patch.field(GETSTATIC, className, setter, "L" + BI_CONSUMER + ";")
+                    .local(ALOAD, TO)
+                    .local(ALOAD, VALUE)
+                    .invokeInterface(BI_CONSUMER, "accept", "(Ljava/lang/Object;Ljava/lang/Object;)V", 2);
+            if (step.logChange()) {
+                patch.local(ALOAD, PATCH_LOGGER)
+                        .jump(IFNULL, end)
+                        .local(ALOAD, PATCH_LOGGER)
+                        .ldc(writer.string(step.mapping().fromFieldName()))
+                        .ldc(writer.string(step.mapping().toFieldName()))
+                        .local(ALOAD, VALUE)
+                        .invokeInterface(LOGGER, "log",
+                                "(Ljava/lang/String;Ljava/lang/String;Ljava/lang/Object;)V", 3);
+            }
+            patch.place(end);
+            patch.tryCatch(start, end, handler, EXCEPTION);
+            handlers.add(handler(writer, patch, step, handler));
+        }
+        patch.op(RETURN);
+        handlers.forEach(Runnable::run);
+
+        writer.method(ACC_PUBLIC, "<init>", "()V", 1, 1)
+                .local(ALOAD, THIS)
+                .invoke(INVOKESPECIAL, OBJECT, "<init>", "()V")
+                .op(RETURN);
+
+        ClassFileWriter.Code clinit = writer.method(ACC_STATIC, "<clinit>", "()V", 3, 1)
+                .invoke(INVOKESTATIC, "java/lang/invoke/MethodHandles", "lookup",
+                        "()Ljava/lang/invoke/MethodHandles$Lookup;")
+                .ldc(writer.string("_"))
+                .ldc(writer.classRef("[Ljava/lang/Object;"))
+                .invoke(INVOKESTATIC, "java/lang/invoke/MethodHandles", "classData",
+                        "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;")
+                .type(CHECKCAST, "[Ljava/lang/Object;")
+                .local(ASTORE, 0);
+        for (int i = 0; i < classData.size(); i++) {
+            clinit.local(ALOAD, 0)
+                    .sipush(i)
+                    .op(AALOAD)
+                    .type(CHECKCAST, fieldTypes.get(i))
+                    .field(PUTSTATIC, className, "c" + i, "L" + fieldTypes.get(i) + ";");
+        }
+        clinit.op(RETURN);
+
+        return define(writer.toByteArray(), classData.toArray());
+    }
+
+    private static <D, E> void conditions(ClassFileWriter writer, List<Object> classData, List<String> fieldTypes,
+                                          ClassFileWriter.Code patch, String className,
+                                          PatcherEngine.PatchStep<D, E> step, ClassFileWriter.Label end) {
+        for (BiPredicate<D, E> condition : step.conditions()) {
+            String field = constant(writer, classData, fieldTypes, condition, BI_PREDICATE);
+            patch.field(GETSTATIC, className, field, "L" + BI_PREDICATE + ";")
+                    .local(ALOAD, FROM)
+                    .local(ALOAD, TO)
+                    .invokeInterface(BI_PREDICATE, "test", "(Ljava/lang/Object;Ljava/lang/Object;)Z", 2)
+                    .jump(IFEQ, end);
+        }
+    }
+
+    /**
+     * Exception handlers are placed after the final return, so the happy path stays straight-line.
+     */
+    private static Runnable handler(ClassFileWriter writer, ClassFileWriter.Code patch,
+                                    PatcherEngine.PatchStep<?, ?> step, ClassFileWriter.Label handler) {
+        String message = "Exception during mapping "
+                         + step.mapping().fromFieldName() + " to " + step.mapping().toFieldName();
+        return () -> patch.place(handler)
+                .local(ASTORE, CAUGHT)
+                .type(NEW, MAPPING_EXCEPTION)
+                .op(DUP)
+                .ldc(writer.string(message))
+                .local(ALOAD, CAUGHT)
+                .invoke(INVOKESPECIAL, MAPPING_EXCEPTION, "<init>",
+                        "(Ljava/lang/String;Ljava/lang/Throwable;)V")
+                .op(ATHROW);
+    }
+
+    private static String constant(ClassFileWriter writer, List<Object> classData, List<String> fieldTypes,
+                                   Object value, String type) {
+        String name = "c" + classData.size();
+        writer.field(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, name, "L" + type + ";");
+        classData.add(value);
+        fieldTypes.add(type);
+        return name;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <D, E> CompiledPatch<D, E> define(byte[] bytes, Object[] classData) {
+        try {
+            MethodHandles.Lookup lookup = LOOKUP.defineHiddenClassWithClassData(bytes, classData, true);
+            return (CompiledPatch<D, E>) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class))
+                    .invoke();
+        } catch (Throwable e) {
+            throw new MappingExecutionException("Unable to generate patch class", e);
+        }
+    }
+}
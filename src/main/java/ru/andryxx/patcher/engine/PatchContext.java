@@ -9,6 +9,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
@@ -16,8 +17,11 @@ import java.util.function.Function;
 class PatchContext<D, E> {
     private final Map<Class<?>, Map<Class<?>, Function<?, ?>>> globalTransformers = new ConcurrentHashMap<>();
     private final Map<String, List<Transformer<?, ?>>> fieldTransformers = new ConcurrentHashMap<>();
+    // built from the transformers on first use, reset when they change; a copy builds its own
+    private TransformerTable transformerTable;
 
     private final Map<String, List<BiPredicate<D, E>>> fieldConditions = new ConcurrentHashMap<>();
+    private final Map<String, CollectionMerge<?, ?>> collectionMerges = new ConcurrentHashMap<>();
 
     private boolean globalIgnoreNull = false;
     private final HashSet<String> ignoredNullFields = new HashSet<>();
@@ -33,16 +37,87 @@ class PatchContext<D, E> {
     private PatchLogger patchLogger;
     private PatchValidator<E> patchValidator;
     private MappingRegistry mappingRegistry;
+    private int parallelismThreshold = BatchTask.DEFAULT_THRESHOLD;
+
+    private boolean detectChanges = false;
+    private boolean deep = false;
+    // counted per configuration, a copy starts from zero
+    private final LongAdder skippedWrites = new LongAdder();
 
 
     public PatchContext() {
 
     }
 
+    /**
+     * Creates a deep copy of collections in this context. Transformers, conditions and other user objects
+     * are shared, as well as the mapping registry until {@link #copyMappingRegistry()} is called.
+     */
+    public PatchContext<D, E> copy() {
+        PatchContext<D, E> copy = new PatchContext<>();
+        globalTransformers.forEach((from, functions) ->
+                copy.globalTransformers.put(from, new ConcurrentHashMap<>(functions)));
+        fieldTransformers.forEach((field, transformers) ->
+                copy.fieldTransformers.put(field, new LinkedList<>(transformers)));
+        fieldConditions.forEach((field, conditions) ->
+                copy.fieldConditions.put(field, new LinkedList<>(conditions)));
+        copy.collectionMerges.putAll(collectionMerges);
+        copy.globalIgnoreNull = globalIgnoreNull;
+        copy.ignoredNullFields.addAll(ignoredNullFields);
+        copy.ignoredFromFields.addAll(ignoredFromFields);
+        copy.ignoredToFields.addAll(ignoredToFields);
+        copy.globalLogChange = globalLogChange;
+        copy.logChangeFields.putAll(logChangeFields);
+        copy.userPostMappings.addAll(userPostMappings);
+        copy.annotationMetadata = annotationMetadata;
+        copy.patchLogger = patchLogger;
+        copy.patchValidator = patchValidator;
+        copy.mappingRegistry = mappingRegistry;
+        copy.parallelismThreshold = parallelismThreshold;
+        copy.detectChanges = detectChanges;
+        copy.deep = deep;
+        return copy;
+    }
+
+    /**
+     * Creates a context for other types with the settings of this context that do not depend on its types:
+     * global transformers, null handling and change logging defaults, the logger, the parallelism threshold,
+     * change detection, deep mode and the settings of the mapping registry (see {@link MappingRegistry#derive()}).
+     * Field settings, conditions, post-mappings, the validator and annotations belong to the types of this context.
+     */
+    public <T, R> PatchContext<T, R> derive() {
+        PatchContext<T, R> derived = new PatchContext<>();
+        globalTransformers.forEach((from, functions) ->
+                derived.globalTransformers.put(from, new ConcurrentHashMap<>(functions)));
+        derived.globalIgnoreNull = globalIgnoreNull;
+        derived.globalLogChange = globalLogChange;
+        derived.patchLogger = patchLogger;
+        derived.mappingRegistry = mappingRegistry.derive();
+        derived.parallelismThreshold = parallelismThreshold;
+        derived.detectChanges = detectChanges;
+        derived.deep = deep;
+        return derived;
+    }
+
     public Map<Class<?>, Map<Class<?>, Function<?, ?>>> getGlobalTransformers() {
         return globalTransformers;
     }
 
+    public TransformerTable getTransformerTable() {
+        if (transformerTable == null) {
+            transformerTable = new TransformerTable(globalTransformers, fieldTransformers);
+        }
+        return transformerTable;
+    }
+
+    public void resetTransformerTable() {
+        transformerTable = null;
+    }
+
+    public Map<String, CollectionMerge<?, ?>> getCollectionMerges() {
+        return collectionMerges;
+    }
+
     public Map<String, List<Transformer<?, ?>>> getFieldTransformers() {
         return fieldTransformers;
     }
@@ -99,6 +174,41 @@ class PatchContext<D, E> {
         this.mappingRegistry = mappingRegistry;
     }
 
+    /**
+     * Replaces the mapping registry shared with other contexts by its own copy.
+     */
+    public void copyMappingRegistry() {
+        mappingRegistry = mappingRegistry.copy();
+    }
+
+    public int getParallelismThreshold() {
+        return parallelismThreshold;
+    }
+
+    public void setParallelismThreshold(int parallelismThreshold) {
+        this.parallelismThreshold = parallelismThreshold;
+    }
+
+    public boolean isDetectChanges() {
+        return detectChanges;
+    }
+
+    public void setDetectChanges(boolean detectChanges) {
+        this.detectChanges = detectChanges;
+    }
+
+    public boolean isDeep() {
+        return deep;
+    }
+
+    public void setDeep(boolean deep) {
+        this.deep = deep;
+    }
+
+    public LongAdder getSkippedWrites() {
+        return skippedWrites;
+    }
+
     public boolean isGlobalLogChange() {
         return globalLogChange;
     }
@@ -0,0 +1,62 @@
+package ru.andryxx.patcher.engine;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Immutable, array-backed result of compiling a patcher configuration.
+ * Built once per configuration change and reused by every patch call.
+ *
+ * @param steps        steps applied by a full patch (ignored fields already removed)
+ * @param selectable   steps available for selective patching (only ignored source fields removed),
+ *                     compiled on first use
+ * @param compiled     generated class applying {@code steps}, or null if code generation is disabled
+ * @param toFieldNames interned target field names of {@code steps}, by step index,
+ *                     shared as keys of projected maps
+ */
+record PatchPlan<D, E>(
+        PatcherEngine.PatchStep<D, E>[] steps,
+        SelectableSteps<D, E> selectable,
+        CompiledPatch<D, E> compiled,
+        String[] toFieldNames
+) {
+    /**
+     * Steps for selective patching. Most patchers never patch selectively, so the steps are compiled
+     * on the first selective patch instead of with the plan.
+     */
+    static final class SelectableSteps<D, E> {
+        private final Supplier<List<PatcherEngine.PatchStep<D, E>>> compiler;
+        private volatile PatcherEngine.PatchStep<D, E>[] steps;
+
+        private SelectableSteps(Supplier<List<PatcherEngine.PatchStep<D, E>>> compiler) {
+            this.compiler = compiler;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private PatcherEngine.PatchStep<D, E>[] get() {
+            PatcherEngine.PatchStep<D, E>[] steps = this.steps;
+            if (steps == null) {
+                steps = compiler.get().toArray(new PatcherEngine.PatchStep[0]);
+                this.steps = steps;
+            }
+            return steps;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <D, E> PatchPlan<D, E> of(List<PatcherEngine.PatchStep<D, E>> steps,
+                                     Supplier<List<PatcherEngine.PatchStep<D, E>>> selectableSteps,
+                                     boolean generateCode) {
+        PatcherEngine.PatchStep<D, E>[] stepsArray = steps.toArray(new PatcherEngine.PatchStep[0]);
+        return new PatchPlan<>(
+                stepsArray,
+                new SelectableSteps<>(selectableSteps),
+                generateCode ? PatchClassGenerator.generate(stepsArray) : null,
+                steps.stream().map(step -> step.mapping().toFieldName().intern()).toArray(String[]::new)
+        );
+    }
+
+    PatcherEngine.PatchStep<D, E>[] selectableSteps() {
+        return selectable.get();
+    }
+}
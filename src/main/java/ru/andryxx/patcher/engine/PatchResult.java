@@ -0,0 +1,93 @@
+package ru.andryxx.patcher.engine;
+
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Target fields changed by a single patch call, with their previous and new values.
+ * <p>
+ * Changes are stored as a bit set over the indexes of the patch steps, so a result without changes
+ * holds no values. A field counts as changed if its value differs from the value read before the write
+ * according to {@link java.util.Objects#equals(Object, Object)}. Fields that have no getter
+ * are reported as changed whenever they are written, with an unknown ({@code null}) old value.
+ * <p>
+ * Nested objects patched by {@link Patcher#deep()} and collections merged in place are reported only if the field
+ * is assigned another instance, e.g. a created nested object; changes inside the existing instance are not reported.
+ */
+public final class PatchResult {
+    private final String[] fieldNames;
+    private final BitSet changed;
+    private final Object[] oldValues;
+    private final Object[] newValues;
+
+    PatchResult(String[] fieldNames, BitSet changed, Object[] oldValues, Object[] newValues) {
+        this.fieldNames = fieldNames;
+        this.changed = changed;
+        this.oldValues = oldValues;
+        this.newValues = newValues;
+    }
+
+    public boolean hasChanges() {
+        return !changed.isEmpty();
+    }
+
+    public boolean isChanged(String field) {
+        return index(field) >= 0;
+    }
+
+    /**
+     * @return names of changed target fields in the order they were patched
+     */
+    public Set<String> getChangedFields() {
+        Set<String> fields = new LinkedHashSet<>();
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            fields.add(fieldNames[i]);
+        }
+        return fields;
+    }
+
+    /**
+     * @return indexes of changed patch steps; the returned set is a copy
+     */
+    public BitSet getChangedSteps() {
+        return (BitSet) changed.clone();
+    }
+
+    /**
+     * @return value of the field before the patch, or null if the field is unchanged or could not be read
+     */
+    public Object getOldValue(String field) {
+        int index = index(field);
+        return index >= 0 ? oldValues[index] : null;
+    }
+
+    /**
+     * @return value written to the field, or null if the field is unchanged
+     */
+    public Object getNewValue(String field) {
+        int index = index(field);
+        return index >= 0 ? newValues[index] : null;
+    }
+
+    private int index(String field) {
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            if (fieldNames[i].equals(field)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("PatchResult[");
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            if (builder.length() > "PatchResult[".length()) {
+                builder.append(", ");
+            }
+            builder.append(fieldNames[i]).append(": ").append(oldValues[i]).append(" -> ").append(newValues[i]);
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -5,32 +5,74 @@ import ru.andryxx.patcher.exceptions.ValidationException;
 import ru.andryxx.patcher.logging.PatchLogger;
 import ru.andryxx.patcher.logging.SystemOutLogger;
 import ru.andryxx.patcher.mapping.MappingStrategy;
+import ru.andryxx.patcher.mapping.access.AccessorFactory;
 import ru.andryxx.patcher.mapping.registry.DefaultMappingRegistry;
 import ru.andryxx.patcher.mapping.registry.DefaultNamingResolver;
 import ru.andryxx.patcher.mapping.registry.MappingRegistry;
 import ru.andryxx.patcher.validation.PatchValidator;
 
+import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
 import java.util.function.BiConsumer;
 import java.util.function.BiPredicate;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+/**
+ * Fluent patcher configuration. A configured patcher is not thread-safe: it lazily rebuilds its plan
+ * when the configuration changes. Use {@link #freeze()} to get an immutable instance that can be shared
+ * between threads.
+ */
 public class Patcher<D, E> {
+    /**
+     * Configuration of a frozen patcher. The engine is never modified after freezing,
+     * it is only copied to derive new configurations.
+     */
+    private record Frozen<D, E>(PatcherEngine<D, E> engine, PatcherSnapshot<D, E> snapshot) {
+    }
+
+    // each async task runs on its own virtual thread, so blocking validators and post-mappings do not hold pool threads
+    private static final ThreadFactory VIRTUAL_THREADS = Thread.ofVirtual().name("patcher-", 0).factory();
+    private static final Executor ASYNC_EXECUTOR = task -> VIRTUAL_THREADS.newThread(task).start();
+
     private final Class<D> dClass;
     private final Class<E> eClass;
     private PatcherEngine<D, E> engine;
+    private final Frozen<D, E> frozen;
 
     private Patcher(Class<D> fromClass, Class<E> toClass) {
         this.dClass = fromClass;
         this.eClass = toClass;
+        this.frozen = null;
+    }
+
+    private Patcher(Class<D> fromClass, Class<E> toClass, PatcherEngine<D, E> frozenEngine) {
+        this.dClass = fromClass;
+        this.eClass = toClass;
+        this.frozen = new Frozen<>(frozenEngine, frozenEngine.snapshot());
     }
 
     public static <D, E> Patcher<D, E> forType(Class<D> fromClass, Class<E> toClass) {
         return PatcherFactory.createDefault(fromClass, toClass);
     }
 
+    /**
+     * Creates a patcher that uses {@code Map<String, ?>} values, e.g. parsed JSON bodies, as sources
+     * with JSON Merge Patch semantics.
+     */
+    public static <E> MapPatcher<E> forMap(Class<E> toClass) {
+        return PatcherFactory.createForMap(toClass);
+    }
+
     public static <D, E> Patcher<D, E> defaultPatcher(Class<D> fromClass, Class<E> toClass) {
         Patcher<D, E> patcher = new Patcher<>(fromClass, toClass);
         patcher.engine = new PatcherEngine<>(patcher.dClass,
@@ -39,24 +81,41 @@ public class Patcher<D, E> {
         return patcher;
     }
 
+    Patcher<D, E> withGeneratedPatch(GeneratedPatch<D, E> generatedPatch) {
+        return configure(config -> config.setGeneratedPatch(generatedPatch));
+    }
+
     public Patcher<D, E> useMappingRegistry(MappingRegistry mappingRegistry) {
-        engine = new PatcherEngine<>(dClass, eClass, mappingRegistry);
+        PatcherEngine<D, E> newEngine = new PatcherEngine<>(dClass, eClass, mappingRegistry);
+        if (frozen != null) {
+            return new Patcher<>(dClass, eClass, newEngine);
+        }
+        engine = newEngine;
         return this;
     }
 
     public Patcher<D, E> withFieldMapping(String fromField, String toField) {
-        engine.addStaticFieldMapping(fromField, toField);
-        return this;
+        return configure(config -> config.addStaticFieldMapping(fromField, toField));
     }
 
     public Patcher<D, E> withMappingStrategy(MappingStrategy strategy) {
-        engine.getMappingRegistry().setStrategy(strategy);
-        return this;
+        return configure(config -> config.getMappingRegistry().setStrategy(strategy));
+    }
+
+    public Patcher<D, E> withAccessorFactory(AccessorFactory accessorFactory) {
+        return configure(config -> config.getMappingRegistry().setAccessorFactory(accessorFactory));
+    }
+
+    /**
+     * Enables creation of null intermediate objects of nested target paths, e.g. a new address
+     * when patching {@code address.city} of an entity without one. Otherwise such writes are skipped.
+     */
+    public Patcher<D, E> withNestedInstantiation(boolean instantiate) {
+        return configure(config -> config.getMappingRegistry().setInstantiateNestedPaths(instantiate));
     }
 
     public <T, R> Patcher<D, E> withTransformer(Transformer<T, R> transformer) {
-        engine.addGlobalTransformer(transformer);
-        return this;
+        return configure(config -> config.addGlobalTransformer(transformer));
     }
 
     public <T, R> Patcher<D, E> withTransformer(Class<T> from, Class<R> to, Function<T, R> fn) {
@@ -64,32 +123,35 @@ public class Patcher<D, E> {
     }
 
     public <T, R> Patcher<D, E> withTransformer(String field, Transformer<T, R> transformer) {
-        engine.addFieldTransformer(field, transformer);
-        return this;
+        return configure(config -> config.addFieldTransformer(field, transformer));
     }
 
     public <T, R> Patcher<D, E> withTransformer(String field, Class<T> from, Class<R> to, Function<T, R> fn) {
         return withTransformer(field, Transformer.of(from, to, fn));
     }
 
+    /**
+     * Patches the target collection of a source collection field with the given strategy
+     * instead of replacing it, e.g. {@code CollectionMerge.byKey(ItemDto.class, Item.class, ItemDto::getId, Item::getId)}.
+     */
+    public Patcher<D, E> withCollectionMerge(String field, CollectionMerge<?, ?> merge) {
+        return configure(config -> config.setCollectionMerge(field, merge));
+    }
+
     public Patcher<D, E> withCondition(String field, BiPredicate<D, E> condition) {
-        engine.addFieldCondition(field, condition);
-        return this;
+        return configure(config -> config.addFieldCondition(field, condition));
     }
 
     public Patcher<D, E> ignoreNull(boolean ignore) {
-        engine.setGlobalIgnoreNull(ignore);
-        return this;
+        return configure(config -> config.setGlobalIgnoreNull(ignore));
     }
 
     public Patcher<D, E> ignoreNull() {
-        engine.setGlobalIgnoreNull(true);
-        return this;
+        return configure(config -> config.setGlobalIgnoreNull(true));
     }
 
     public Patcher<D, E> ignoreNull(String field, boolean ignore) {
-        engine.ignoreNullField(field, ignore);
-        return this;
+        return configure(config -> config.ignoreNullField(field, ignore));
     }
 
     public Patcher<D, E> ignoreNull(String field) {
@@ -97,8 +159,7 @@ public class Patcher<D, E> {
     }
 
     public Patcher<D, E> ignoreFrom(String field, boolean ignore) {
-        engine.ignoreFromField(field, ignore);
-        return this;
+        return configure(config -> config.ignoreFromField(field, ignore));
     }
 
     public Patcher<D, E> ignoreFrom(String field) {
@@ -106,8 +167,7 @@ public class Patcher<D, E> {
     }
 
     public Patcher<D, E> ignoreTo(String field, boolean ignore) {
-        engine.ignoreToField(field, ignore);
-        return this;
+        return configure(config -> config.ignoreToField(field, ignore));
     }
 
     public Patcher<D, E> ignoreTo(String field) {
@@ -115,22 +175,15 @@ public class Patcher<D, E> {
     }
 
     public Patcher<D, E> withMap(BiConsumer<D, E> mapping) {
-        engine.addPostMapping(mapping);
-        return this;
+        return configure(config -> config.addPostMapping(mapping));
     }
 
     public Patcher<D, E> withLogger(PatchLogger logger) {
-        engine.setLogger(logger);
-        return this;
+        return configure(config -> config.setLogger(logger));
     }
 
     public Patcher<D, E> withLogger(boolean enable) {
-        if (enable) {
-            engine.setLogger(new SystemOutLogger());
-        } else {
-            engine.setLogger(null);
-        }
-        return this;
+        return withLogger(enable ? new SystemOutLogger() : null);
     }
 
     public Patcher<D, E> withLogger() {
@@ -138,8 +191,7 @@ public class Patcher<D, E> {
     }
 
     public Patcher<D, E> logChange(boolean enable) {
-        engine.setGlobalLogChange(enable);
-        return this;
+        return configure(config -> config.setGlobalLogChange(enable));
     }
 
     public Patcher<D, E> logChange() {
@@ -147,22 +199,134 @@ public class Patcher<D, E> {
     }
 
     public Patcher<D, E> logChange(String field, boolean enable) {
-        engine.setFieldLogChange(field, enable);
-        return this;
+        return configure(config -> config.setFieldLogChange(field, enable));
     }
 
     public Patcher<D, E> logChange(String field) {
         return logChange(field, true);
     }
 
+    /**
+     * Compiles each configured plan into a generated class with straight-line code for every mapping.
+     */
+    public Patcher<D, E> withCodeGeneration(boolean enable) {
+        return configure(config -> config.setCodeGeneration(enable));
+    }
+
+    public Patcher<D, E> withCodeGeneration() {
+        return withCodeGeneration(true);
+    }
+
     public Patcher<D, E> withValidator(PatchValidator<E> validator) {
-        engine.setValidator(validator);
-        return this;
+        return configure(config -> config.setValidator(validator));
+    }
+
+    /**
+     * Enables change detection: before each write the current value of the target property is read
+     * through its getter and the setter is called only if the value differs. Useful for targets that track
+     * modifications in setters, such as JPA entities. Targets without a getter are always written.
+     *
+     * @see #getSkippedWrites()
+     */
+    public Patcher<D, E> detectChanges(boolean enable) {
+        return configure(config -> config.setDetectChanges(enable));
+    }
+
+    public Patcher<D, E> detectChanges() {
+        return detectChanges(true);
+    }
+
+    /**
+     * Enables deep mode: a source property holding a bean, e.g. an address DTO, is patched into the current
+     * target sub-object instead of replacing the reference, creating it if it is null (see {@link #map(Object)}).
+     * Nested beans are patched with the settings of this patcher that do not depend on its types: global
+     * transformers, null handling, logging, change detection and the settings of the mapping registry;
+     * explicit transformers of the property take precedence.
+     * Shared references and cycles in the source graph are patched once per call.
+     */
+    public Patcher<D, E> deep(boolean enable) {
+        return configure(config -> config.setDeep(enable));
+    }
+
+    public Patcher<D, E> deep() {
+        return deep(true);
+    }
+
+    /**
+     * @return number of writes skipped by change detection since this configuration was created
+     */
+    public long getSkippedWrites() {
+        return frozen != null ? frozen.engine().getSkippedWrites() : engine.getSkippedWrites();
+    }
+
+    /**
+     * Sets the size above which batches passed to {@code patchAll} and {@code mapAll} are split
+     * between threads of the common fork-join pool. Post-mappings, conditions, validators and loggers
+     * must be thread-safe when parallel batches are used.
+     *
+     * @param threshold maximum number of objects processed by a single task, 1024 by default
+     */
+    public Patcher<D, E> withParallelismThreshold(int threshold) {
+        return configure(config -> config.setParallelismThreshold(threshold));
+    }
+
+    /**
+     * Returns an immutable, thread-safe patcher with the current configuration.
+     * The plan is built eagerly, so configuration errors are reported here.
+     * Configuration methods of a frozen patcher do not modify it and return a new frozen patcher instead.
+     *
+     * @return frozen patcher, or this instance if it is already frozen
+     */
+    public Patcher<D, E> freeze() {
+        if (frozen != null) {
+            return this;
+        }
+        // built before copying, so neither engine scans the shared registry
+        engine.snapshot();
+        // the current engine is frozen as is, this patcher continues with a copy that copies the registry on change
+        PatcherEngine<D, E> frozenEngine = engine;
+        engine = frozenEngine.copy();
+        return new Patcher<>(dClass, eClass, frozenEngine);
+    }
+
+    public boolean isFrozen() {
+        return frozen != null;
+    }
+
+    /**
+     * Applies a configuration change to this patcher, or to a copy of the configuration if it is frozen.
+     */
+    private Patcher<D, E> configure(Consumer<PatcherEngine<D, E>> change) {
+        if (frozen == null) {
+            change.accept(engine);
+            return this;
+        }
+        PatcherEngine<D, E> copy = frozen.engine().copy();
+        change.accept(copy);
+        return new Patcher<>(dClass, eClass, copy);
+    }
+
+    PatcherSnapshot<D, E> snapshot() {
+        return frozen != null ? frozen.snapshot() : engine.snapshot();
+    }
+
+    /**
+     * @return an engine for other types with the type-independent settings of this configuration
+     */
+    <T, R> PatcherEngine<T, R> derive(Class<T> fromClass, Class<R> toClass) {
+        return (frozen != null ? frozen.engine() : engine).derive(fromClass, toClass);
+    }
+
+    /**
+     * Wraps an engine that is not modified afterwards, such as a derived one, into a frozen patcher.
+     */
+    static <D, E> Patcher<D, E> frozen(Class<D> fromClass, Class<E> toClass, PatcherEngine<D, E> engine) {
+        return new Patcher<>(fromClass, toClass, engine);
     }
 
     public void patch(D fromObject, E toObject) {
         try {
-            engine.patch(fromObject, toObject);
+            snapshot().patch(fromObject, toObject);
         } catch (MappingExecutionException | ValidationException e) {
             throw e;
         } catch (RuntimeException e) {
@@ -170,6 +334,26 @@ public class Patcher<D, E> {
         }
     }
 
+    /**
+     * Patches the target like {@link #patch(Object, Object)} and reports which target fields have changed.
+     * Steps are always applied one by one, even if a generated patch is available.
+     */
+    public PatchResult patchWithResult(D fromObject, E toObject) {
+        return execute(() -> snapshot().patchWithResult(fromObject, toObject));
+    }
+
+    /**
+     * Creates a patched copy of an immutable target, such as a record or a type created by a builder
+     * (see {@link ru.andryxx.patcher.mapping.Construction}): unpatched fields are read from the target,
+     * patched ones from the source, and the copy is constructed with a single call. The target is not modified.
+     *
+     * @return the new instance
+     * @throws MappingExecutionException if the target type is mutable
+     */
+    public E patchCopy(D fromObject, E toObject) {
+        return execute(() -> snapshot().patchCopy(fromObject, toObject));
+    }
+
     public SelectiveMapping patchOnly(String field) {
         var sMapping = new SelectiveMapping();
         sMapping.toFields.add(field);
@@ -186,7 +370,7 @@ public class Patcher<D, E> {
 
         public void apply(D fromObject, E toObject) {
             try {
-                engine.patchSelective(toFields, fromObject, toObject);
+                snapshot().patchSelective(toFields, fromObject, toObject);
             } catch (MappingExecutionException | ValidationException e) {
                 throw e;
             } catch (RuntimeException e) {
@@ -196,10 +380,195 @@ public class Patcher<D, E> {
     }
 
     public E map(D fromObject) {
-        return engine.mapWithDefaultCtor(fromObject);
+        return snapshot().mapWithDefaultCtor(fromObject);
     }
 
     public E map(D fromObject, Supplier<? extends E> supplier) {
-        return engine.map(fromObject, supplier);
+        return snapshot().map(fromObject, supplier);
+    }
+
+    /**
+     * Patches each target with the source at the same index.
+     * The configuration is resolved once for the whole batch.
+     *
+     * @throws IllegalArgumentException if the lists have different sizes
+     */
+    public void patchAll(List<? extends D> fromObjects, List<? extends E> toObjects) {
+        patchBatch(fromObjects.toArray(), toObjects.toArray());
+    }
+
+    /**
+     * @see #patchAll(List, List)
+     */
+    public void patchAll(D[] fromObjects, E[] toObjects) {
+        patchBatch(fromObjects, toObjects);
+    }
+
+    /**
+     * Maps each source to a new instance created by the default constructor.
+     *
+     * @return mapped objects in the order of the source collection
+     */
+    public List<E> mapAll(Collection<? extends D> fromObjects) {
+        return mapBatch(fromObjects.toArray(), null);
+    }
+
+    /**
+     * @return mapped objects in the order of the source collection
+     */
+    public List<E> mapAll(Collection<? extends D> fromObjects, Supplier<? extends E> supplier) {
+        return mapBatch(fromObjects.toArray(), supplier);
+    }
+
+    /**
+     * @return array of mapped objects, where each element corresponds to the source with the same index
+     */
+    @SuppressWarnings("unchecked")
+    public E[] mapAll(D[] fromObjects) {
+        E[] results = (E[]) Array.newInstance(eClass, fromObjects.length);
+        execute(() -> snapshot().mapAll(fromObjects, results, null));
+        return results;
+    }
+
+    /**
+     * Projects the source to a map keyed by target field names, using the same mappings and transformers
+     * as {@link #patch(Object, Object)}, without creating a target object. Conditions and post-mappings
+     * are not applied. The map is pre-sized and keeps the order of {@link #getColumns()}.
+     * Use {@code Patcher.forType(Type.class, Type.class).toMap(object)} to convert an object to a map
+     * of its own properties.
+     */
+    public Map<String, Object> toMap(D fromObject) {
+        return execute(() -> snapshot().toMap(fromObject));
+    }
+
+    /**
+     * Projects the source to a flat row of values in the order of {@link #getColumns()},
+     * a cheaper alternative to {@link #toMap(Object)} for bulk exports.
+     */
+    public Object[] toRow(D fromObject) {
+        return execute(() -> snapshot().toRow(fromObject));
+    }
+
+    /**
+     * Projects each source to a row; large batches are split like in {@link #mapAll(Collection)}.
+     *
+     * @return rows in the order of the source collection
+     */
+    public List<Object[]> toRows(Collection<? extends D> fromObjects) {
+        Object[] sources = fromObjects.toArray();
+        Object[][] rows = new Object[sources.length][];
+        execute(() -> snapshot().toRows(sources, rows));
+        return Arrays.asList(rows);
+    }
+
+    /**
+     * @return target field names of the current configuration, in the order of projected rows
+     */
+    public List<String> getColumns() {
+        return snapshot().columns();
+    }
+
+    /**
+     * Patches the target on a new virtual thread. The configuration is resolved in the calling thread.
+     *
+     * @return future completed with the patched target, or exceptionally with the mapping or validation exception
+     */
+    public CompletableFuture<E> patchAsync(D fromObject, E toObject) {
+        PatcherSnapshot<D, E> snapshot = snapshot();
+        return async(() -> {
+            snapshot.patch(fromObject, toObject);
+            return toObject;
+        });
+    }
+
+    /**
+     * Maps the source to a new instance created by the default constructor on a new virtual thread.
+     */
+    public CompletableFuture<E> mapAsync(D fromObject) {
+        PatcherSnapshot<D, E> snapshot = snapshot();
+        return async(() -> snapshot.mapWithDefaultCtor(fromObject));
+    }
+
+    public CompletableFuture<E> mapAsync(D fromObject, Supplier<? extends E> supplier) {
+        PatcherSnapshot<D, E> snapshot = snapshot();
+        return async(() -> snapshot.map(fromObject, supplier));
+    }
+
+    /**
+     * Patches each target with the source at the same index, each pair on its own virtual thread.
+     * A failure completes only the future of its element.
+     *
+     * @return futures in the order of the source list
+     * @throws IllegalArgumentException if the lists have different sizes
+     */
+    public List<CompletableFuture<E>> patchAllAsync(List<? extends D> fromObjects, List<? extends E> toObjects) {
+        if (fromObjects.size() != toObjects.size()) {
+            throw new IllegalArgumentException("Batch sizes differ: " + fromObjects.size()
+                                               + " source and " + toObjects.size() + " target objects");
+        }
+        PatcherSnapshot<D, E> snapshot = snapshot();
+        List<CompletableFuture<E>> results = new ArrayList<>(fromObjects.size());
+        Iterator<? extends E> targets = toObjects.iterator();
+        for (D fromObject : fromObjects) {
+            E toObject = targets.next();
+            results.add(async(() -> {
+                snapshot.patch(fromObject, toObject);
+                return toObject;
+            }));
+        }
+        return results;
+    }
+
+    /**
+     * Maps each source on its own virtual thread. A failure completes only the future of its element.
+     *
+     * @return futures in the order of the source collection
+     */
+    public List<CompletableFuture<E>> mapAllAsync(Collection<? extends D> fromObjects) {
+        PatcherSnapshot<D, E> snapshot = snapshot();
+        List<CompletableFuture<E>> results = new ArrayList<>(fromObjects.size());
+        for (D fromObject : fromObjects) {
+            results.add(async(() -> snapshot.mapWithDefaultCtor(fromObject)));
+        }
+        return results;
+    }
+
+    private static <T> CompletableFuture<T> async(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> execute(task), ASYNC_EXECUTOR);
+    }
+
+    private void patchBatch(Object[] fromObjects, Object[] toObjects) {
+        if (fromObjects.length != toObjects.length) {
+            throw new IllegalArgumentException("Batch sizes differ: " + fromObjects.length
+                                               + " source and " + toObjects.length + " target objects");
+        }
+        execute(() -> snapshot().patchAll(fromObjects, toObjects));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<E> mapBatch(Object[] fromObjects, Supplier<? extends E> supplier) {
+        Object[] results = new Object[fromObjects.length];
+        execute(() -> snapshot().mapAll(fromObjects, results, supplier));
+        return (List<E>) Arrays.asList(results);
+    }
+
+    private static void execute(Runnable action) {
+        execute(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the action, wrapping unexpected runtime exceptions the same way as {@link #patch(Object, Object)}.
+     */
+    private static <T> T execute(Supplier<T> action) {
+        try {
+            return action.get();
+        } catch (MappingExecutionException | ValidationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new MappingExecutionException(e);
+        }
     }
 }
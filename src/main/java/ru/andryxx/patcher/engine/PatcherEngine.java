@@ -4,12 +4,13 @@ import ru.andryxx.patcher.exceptions.MappingExecutionException;
 import ru.andryxx.patcher.exceptions.ValidationException;
 import ru.andryxx.patcher.logging.PatchLogger;
 import ru.andryxx.patcher.mapping.MappingPair;
+import ru.andryxx.patcher.mapping.PropertyReader;
 import ru.andryxx.patcher.mapping.registry.MappingRegistry;
 import ru.andryxx.patcher.validation.PatchValidator;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
@@ -18,20 +19,39 @@ import java.util.stream.Stream;
 
 class PatcherEngine<D, E> {
     protected static final class PatchApplier<D, E> {
+        private static final Function<Object, Object> IDENTITY = Function.identity();
+
         private final Function<Object, Object> getter;
         private final BiConsumer<Object, Object> setter;
         private final Function<Object, Object> function;
+        // the setter patches the source value into the current target value instead of assigning it
+        private final boolean inPlace;
 
         private PatchApplier(Function<Object, Object> getter,
                              BiConsumer<Object, Object> setter,
                              Function<Object, Object> function) {
+            this(getter, setter, function, false);
+        }
+
+        private PatchApplier(Function<Object, Object> getter,
+                             BiConsumer<Object, Object> setter,
+                             Function<Object, Object> function,
+                             boolean inPlace) {
             this.getter = getter;
             this.setter = setter;
-            this.function = Objects.requireNonNullElse(function, Function.identity());
+            this.function = Objects.requireNonNullElse(function, IDENTITY);
+            this.inPlace = inPlace;
         }
 
         public Object apply(D d, E e) {
-            Object value = getter.apply(d);
+            return write(e, read(d));
+        }
+
+        public Object read(D d) {
+            return getter.apply(d);
+        }
+
+        public Object write(E e, Object value) {
             Object transformedValue = function.apply(value);
             setter.accept(e, transformedValue);
             return transformedValue;
@@ -49,6 +69,22 @@ class PatcherEngine<D, E> {
             return function;
         }
 
+        PatchApplier<D, E> withSetter(BiConsumer<Object, Object> setter) {
+            return new PatchApplier<>(getter, setter, function, inPlace);
+        }
+
+        /**
+         * @return whether the applier patches nested objects or collections in place, so {@link #write} returns
+         * the source value rather than the value of the target field
+         */
+        public boolean isInPlace() {
+            return inPlace;
+        }
+
+        public boolean hasFunction() {
+            return function != IDENTITY;
+        }
+
         @Override
         public boolean equals(Object obj) {
             if (obj == this) return true;
@@ -74,12 +110,32 @@ class PatcherEngine<D, E> {
 
     }
 
+    /**
+     * @param primitiveCopy unboxed copy replacing the applier for primitive direct mappings, may be null
+     * @param target        getter of the current target value, null if the target cannot be read
+     */
     protected record PatchStep<D, E>(
             MappingPair mapping,
-            PatchApplier<D, E> applier
+            PatchApplier<D, E> applier,
+            boolean ignoreNull,
+            BiPredicate<D, E>[] conditions,
+            boolean logChange,
+            PrimitiveCopy primitiveCopy,
+            PropertyReader target
     ) {
+        boolean test(D d, E e) {
+            for (BiPredicate<D, E> condition : conditions) {
+                if (!condition.test(d, e)) {
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 
+    @SuppressWarnings("rawtypes")
+    private static final BiPredicate[] NO_CONDITIONS = new BiPredicate[0];
+
     private static final Map<Class<?>, Class<?>> PRIMITIVE_TO_BOXED = Map.ofEntries(
             Map.entry(boolean.class, Boolean.class),
             Map.entry(byte.class, Byte.class),
@@ -94,7 +150,7 @@ class PatcherEngine<D, E> {
 
     private final Class<D> dClass;
     private final Class<E> eClass;
-    private final PatchContext<D, E> context = new PatchContext<>();
+    private final PatchContext<D, E> context;
 
     private List<MappingPair> mappingPairs = new LinkedList<>();
 
@@ -104,43 +160,80 @@ class PatcherEngine<D, E> {
     // mappings in MappingRegistry (more strictly, if false then context invalid)
     private boolean isMappingsValid = false;
 
-    private final List<PatchStep<D, E>> patchSteps = new LinkedList<>();
+    private PatchPlan<D, E> plan;
+    private boolean generateCode = false;
+    // compile-time generated patch, used only while the configuration is unchanged
+    private GeneratedPatch<D, E> generatedPatch;
+    private PatcherSnapshot<D, E> snapshot;
+    // the registry is shared with copies of this engine and is copied before it is modified
+    private boolean registryShared = false;
+    // children of the plan this engine was derived for, null for engines of patchers
+    private DeepPatch.Children deepChildren;
 
     private final AnnotationProcessor annotationProcessor = new AnnotationProcessor();
 
     public PatcherEngine(Class<D> dClass, Class<E> eClass, MappingRegistry mappingRegistry) {
+        this(dClass, eClass, new PatchContext<>());
+        context.setMappingRegistry(mappingRegistry);
+    }
+
+    private PatcherEngine(Class<D> dClass, Class<E> eClass, PatchContext<D, E> context) {
         this.dClass = dClass;
         this.eClass = eClass;
-        context.setMappingRegistry(mappingRegistry);
+        this.context = context;
     }
 
     public MappingRegistry getMappingRegistry() {
+        configurationChanged();
         isContextValid = false;
         isMappingsValid = false;
-        return context.getMappingRegistry();
+        return ownMappingRegistry();
     }
 
     public void addStaticFieldMapping(String dField, String eField) {
+        configurationChanged();
         isContextValid = false;
         isMappingsValid = false;
-        context.getMappingRegistry().registerFieldMapping(dField, eField);
+        ownMappingRegistry().registerFieldMapping(dField, eField);
+    }
+
+    /**
+     * @return the mapping registry to modify, copied first if it is shared with another engine
+     */
+    private MappingRegistry ownMappingRegistry() {
+        if (registryShared) {
+            context.copyMappingRegistry();
+            registryShared = false;
+        }
+        return context.getMappingRegistry();
     }
 
     public <T, R> void addGlobalTransformer(Transformer<T, R> transformer) {
+        configurationChanged();
         isContextValid = false;
         context.getGlobalTransformers()
                 .computeIfAbsent(transformer.inputType(), _ -> new ConcurrentHashMap<>())
                 .put(transformer.outputType(), transformer.function());
+        context.resetTransformerTable();
     }
 
     public <T, R> void addFieldTransformer(String field, Transformer<T, R> transformer) {
+        configurationChanged();
         isContextValid = false;
         context.getFieldTransformers()
                 .computeIfAbsent(field, _ -> new LinkedList<>())
                 .add(transformer);
+        context.resetTransformerTable();
+    }
+
+    public void setCollectionMerge(String field, CollectionMerge<?, ?> merge) {
+        configurationChanged();
+        isContextValid = false;
+        context.getCollectionMerges().put(field, merge);
     }
 
     public void addFieldCondition(String field, BiPredicate<D, E> condition) {
+        configurationChanged();
         isContextValid = false;
         context.getFieldConditions()
                 .computeIfAbsent(field, _ -> new LinkedList<>())
@@ -148,162 +241,314 @@ class PatcherEngine<D, E> {
     }
 
     public void setGlobalIgnoreNull(boolean ignore) {
-        isContextValid = context.isGlobalIgnoreNull() == ignore;
+        configurationChanged();
+        isContextValid &= context.isGlobalIgnoreNull() == ignore;
         context.setGlobalIgnoreNull(ignore);
     }
 
     public void ignoreNullField(String field, boolean ignore) {
-        if (ignore) {
-            isContextValid = !context.getIgnoredNullFields().add(field);
-        } else {
-            isContextValid = !context.getIgnoredNullFields().remove(field);
-        }
+        configurationChanged();
+        isContextValid &= !updateSet(context.getIgnoredNullFields(), field, ignore);
     }
 
     public void ignoreFromField(String field, boolean ignore) {
-        if (ignore) {
-            isContextValid = !context.getIgnoredFromFields().add(field);
-        } else {
-            isContextValid = !context.getIgnoredFromFields().remove(field);
-        }
+        configurationChanged();
+        isContextValid &= !updateSet(context.getIgnoredFromFields(), field, ignore);
     }
 
     public void ignoreToField(String field, boolean ignore) {
-        if (ignore) {
-            isContextValid = !context.getIgnoredToFields().add(field);
-        } else {
-            isContextValid = !context.getIgnoredToFields().remove(field);
-        }
+        configurationChanged();
+        isContextValid &= !updateSet(context.getIgnoredToFields(), field, ignore);
+    }
+
+    /**
+     * Drops state derived from the previous configuration that is not covered by the validity flags.
+     */
+    private void configurationChanged() {
+        generatedPatch = null;
+        snapshot = null;
+    }
+
+    private static boolean updateSet(Set<String> set, String field, boolean add) {
+        return add ? set.add(field) : set.remove(field);
     }
 
     public void addPostMapping(BiConsumer<D, E> mapping) {
+        snapshot = null;
         context.getUserPostMappings().add(mapping);
     }
 
     public void setLogger(PatchLogger patchLogger) {
+        snapshot = null;
         context.setPatchLogger(patchLogger);
     }
 
     public void setGlobalLogChange(boolean log) {
+        configurationChanged();
+        isContextValid &= context.isGlobalLogChange() == log;
         context.setGlobalLogChange(log);
     }
 
     public void setFieldLogChange(String field, boolean log) {
-        context.getLogChangeFields().put(field, log);
+        configurationChanged();
+        isContextValid &= Objects.equals(context.getLogChangeFields().put(field, log), log);
     }
 
     public void setValidator(PatchValidator<E> validator) {
+        snapshot = null;
         context.setPatchValidator(validator);
     }
 
-    public void patch(D dObject, E eObject) throws ValidationException, MappingExecutionException {
-        List<MappingPair> mappings = isMappingsValid ? mappingPairs : getMappings();
-//        if (!isMappingsValid || !isContextValid) {
-            patchSteps.clear();
-            mappingPairs = mappings;
-            mappings = filterConditions(filterNull(filterIgnored(mappings.stream()), dObject), dObject, eObject)
-                    .toList();
-            var globalTransformers = context.getGlobalTransformers();
-            var fieldTransformers = context.getFieldTransformers();
-            patchSteps.addAll(getPatchSteps(mappings, fieldTransformers, globalTransformers));
-            isMappingsValid = true;
-            isContextValid = true;
-//        }
+    /**
+     * Enables reading the current target value before each write and skipping the setter if it is unchanged.
+     */
+    public void setDetectChanges(boolean enable) {
+        configurationChanged();
+        isContextValid &= context.isDetectChanges() == enable;
+        context.setDetectChanges(enable);
+    }
+
+    /**
+     * Enables patching nested beans into existing target sub-objects, see {@link DeepPatch}.
+     */
+    public void setDeep(boolean enable) {
+        configurationChanged();
+        isContextValid &= context.isDeep() == enable;
+        context.setDeep(enable);
+    }
+
+    /**
+     * Makes plans of this derived engine share the child patchers of its parent plan.
+     */
+    void setDeepChildren(DeepPatch.Children children) {
+        deepChildren = children;
+    }
 
-        before(dObject, eObject);
-        processPatchSteps(dObject, eObject, patchSteps);
-        processPostMappings(dObject, eObject);
-        PatchValidator<E> validator = context.getPatchValidator();
-        if (validator != null) {
-            validator.validate(eObject);
+    public long getSkippedWrites() {
+        return context.getSkippedWrites().sum();
+    }
+
+    /**
+     * @param threshold batches larger than this are split between threads of the common fork-join pool
+     */
+    public void setParallelismThreshold(int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Parallelism threshold must be positive: " + threshold);
         }
+        snapshot = null;
+        context.setParallelismThreshold(threshold);
+    }
 
+    public void setGeneratedPatch(GeneratedPatch<D, E> generatedPatch) {
+        snapshot = null;
+        this.generatedPatch = generatedPatch;
+    }
+
+    public GeneratedPatch<D, E> getGeneratedPatch() {
+        return generatedPatch;
+    }
+
+    /**
+     * Enables generation of a specialized hidden class for each compiled plan.
+     */
+    public void setCodeGeneration(boolean enable) {
+        isContextValid &= generateCode == enable;
+        generateCode = enable;
+    }
+
+    public void patch(D dObject, E eObject) throws ValidationException, MappingExecutionException {
+        snapshot().patch(dObject, eObject);
     }
 
     public void patchSelective(Collection<String> eFields, D dObject, E eObject)
             throws ValidationException, MappingExecutionException {
+        snapshot().patchSelective(eFields, dObject, eObject);
+    }
+
+    public E mapWithDefaultCtor(D dObject) {
+        return snapshot().mapWithDefaultCtor(dObject);
+    }
+
+    public E map(D dObject, Supplier<? extends E> supplier) {
+        return snapshot().map(dObject, supplier);
+    }
+
+    /**
+     * Returns an immutable snapshot of the current configuration, rebuilding it only
+     * when the configuration has changed since the last call.
+     */
+    PatcherSnapshot<D, E> snapshot() {
+        PatcherSnapshot<D, E> snapshot = this.snapshot;
+        if (snapshot == null || !isContextValid || !isMappingsValid) {
+            snapshot = new PatcherSnapshot<>(
+                    dClass,
+                    eClass,
+                    getPlan(),
+                    // generated patches copy nested beans by reference
+                    context.isDeep() || !isPlannedBy(generatedPatch) ? null : generatedPatch,
+                    context.getPatchLogger(),
+                    context.getPatchValidator(),
+                    context.getUserPostMappings(),
+                    context.getParallelismThreshold(),
+                    context.isDeep(),
+                    context.getTransformerTable(),
+                    context.getMappingRegistry()::resolveCreator
+            );
+            this.snapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return whether the generated patch applies exactly the mappings of the current plan
+     */
+    private boolean isPlannedBy(GeneratedPatch<D, E> patch) {
+        if (patch == null || patch.mappings() == null) {
+            return false;
+        }
+        Map<String, String> mappings = new HashMap<>();
+        for (PatchStep<D, E> step : getPlan().steps()) {
+            mappings.put(step.mapping().toFieldName(), step.mapping().fromFieldName());
+        }
+        return mappings.equals(patch.mappings());
+    }
+
+    /**
+     * Creates an independent engine with a deep copy of this configuration, for an engine that is not modified
+     * afterwards, such as the engine of a frozen patcher. The compiled plan is shared, since it is immutable.
+     * The mapping registry is shared as well and copied by the copy before it changes mappings.
+     */
+    PatcherEngine<D, E> copy() {
+        PatcherEngine<D, E> copy = new PatcherEngine<>(dClass, eClass, context.copy());
+        copy.registryShared = true;
+        copy.mappingPairs = mappingPairs;
+        // steps count skipped writes of the context they were built with
+        copy.isContextValid = isContextValid && !context.isDetectChanges();
+        copy.isMappingsValid = isMappingsValid;
+        copy.plan = plan;
+        copy.generateCode = generateCode;
+        copy.generatedPatch = generatedPatch;
+        copy.snapshot = snapshot;
+        return copy;
+    }
+
+    /**
+     * Creates an engine for other types with the type-independent settings of this configuration,
+     * see {@link PatchContext#derive()}. Used for nested objects, which are patched with the configuration
+     * of the patcher they belong to.
+     */
+    <T, R> PatcherEngine<T, R> derive(Class<T> dClass, Class<R> eClass) {
+        PatcherEngine<T, R> derived = new PatcherEngine<>(dClass, eClass, context.<T, R>derive());
+        derived.generateCode = generateCode;
+        return derived;
+    }
+
+    /**
+     * Returns the compiled plan for the current configuration, rebuilding it only
+     * when mappings or context have changed since the last build.
+     */
+    PatchPlan<D, E> getPlan() {
         if (!isMappingsValid) {
             mappingPairs = getMappings();
             isMappingsValid = true;
+            isContextValid = false;
         }
-        var mappings = filterConditions(
-                filterNull(filterIgnoredFrom(mappingPairs.stream()
-                                .filter(m -> eFields.contains(m.toFieldName()))),
-                        dObject), dObject, eObject).toList();
-        var globalTransformers = context.getGlobalTransformers();
-        var fieldTransformers = context.getFieldTransformers();
-        var patchSteps = getPatchSteps(mappings, fieldTransformers, globalTransformers);
-
-        before(dObject, eObject);
-        processPatchSteps(dObject, eObject, patchSteps);
-        processPostMappings(dObject, eObject);
-        PatchValidator<E> validator = context.getPatchValidator();
-        if (validator != null) {
-            validator.validate(eObject);
+        if (!isContextValid || plan == null) {
+            plan = compilePlan(mappingPairs);
+            isContextValid = true;
         }
+        return plan;
+    }
+
+    private PatchPlan<D, E> compilePlan(List<MappingPair> mappings) {
+        TransformerTable transformers = context.getTransformerTable();
+        // child patchers are cached per plan, derived engines share the children of their parent plan
+        DeepPatch.Children children = deepChildren != null || !context.isDeep()
+                ? deepChildren
+                : new DeepPatch.Children(derive(Object.class, Object.class));
+        List<MappingPair> selectable = filterIgnoredFrom(mappings.stream()).toList();
+        List<PatchStep<D, E>> steps = getPatchSteps(filterIgnoredTo(selectable.stream()).toList(),
+                transformers, children, true);
+        return PatchPlan.of(steps, () -> getSelectableSteps(selectable, steps, transformers, children),
+                generateCode);
+    }
+
+    /**
+     * Adds steps of the mappings to ignored target fields to the steps of a full patch, keeping the mapping order.
+     * Mappings to ignored fields are not patched by a full patch, so they are compiled like auto mappings:
+     * an unresolvable one is left out instead of failing the patcher.
+     */
+    private List<PatchStep<D, E>> getSelectableSteps(List<MappingPair> selectable, List<PatchStep<D, E>> steps,
+                                                     TransformerTable transformers, DeepPatch.Children children) {
+        Set<MappingPair> planned = Collections.newSetFromMap(new IdentityHashMap<>());
+        filterIgnoredTo(selectable.stream()).forEach(planned::add);
+        Map<MappingPair, PatchStep<D, E>> compiled = new IdentityHashMap<>();
+        for (PatchStep<D, E> step : steps) {
+            compiled.put(step.mapping(), step);
+        }
+        List<MappingPair> ignored = selectable.stream().filter(mapping -> !planned.contains(mapping)).toList();
+        for (PatchStep<D, E> step : getPatchSteps(ignored, transformers, children, false)) {
+            compiled.put(step.mapping(), step);
+        }
+        return selectable.stream().map(compiled::get).filter(Objects::nonNull).toList();
     }
 
     private void fetchAnnotationsMetadata() {
         if (context.getAnnotationMetadata() == null) {
             var annotationMetadata = annotationProcessor.process(dClass, eClass);
             for (var entry : annotationMetadata.fieldTransformers().entrySet()) {
-                for (var fieldTransformer : entry.getValue()) {
-                    addFieldTransformer(entry.getKey(), fieldTransformer);
-                }
+                context.getFieldTransformers()
+                        .computeIfAbsent(entry.getKey(), _ -> new LinkedList<>())
+                        .addAll(entry.getValue());
             }
+            context.resetTransformerTable();
             context.setAnnotationMetadata(annotationMetadata);
         }
 
     }
 
-    public E mapWithDefaultCtor(D dObject) {
-        try {
-            E instance = eClass.getDeclaredConstructor().newInstance();
-            patch(dObject, instance);
-            return instance;
-        } catch (InstantiationException | IllegalAccessException |
-                 InvocationTargetException | NoSuchMethodException e) {
-            throw new MappingExecutionException("Unable to initialize instance " + eClass.getName(), e);
-        }
-    }
-
-    public E map(D dObject, Supplier<? extends E> supplier) {
-        E instance = supplier.get();
-        patch(dObject, instance);
-        return instance;
-    }
-
-    private void before(D dObject, E eObject) {
-        PatchLogger logger = context.getPatchLogger();
-        if (logger != null) {
-            logger.logObjInfo(dObject, eObject);
-        }
-    }
-
-    private List<PatchStep<D, E>> getPatchSteps(List<MappingPair> mappings,
-                                                Map<String, List<Transformer<?, ?>>> fieldTransformers,
-                                                Map<Class<?>, Map<Class<?>, Function<?, ?>>> globalTransformers) {
-        List<PatchStep<D, E>> patchSteps = new LinkedList<>();
+    /**
+     * @param strict whether an explicit mapping that cannot be resolved fails, otherwise it is left out
+     */
+    private List<PatchStep<D, E>> getPatchSteps(List<MappingPair> mappings, TransformerTable transformers,
+                                                DeepPatch.Children children, boolean strict) {
+        List<PatchStep<D, E>> patchSteps = new ArrayList<>(mappings.size());
         for (MappingPair mapping : mappings) {
+            PropertyReader target = context.getMappingRegistry()
+                    .resolveTargetReader(eClass, mapping.toFieldName())
+                    .orElse(null);
+            // collections with a merge strategy are modified in place
+            CollectionMerge<?, ?> merge = context.getCollectionMerges().get(mapping.fromFieldName());
             // try to find in user's transformers
-            PatchApplier<D, E> applier = getSuitableTransformer(mapping,
-                    fieldTransformers.getOrDefault(mapping.fromFieldName(), List.of()));
+            PatchApplier<D, E> applier = merge != null
+                    ? new PatchApplier<>(mapping.getter(), merge.setter(mapping, target, creator(mapping)), null, true)
+                    : wrapToApplier(mapping, transformers.field(mapping.fromFieldName(),
+                            mapping.fromObjectValueType(), mapping.toObjectValueType()));
+            // nested beans are patched into the current target value
+            if (applier == null && context.isDeep()
+                && DeepPatch.isDeep(mapping.fromObjectValueType(), mapping.toObjectValueType())) {
+                applier = new PatchApplier<>(mapping.getter(),
+                        DeepPatch.setter(mapping, target, children, creator(mapping)), null, true);
+            }
             // fallback to direct mapping
+            PrimitiveCopy primitiveCopy = null;
             if (applier == null) {
-                applier = getDirectMappingApplier(mapping);
+                applier = getDirectMappingApplier(mapping, transformers);
+                // logged values are boxed anyway; nested source paths read null for a missing intermediate object
+                if (applier != null && !isLogChange(mapping) && mapping.fromFieldName().indexOf('.') < 0) {
+                    primitiveCopy = PrimitiveCopy.of(mapping);
+                }
             }
             //fallback to global transformer if no direct mapping is found
             if (applier == null) {
-                Function<?, ?> f = globalTransformers
-                        .getOrDefault(mapping.fromObjectValueType(), Map.of())
-                        .get(mapping.toObjectValueType());
-                if (f != null) {
-                    applier = wrapToApplier(mapping, f);
-                }
+                applier = wrapToApplier(mapping,
+                        transformers.global(mapping.fromObjectValueType(), mapping.toObjectValueType()));
             }
             if (applier != null) {
-                patchSteps.add(new PatchStep<>(mapping, applier));
-            } else if (!mapping.isAutoMapping()) {
+                PatchStep<D, E> step = new PatchStep<>(mapping, applier,
+                        isIgnoreNull(mapping), getConditions(mapping), isLogChange(mapping), primitiveCopy, target);
+                patchSteps.add(context.isDetectChanges() ? withChangeDetection(step) : step);
+            } else if (strict && !mapping.isAutoMapping()) {
                 throw new MappingExecutionException("Unable to find suitable transformation for "
                                                     + mapping.fromFieldName() + " (" + mapping.fromObjectValueType()
                                                     + ") to " + mapping.toFieldName()
@@ -313,40 +558,36 @@ class PatcherEngine<D, E> {
         return patchSteps;
     }
 
-    private void processPatchSteps(D dObject, E eObject, Collection<PatchStep<D, E>> patchSteps) {
-        PatchLogger logger = context.getPatchLogger();
-        for (PatchStep<D, E> patchStep : patchSteps) {
-            try {
-                Object newVal = patchStep.applier.apply(dObject, eObject);
-                if (logger != null
-                    && (context.isGlobalLogChange()
-                        || context.getLogChangeFields().getOrDefault(patchStep.mapping.toFieldName(), false)
-                        || context.getAnnotationMetadata().logChange().contains(patchStep.mapping.toFieldName()))
-                ) {
-                    logger.log(patchStep.mapping.fromFieldName(), patchStep.mapping.toFieldName(), newVal);
-                }
-            } catch (Exception e) {
-                throw new MappingExecutionException("Exception during mapping "
-                                                    + patchStep.mapping.fromFieldName()
-                                                    + " to " + patchStep.mapping.toFieldName(), e);
-            }
-        }
+    /**
+     * @return factory of new values of the target property, or null if it cannot be instantiated
+     */
+    private Supplier<Object> creator(MappingPair mapping) {
+        return context.getMappingRegistry().resolveCreator(mapping.toObjectValueType()).orElse(null);
     }
 
-    private void processPostMappings(D dObject, E eObject) {
-        try {
-            for (BiConsumer<D, E> consumer : context.getUserPostMappings()) {
-                consumer.accept(dObject, eObject);
-            }
-        } catch (Exception e) {
-            throw new MappingExecutionException("Exception while processing postmapping", e);
+    /**
+     * Makes the step write only changed values. Steps whose target cannot be read are left as is.
+     */
+    private PatchStep<D, E> withChangeDetection(PatchStep<D, E> step) {
+        MappingPair mapping = step.mapping();
+        PropertyReader reader = step.target();
+        if (reader == null) {
+            return step;
         }
+        LongAdder skipped = context.getSkippedWrites();
+        PrimitiveCopy primitiveCopy = step.primitiveCopy() != null && reader.valueType() == mapping.toObjectValueType()
+                ? ChangeDetection.copy(mapping, reader.getter(), skipped)
+                : null;
+        PatchApplier<D, E> applier = step.applier()
+                .withSetter(ChangeDetection.setter(step.applier().setter(), reader.getter(), skipped));
+        return new PatchStep<>(mapping, applier,
+                step.ignoreNull(), step.conditions(), step.logChange(), primitiveCopy, reader);
     }
 
     private List<MappingPair> getMappings() {
         fetchAnnotationsMetadata();
         List<MappingPair> mappings = new LinkedList<>();
-        MappingRegistry mappingRegistry = context.getMappingRegistry();
+        MappingRegistry mappingRegistry = ownMappingRegistry();
         try {
             addAnnotationsMappings(mappingRegistry);
             mappingRegistry.scanEntityMappings(dClass, eClass);
@@ -365,10 +606,6 @@ class PatcherEngine<D, E> {
         }
     }
 
-    private Stream<MappingPair> filterIgnored(Stream<MappingPair> mappings) {
-        return filterIgnoredFrom(filterIgnoredTo(mappings));
-    }
-
     private Stream<MappingPair> filterIgnoredFrom(Stream<MappingPair> mappings) {
         Set<String> ignoredFromFields = context.getIgnoredFromFields();
         Set<String> ignoredFromFieldsAnnotations = context.getAnnotationMetadata().fromIgnore();
@@ -383,56 +620,42 @@ class PatcherEngine<D, E> {
                                     && !ignoredToFieldsAnnotations.contains(m.fromFieldName()));
     }
 
-
-    private Stream<MappingPair> filterNull(Stream<MappingPair> mappings, D object) {
-        Set<String> ignoredNullFields = context.getIgnoredNullFields();
-        Set<String> ignoredNullFieldsAnnotations = context.getAnnotationMetadata().ignoreIfNull();
-        return mappings.filter(m ->
-                !((context.isGlobalIgnoreNull()
-                   || ignoredNullFields.contains(m.fromFieldName())
-                   || ignoredNullFieldsAnnotations.contains(m.toFieldName()))
-                  && (m.getter().apply(object) == null)));
+    private boolean isIgnoreNull(MappingPair mapping) {
+        return context.isGlobalIgnoreNull()
+               || context.getIgnoredNullFields().contains(mapping.fromFieldName())
+               || context.getAnnotationMetadata().ignoreIfNull().contains(mapping.toFieldName());
     }
 
-    private Stream<MappingPair> filterConditions(Stream<MappingPair> mappings, D dObject, E eObject) {
-        var conditions = context.getFieldConditions();
-        return mappings.filter(m -> conditions.getOrDefault(m.toFieldName(), List.of())
-                .stream().allMatch(c -> c.test(dObject, eObject)));
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private BiPredicate<D, E>[] getConditions(MappingPair mapping) {
+        List<BiPredicate<D, E>> conditions = context.getFieldConditions().get(mapping.toFieldName());
+        if (conditions == null || conditions.isEmpty()) {
+            return NO_CONDITIONS;
+        }
+        return conditions.toArray(new BiPredicate[0]);
     }
 
-    private PatchApplier<D, E> getSuitableTransformer(MappingPair mapping, Collection<Transformer<?, ?>> transformers) {
-        Class<?> fromType = boxed(mapping.fromObjectValueType());
-        Class<?> toType = boxed(mapping.toObjectValueType());
-        for (Transformer<?, ?> t : transformers) {
-            Class<?> inputType = boxed(t.inputType());
-            Class<?> outputType = boxed(t.outputType());
-
-            // getter type can be a subclass of inputType
-            boolean inputCompatible = inputType.isAssignableFrom(fromType);
-            if (!inputCompatible) continue;
-            // transformer output can be a subclass of toObjectValueType
-            boolean outputCompatible = toType.isAssignableFrom(outputType);
-            if (!outputCompatible) continue;
-
-            try {
-                return wrapToApplier(mapping, t.function());
-            } catch (Exception e) {
-                throw new MappingExecutionException("Unable to cast", e);
-            }
-        }
-        return null;
+    private boolean isLogChange(MappingPair mapping) {
+        return context.isGlobalLogChange()
+               || context.getLogChangeFields().getOrDefault(mapping.toFieldName(), false)
+               || context.getAnnotationMetadata().logChange().contains(mapping.toFieldName());
     }
 
+    /**
+     * @return applier converting values with the transformer, or null if there is no transformer
+     */
     @SuppressWarnings("unchecked")
     private PatchApplier<D, E> wrapToApplier(MappingPair mapping, Function<?, ?> transformFunction) {
-        Function<Object, Object> transformerFunction =
-                (Function<Object, Object>) Objects.requireNonNullElse(transformFunction, Function.identity());
+        if (transformFunction == null) {
+            return null;
+        }
+        Function<Object, Object> transformerFunction = (Function<Object, Object>) transformFunction;
         Function<Object, Object> getter = mapping.getter();
         BiConsumer<Object, Object> setter = mapping.setter();
         return new PatchApplier<>(getter, setter, transformerFunction);
     }
 
-    private PatchApplier<D, E> getDirectMappingApplier(MappingPair mapping) {
+    private PatchApplier<D, E> getDirectMappingApplier(MappingPair mapping, TransformerTable transformers) {
         Class<?> toClassField = mapping.toObjectValueType();
         Class<?> fromClassField = mapping.fromObjectValueType();
         if (toClassField.isAssignableFrom(fromClassField)) {
@@ -440,10 +663,16 @@ class PatcherEngine<D, E> {
             BiConsumer<Object, Object> setter = mapping.setter();
             return new PatchApplier<>(getter, setter, null);
         }
+        // widening of primitives, e.g. int to long, unless a transformer is registered for the pair
+        if (PrimitiveCopy.isSupported(fromClassField, toClassField)
+            && !transformers.isRegistered(fromClassField, toClassField)) {
+            return new PatchApplier<>(mapping.getter(), mapping.setter(),
+                    PrimitiveCopy.widening(fromClassField, toClassField));
+        }
         return null;
     }
 
-    private static Class<?> boxed(Class<?> type) {
+    static Class<?> boxed(Class<?> type) {
         return type.isPrimitive() ? PRIMITIVE_TO_BOXED.get(type) : type;
     }
 }
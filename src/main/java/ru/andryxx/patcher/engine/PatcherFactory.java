@@ -1,21 +1,38 @@
 package ru.andryxx.patcher.engine;
 
 import ru.andryxx.patcher.mapping.MappingStrategy;
+import ru.andryxx.patcher.mapping.access.AccessorFactory;
+import ru.andryxx.patcher.mapping.registry.DefaultMappingRegistry;
+import ru.andryxx.patcher.mapping.registry.DefaultNamingResolver;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Map;
 
 class PatcherFactory {
     private PatcherFactory() {
     }
 
     public static <D, E> Patcher<D, E> createDefault(Class<D> dClass, Class<E> eClass) {
-        return Patcher.defaultPatcher(dClass, eClass)
+        Patcher<D, E> patcher = Patcher.defaultPatcher(dClass, eClass)
                 .withMappingStrategy(MappingStrategy.USE_METHODS_AND_FIELDS)
+                .withAccessorFactory(AccessorFactory.compiled());
+        for (Transformer<?, ?> transformer : DefaultTransformers.all()) {
+            patcher.withTransformer(transformer);
+        }
+        return patcher.withGeneratedPatch(GeneratedPatches.find(dClass, eClass));
+    }
+
+    /**
+     * The map patcher applies the plan of the target type onto itself, see {@link MapPatcher}.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <E> MapPatcher<E> createForMap(Class<E> eClass) {
+        Patcher<Map<String, ?>, E> patcher = Patcher.defaultPatcher((Class) eClass, eClass)
+                .withMappingStrategy(MappingStrategy.USE_METHODS_AND_FIELDS)
+                .withAccessorFactory(AccessorFactory.compiled())
                 .withTransformer(Transformer.of(String.class, LocalDateTime.class, LocalDateTime::parse))
-                .withTransformer(Transformer.of(String.class, LocalDate.class, LocalDate::parse))
-                .withTransformer(Transformer.of(int.class, Integer.class, Integer::valueOf))
-                .withTransformer(Transformer.of(long.class, Long.class, Long::valueOf))
-                .withTransformer(Transformer.of(int.class, Long.class, Long::valueOf));
+                .withTransformer(Transformer.of(String.class, LocalDate.class, LocalDate::parse));
+        return new MapPatcher<>(eClass, patcher);
     }
 }
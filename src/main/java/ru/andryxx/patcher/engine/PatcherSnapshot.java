@@ -0,0 +1,467 @@
+package ru.andryxx.patcher.engine;
+
+import ru.andryxx.patcher.exceptions.MappingExecutionException;
+import ru.andryxx.patcher.exceptions.ValidationException;
+import ru.andryxx.patcher.logging.PatchLogger;
+import ru.andryxx.patcher.mapping.Construction;
+import ru.andryxx.patcher.mapping.PatchPresence;
+import ru.andryxx.patcher.mapping.TypeMetadata;
+import ru.andryxx.patcher.mapping.registry.MappingRegistry;
+import ru.andryxx.patcher.validation.PatchValidator;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable state needed to apply a patcher configuration: the compiled plan together with
+ * the logger, validator and post-mappings it was built with.
+ * All fields are final and never modified, so a snapshot can be shared by any number of threads
+ * once it is safely published. The only mutable state is a concurrent cache of presence indexes.
+ */
+final class PatcherSnapshot<D, E> {
+    private final Class<E> eClass;
+    private final PatchPlan<D, E> plan;
+    // compile-time generated patch, applied instead of the plan steps for full patches
+    private final GeneratedPatch<D, E> generatedPatch;
+    private final PatchLogger logger;
+    private final PatchValidator<E> validator;
+    private final BiConsumer<D, E>[] postMappings;
+    private final int parallelismThreshold;
+    // immutable targets are created from the gathered construction arguments, null for other targets
+    private final Construction construction;
+    // nested beans are patched recursively, so each call tracks the objects it has patched
+    private final boolean deep;
+    // source objects implement PatchPresence, so only steps of present fields are applied
+    private final boolean presenceTracked;
+    // transformers the plan was compiled with, also used to convert values of map sources
+    private final TransformerTable transformers;
+    // factories of new instances, resolved by the mapping registry
+    private final Function<Class<?>, Optional<Supplier<Object>>> creators;
+    // step indexes by tracked field bit, per runtime class of the source
+    private final Map<Class<?>, int[][]> presenceIndexes = new ConcurrentHashMap<>();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    PatcherSnapshot(Class<D> dClass,
+                    Class<E> eClass,
+                    PatchPlan<D, E> plan,
+                    GeneratedPatch<D, E> generatedPatch,
+                    PatchLogger logger,
+                    PatchValidator<E> validator,
+                    List<BiConsumer<D, E>> postMappings,
+                    int parallelismThreshold,
+                    boolean deep,
+                    TransformerTable transformers,
+                    Function<Class<?>, Optional<Supplier<Object>>> creators) {
+        this.eClass = eClass;
+        this.plan = plan;
+        this.generatedPatch = generatedPatch;
+        this.logger = logger;
+        this.validator = validator;
+        this.postMappings = postMappings.toArray(new BiConsumer[0]);
+        this.parallelismThreshold = parallelismThreshold;
+        this.deep = deep;
+        this.transformers = transformers;
+        this.creators = creators;
+        this.construction = TypeMetadata.of(eClass).construction().orElse(null);
+        this.presenceTracked = PatchPresence.class.isAssignableFrom(dClass);
+    }
+
+    PatchPlan<D, E> plan() {
+        return plan;
+    }
+
+    TransformerTable transformers() {
+        return transformers;
+    }
+
+    PatchLogger logger() {
+        return logger;
+    }
+
+    /**
+     * Applies steps executed by the caller, such as the steps of a {@link MapPatcher},
+     * with the checks, logging, post-mappings and validation of this configuration.
+     */
+    void patchWith(D dObject, E eObject, BiConsumer<D, E> steps) throws ValidationException, MappingExecutionException {
+        before(dObject, eObject);
+        steps.accept(dObject, eObject);
+        after(dObject, eObject);
+    }
+
+    void patch(D dObject, E eObject) throws ValidationException, MappingExecutionException {
+        if (!deep) {
+            patchObject(dObject, eObject);
+            return;
+        }
+        DeepPatch.enter(dObject, eObject);
+        try {
+            patchObject(dObject, eObject);
+        } finally {
+            DeepPatch.exit();
+        }
+    }
+
+    private void patchObject(D dObject, E eObject) {
+        before(dObject, eObject);
+        if (presenceTracked) {
+            processPresentSteps(dObject, eObject);
+        } else if (generatedPatch != null) {
+            generatedPatch.patch(dObject, eObject, logger);
+        } else if (plan.compiled() != null) {
+            plan.compiled().patch(dObject, eObject, logger);
+        } else {
+            processPatchSteps(dObject, eObject, plan.steps(), null);
+        }
+        after(dObject, eObject);
+    }
+
+    /**
+     * Applies the plan steps one by one, recording the previous and the new value of each changed field.
+     * Generated patches are not used, since they do not expose per-step values.
+     */
+    PatchResult patchWithResult(D dObject, E eObject) throws ValidationException, MappingExecutionException {
+        if (!deep) {
+            return patchObjectWithResult(dObject, eObject);
+        }
+        DeepPatch.enter(dObject, eObject);
+        try {
+            return patchObjectWithResult(dObject, eObject);
+        } finally {
+            DeepPatch.exit();
+        }
+    }
+
+    private PatchResult patchObjectWithResult(D dObject, E eObject) {
+        before(dObject, eObject);
+        PatcherEngine.PatchStep<D, E>[] steps = plan.steps();
+        BitSet present = presenceTracked ? presentSteps(dObject) : null;
+        BitSet changed = new BitSet(steps.length);
+        Object[] oldValues = new Object[steps.length];
+        Object[] newValues = new Object[steps.length];
+        for (int i = 0; i < steps.length; i++) {
+            PatcherEngine.PatchStep<D, E> patchStep = steps[i];
+            if (present != null && !present.get(i)) {
+                continue;
+            }
+            try {
+                Object value = patchStep.applier().read(dObject);
+                if (value == null && patchStep.ignoreNull()) {
+                    continue;
+                }
+                if (!patchStep.test(dObject, eObject)) {
+                    continue;
+                }
+                Object oldVal = patchStep.target() != null ? patchStep.target().getter().apply(eObject) : null;
+                Object newVal = patchStep.applier().write(eObject, value);
+                boolean isChanged;
+                if (patchStep.applier().isInPlace()) {
+                    // only a replaced nested object or collection is a change of the field itself
+                    newVal = patchStep.target() != null ? patchStep.target().getter().apply(eObject) : null;
+                    isChanged = newVal != oldVal;
+                } else {
+                    isChanged = patchStep.target() == null || !Objects.equals(oldVal, newVal);
+                }
+                if (isChanged) {
+                    changed.set(i);
+                    oldValues[i] = oldVal;
+                    newValues[i] = newVal;
+                }
+                if (logger != null && patchStep.logChange()) {
+                    logger.log(patchStep.mapping().fromFieldName(), patchStep.mapping().toFieldName(), newVal);
+                }
+            } catch (Exception e) {
+                throw new MappingExecutionException("Exception during mapping "
+                                                    + patchStep.mapping().fromFieldName()
+                                                    + " to " + patchStep.mapping().toFieldName(), e);
+            }
+        }
+        after(dObject, eObject);
+        return new PatchResult(plan.toFieldNames(), changed, oldValues, newValues);
+    }
+
+    void patchSelective(Collection<String> eFields, D dObject, E eObject)
+            throws ValidationException, MappingExecutionException {
+        if (!deep) {
+            patchObjectSelective(eFields, dObject, eObject);
+            return;
+        }
+        DeepPatch.enter(dObject, eObject);
+        try {
+            patchObjectSelective(eFields, dObject, eObject);
+        } finally {
+            DeepPatch.exit();
+        }
+    }
+
+    private void patchObjectSelective(Collection<String> eFields, D dObject, E eObject) {
+        before(dObject, eObject);
+        processPatchSteps(dObject, eObject, plan.selectableSteps(), eFields);
+        after(dObject, eObject);
+    }
+
+    E mapWithDefaultCtor(D dObject) {
+        if (construction != null) {
+            return construct(dObject, null);
+        }
+        E instance = eClass.cast(newInstance(eClass));
+        patch(dObject, instance);
+        return instance;
+    }
+
+    /**
+     * Creates an instance with the factory resolved by the mapping registry of this configuration,
+     * see {@link MappingRegistry#resolveCreator(Class)}.
+     */
+    Object newInstance(Class<?> type) {
+        Supplier<Object> creator = creators.apply(type)
+                .orElseThrow(() -> new MappingExecutionException("Unable to initialize instance " + type.getName()));
+        try {
+            return creator.get();
+        } catch (Exception e) {
+            throw new MappingExecutionException("Unable to initialize instance " + type.getName(), e);
+        }
+    }
+
+    E patchCopy(D dObject, E eObject) {
+        if (construction == null) {
+            throw new MappingExecutionException(eClass.getName() + " is mutable, use patch to modify it");
+        }
+        return construct(dObject, Objects.requireNonNull(eObject));
+    }
+
+    /**
+     * Applies the plan steps to the construction arguments of an immutable target and creates it with
+     * a single constructor or builder call. Conditions are tested with the original target, or with null
+     * when mapping, since the target does not exist yet.
+     *
+     * @param original instance whose components are used for unpatched fields, or null to use default values
+     */
+    private E construct(D dObject, E original) {
+        Object[] arguments = original != null ? construction.arguments(original) : construction.arguments();
+        PatcherEngine.PatchStep<D, E>[] steps = plan.steps();
+        if (presenceTracked) {
+            BitSet present = presentSteps(dObject);
+            for (int i = present.nextSetBit(0); i >= 0; i = present.nextSetBit(i + 1)) {
+                applyStep(dObject, original, arguments, steps[i]);
+            }
+        } else {
+            for (PatcherEngine.PatchStep<D, E> step : steps) {
+                applyStep(dObject, original, arguments, step);
+            }
+        }
+        E instance = eClass.cast(construction.construct(arguments));
+        if (logger != null) {
+            logger.logObjInfo(dObject, instance);
+        }
+        after(dObject, instance);
+        return instance;
+    }
+
+    E map(D dObject, Supplier<? extends E> supplier) {
+        E instance = supplier.get();
+        patch(dObject, instance);
+        return instance;
+    }
+
+    /**
+     * Patches {@code eObjects[i]} from {@code dObjects[i]} for each index; arrays must have the same length.
+     */
+    @SuppressWarnings("unchecked")
+    void patchAll(Object[] dObjects, Object[] eObjects) {
+        BatchTask.run(dObjects.length, parallelismThreshold, i -> patch((D) dObjects[i], (E) eObjects[i]));
+    }
+
+    /**
+     * Maps each element of {@code dObjects} to the element of {@code eObjects} with the same index.
+     *
+     * @param supplier creates target instances, or null to use the default constructor
+     */
+    @SuppressWarnings("unchecked")
+    void mapAll(Object[] dObjects, Object[] eObjects, Supplier<? extends E> supplier) {
+        BatchTask.run(dObjects.length, parallelismThreshold, supplier == null
+                ? i -> eObjects[i] = mapWithDefaultCtor((D) dObjects[i])
+                : i -> eObjects[i] = map((D) dObjects[i], supplier));
+    }
+
+    /**
+     * Reads and transforms the value of every step without writing it.
+     * Conditions and post-mappings are not applied, since there is no target object.
+     * Null values are not passed to transformers.
+     *
+     * @return values by step index, null for steps of absent {@link PatchPresence} fields
+     */
+    Object[] toRow(D dObject) {
+        PatcherEngine.PatchStep<D, E>[] steps = plan.steps();
+        Object[] row = new Object[steps.length];
+        if (presenceTracked) {
+            BitSet present = presentSteps(dObject);
+            for (int i = present.nextSetBit(0); i >= 0; i = present.nextSetBit(i + 1)) {
+                row[i] = project(dObject, steps[i]);
+            }
+        } else {
+            for (int i = 0; i < steps.length; i++) {
+                row[i] = project(dObject, steps[i]);
+            }
+        }
+        return row;
+    }
+
+    /**
+     * @return map of the projected values keyed by target field names in plan order;
+     * null values of null-ignoring steps and absent {@link PatchPresence} fields are omitted
+     */
+    Map<String, Object> toMap(D dObject) {
+        PatcherEngine.PatchStep<D, E>[] steps = plan.steps();
+        String[] keys = plan.toFieldNames();
+        BitSet present = presenceTracked ? presentSteps(dObject) : null;
+        Object[] row = toRow(dObject);
+        Map<String, Object> map = LinkedHashMap.newLinkedHashMap(row.length);
+        for (int i = 0; i < row.length; i++) {
+            if (present != null && !present.get(i) || row[i] == null && steps[i].ignoreNull()) {
+                continue;
+            }
+            map.put(keys[i], row[i]);
+        }
+        return map;
+    }
+
+    @SuppressWarnings("unchecked")
+    void toRows(Object[] dObjects, Object[][] rows) {
+        BatchTask.run(dObjects.length, parallelismThreshold, i -> rows[i] = toRow((D) dObjects[i]));
+    }
+
+    List<String> columns() {
+        return List.of(plan.toFieldNames());
+    }
+
+    private Object project(D dObject, PatcherEngine.PatchStep<D, E> patchStep) {
+        try {
+            Object value = patchStep.applier().read(dObject);
+            return value == null ? null : patchStep.applier().function().apply(value);
+        } catch (Exception e) {
+            throw new MappingExecutionException("Exception during mapping "
+                                                + patchStep.mapping().fromFieldName()
+                                                + " to " + patchStep.mapping().toFieldName(), e);
+        }
+    }
+
+    private void before(D dObject, E eObject) {
+        if (construction != null) {
+            throw new MappingExecutionException(eClass.getName() + " is immutable, use map or patchCopy to create it");
+        }
+        if (logger != null) {
+            logger.logObjInfo(dObject, eObject);
+        }
+    }
+
+    private void after(D dObject, E eObject) {
+        processPostMappings(dObject, eObject);
+        if (validator != null) {
+            validator.validate(eObject);
+        }
+    }
+
+    /**
+     * Applies compiled steps. Null checks and conditions are evaluated inline for each step.
+     *
+     * @param onlyToFields if not null, steps whose target field is not in this collection are skipped
+     */
+    private void processPatchSteps(D dObject, E eObject, PatcherEngine.PatchStep<D, E>[] patchSteps,
+                                   Collection<String> onlyToFields) {
+        for (PatcherEngine.PatchStep<D, E> patchStep : patchSteps) {
+            if (onlyToFields != null && !onlyToFields.contains(patchStep.mapping().toFieldName())) {
+                continue;
+            }
+            applyStep(dObject, eObject, eObject, patchStep);
+        }
+    }
+
+    /**
+     * Applies only the steps of the fields present in a {@link PatchPresence} source, in plan order.
+     */
+    private void processPresentSteps(D dObject, E eObject) {
+        PatcherEngine.PatchStep<D, E>[] steps = plan.steps();
+        BitSet present = presentSteps(dObject);
+        for (int i = present.nextSetBit(0); i >= 0; i = present.nextSetBit(i + 1)) {
+            applyStep(dObject, eObject, eObject, steps[i]);
+        }
+    }
+
+    private BitSet presentSteps(D dObject) {
+        PatchPresence presence = (PatchPresence) dObject;
+        int[][] index = presenceIndexes.computeIfAbsent(dObject.getClass(),
+                _ -> presenceIndex(presence.trackedFields()));
+        BitSet fields = presence.presentFields();
+        BitSet steps = new BitSet(plan.steps().length);
+        for (int field = fields.nextSetBit(0); field >= 0 && field < index.length;
+             field = fields.nextSetBit(field + 1)) {
+            for (int step : index[field]) {
+                steps.set(step);
+            }
+        }
+        return steps;
+    }
+
+    private int[][] presenceIndex(List<String> trackedFields) {
+        PatcherEngine.PatchStep<D, E>[] steps = plan.steps();
+        int[][] index = new int[trackedFields.size()][];
+        for (int field = 0; field < index.length; field++) {
+            String name = trackedFields.get(field);
+            index[field] = IntStream.range(0, steps.length)
+                    .filter(step -> steps[step].mapping().fromFieldName().equals(name))
+                    .toArray();
+        }
+        return index;
+    }
+
+    /**
+     * @param eObject target passed to conditions
+     * @param target  object written by the step: the target itself, or construction arguments
+     */
+    @SuppressWarnings("unchecked")
+    private void applyStep(D dObject, E eObject, Object target, PatcherEngine.PatchStep<D, E> patchStep) {
+        try {
+            if (patchStep.primitiveCopy() != null) {
+                if (patchStep.test(dObject, eObject)) {
+                    patchStep.primitiveCopy().copy(dObject, target);
+                }
+                return;
+            }
+            Object value = patchStep.applier().read(dObject);
+            if (value == null && patchStep.ignoreNull()) {
+                return;
+            }
+            if (!patchStep.test(dObject, eObject)) {
+                return;
+            }
+            Object newVal = patchStep.applier().write((E) target, value);
+            if (logger != null && patchStep.logChange()) {
+                logger.log(patchStep.mapping().fromFieldName(), patchStep.mapping().toFieldName(), newVal);
+            }
+        } catch (Exception e) {
+            throw new MappingExecutionException("Exception during mapping "
+                                                + patchStep.mapping().fromFieldName()
+                                                + " to " + patchStep.mapping().toFieldName(), e);
+        }
+    }
+
+    private void processPostMappings(D dObject, E eObject) {
+        try {
+            for (BiConsumer<D, E> consumer : postMappings) {
+                consumer.accept(dObject, eObject);
+            }
+        } catch (Exception e) {
+            throw new MappingExecutionException("Exception while processing postmapping", e);
+        }
+    }
+}
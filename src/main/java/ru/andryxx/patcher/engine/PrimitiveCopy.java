@@ -0,0 +1,79 @@
+package ru.andryxx.patcher.engine;
+
+import ru.andryxx.patcher.mapping.MappingPair;
+import ru.andryxx.patcher.mapping.access.PropertyGetter;
+import ru.andryxx.patcher.mapping.access.PropertySetter;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Copies an {@code int}, {@code long}, {@code double} or {@code boolean} value between
+ * primitive getter and setter without boxing, widening {@code int} and {@code long} values if needed.
+ * Selected while building the plan, so no type checks are made per call.
+ */
+@FunctionalInterface
+interface PrimitiveCopy {
+    void copy(Object fromObject, Object toObject);
+
+    /**
+     * @return unboxed copy for the mapping, or null if the mapping types are not supported
+     */
+    static PrimitiveCopy of(MappingPair mapping) {
+        Class<?> from = mapping.fromObjectValueType();
+        Class<?> to = mapping.toObjectValueType();
+        if (!isSupported(from, to)) {
+            return null;
+        }
+        PropertyGetter getter = propertyGetter(mapping.getter());
+        PropertySetter setter = propertySetter(mapping.setter());
+        if (from == int.class) {
+            if (to == int.class) return (d, e) -> setter.setInt(e, getter.getInt(d));
+            if (to == long.class) return (d, e) -> setter.setLong(e, getter.getInt(d));
+            return (d, e) -> setter.setDouble(e, getter.getInt(d));
+        }
+        if (from == long.class) {
+            if (to == long.class) return (d, e) -> setter.setLong(e, getter.getLong(d));
+            return (d, e) -> setter.setDouble(e, getter.getLong(d));
+        }
+        if (from == double.class) {
+            return (d, e) -> setter.setDouble(e, getter.getDouble(d));
+        }
+        return (d, e) -> setter.setBoolean(e, getter.getBoolean(d));
+    }
+
+    /**
+     * @return whether a value of primitive type {@code from} can be copied to {@code to},
+     * directly or by widening
+     */
+    static boolean isSupported(Class<?> from, Class<?> to) {
+        if (from == int.class) {
+            return to == int.class || to == long.class || to == double.class;
+        }
+        if (from == long.class) {
+            return to == long.class || to == double.class;
+        }
+        return from == to && (from == double.class || from == boolean.class);
+    }
+
+    /**
+     * Boxed equivalent of the widening conversion, used where a value has to pass through as an object.
+     */
+    static Function<Object, Object> widening(Class<?> from, Class<?> to) {
+        if (from == to) {
+            return null;
+        }
+        if (to == long.class) {
+            return value -> ((Number) value).longValue();
+        }
+        return value -> ((Number) value).doubleValue();
+    }
+
+    static PropertyGetter propertyGetter(Function<Object, Object> getter) {
+        return getter instanceof PropertyGetter propertyGetter ? propertyGetter : getter::apply;
+    }
+
+    static PropertySetter propertySetter(BiConsumer<Object, Object> setter) {
+        return setter instanceof PropertySetter propertySetter ? propertySetter : setter::accept;
+    }
+}
@@ -0,0 +1,184 @@
+package ru.andryxx.patcher.engine;
+
+import ru.andryxx.patcher.exceptions.MappingExecutionException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Resolution table of transformers, built from a patcher configuration once its transformers are changed.
+ * The transformer for a field and a pair of source and target types is selected on first request and memoized,
+ * so plans compiled from the same transformers do not scan them again. Input and output types are boxed once.
+ * <p>
+ * Field transformers are tried in registration order and the first compatible one is selected.
+ * Global transformers are matched through subclasses, interfaces and boxing: an exact match wins, otherwise
+ * the most specific candidate is selected, the one whose input type is a subtype of the input types of all
+ * other candidates and whose output type is a subtype of their output types. A global transformer with
+ * a primitive input type, e.g. {@code int -> Long}, only accepts primitive source values, which are never null:
+ * a boxed source such as {@code Integer} may be null, which such a transformer cannot handle.
+ * <p>
+ * If no global transformer fits, the global transformers form a conversion graph: each one converts values
+ * of its input type and its subtypes to its output type. The shortest chain of conversions from the source type
+ * to a subtype of the target type is found with a breadth-first search and fused into a single function,
+ * which passes null through without calling the rest of the chain. Chains of the same length are ordered
+ * by the names of the input and output types, so the choice does not depend on the registration order.
+ */
+final class TransformerTable {
+    private record Key(String field, Class<?> from, Class<?> to) {
+    }
+
+    private record Hop(Class<?> from, Candidate via) {
+    }
+
+    private record Candidate(Class<?> input, Class<?> output, Function<?, ?> function, boolean primitiveInput) {
+        // a transformer without a function passes values as is
+        Candidate {
+            function = Objects.requireNonNullElse(function, Function.identity());
+        }
+
+        boolean accepts(Class<?> from, Class<?> to) {
+            return input.isAssignableFrom(from) && to.isAssignableFrom(output);
+        }
+
+        /**
+         * @param primitive whether values of the source type are primitives, which are never null
+         */
+        boolean acceptsSource(Class<?> from, boolean primitive) {
+            return input.isAssignableFrom(from) && (primitive || !primitiveInput);
+        }
+
+        boolean isMoreSpecificThan(Candidate other) {
+            return other.input.isAssignableFrom(input) && other.output.isAssignableFrom(output);
+        }
+    }
+
+    private final Map<Class<?>, Map<Class<?>, Function<?, ?>>> exact;
+    private final List<Candidate> global = new ArrayList<>();
+    private final Map<String, List<Candidate>> fields = new ConcurrentHashMap<>();
+    private final Map<Key, Optional<Function<?, ?>>> resolved = new ConcurrentHashMap<>();
+
+    TransformerTable(Map<Class<?>, Map<Class<?>, Function<?, ?>>> globalTransformers,
+                     Map<String, List<Transformer<?, ?>>> fieldTransformers) {
+        this.exact = globalTransformers;
+        globalTransformers.forEach((input, functions) -> functions.forEach((output, function) ->
+                global.add(new Candidate(PatcherEngine.boxed(input), PatcherEngine.boxed(output), function,
+                        input.isPrimitive()))));
+        global.sort(Comparator.comparing((Candidate candidate) -> candidate.input().getName())
+                .thenComparing(candidate -> candidate.output().getName()));
+        fieldTransformers.forEach((field, transformers) -> fields.put(field, transformers.stream()
+                .map(t -> new Candidate(PatcherEngine.boxed(t.inputType()), PatcherEngine.boxed(t.outputType()),
+                        t.function(), false))
+                .toList()));
+    }
+
+    /**
+     * @return the first transformer of the field compatible with the types, or null
+     */
+    Function<?, ?> field(String field, Class<?> from, Class<?> to) {
+        List<Candidate> candidates = fields.get(field);
+        if (candidates == null) {
+            return null;
+        }
+        return resolved.computeIfAbsent(new Key(field, from, to), key -> {
+            Class<?> boxedFrom = PatcherEngine.boxed(from);
+            Class<?> boxedTo = PatcherEngine.boxed(to);
+            return candidates.stream()
+                    .filter(candidate -> candidate.accepts(boxedFrom, boxedTo))
+                    .<Function<?, ?>>map(Candidate::function)
+                    .findFirst();
+        }).orElse(null);
+    }
+
+    /**
+     * @return whether a global transformer is registered for exactly these types or their boxed types,
+     * which takes precedence over implicit conversions
+     */
+    boolean isRegistered(Class<?> from, Class<?> to) {
+        return exact.getOrDefault(from, Map.of()).containsKey(to)
+               || exact.getOrDefault(PatcherEngine.boxed(from), Map.of()).containsKey(PatcherEngine.boxed(to));
+    }
+
+    /**
+     * @return the most specific global transformer compatible with the types, or else the shortest chain
+     * of global transformers, or null
+     * @throws MappingExecutionException if several compatible transformers are equally specific
+     */
+    Function<?, ?> global(Class<?> from, Class<?> to) {
+        Function<?, ?> function = exact.getOrDefault(from, Map.of()).get(to);
+        if (function != null) {
+            return function;
+        }
+        return resolved.computeIfAbsent(new Key(null, from, to), key -> resolveGlobal(from, to)).orElse(null);
+    }
+
+    private Optional<Function<?, ?>> resolveGlobal(Class<?> from, Class<?> to) {
+        Class<?> boxedFrom = PatcherEngine.boxed(from);
+        Class<?> boxedTo = PatcherEngine.boxed(to);
+        List<Candidate> candidates = global.stream()
+                .filter(candidate -> candidate.acceptsSource(boxedFrom, from.isPrimitive())
+                                     && boxedTo.isAssignableFrom(candidate.output()))
+                .toList();
+        for (Candidate candidate : candidates) {
+            if (candidates.stream().allMatch(other -> candidate.isMoreSpecificThan(other))) {
+                return Optional.of(candidate.function());
+            }
+        }
+        if (candidates.isEmpty()) {
+            return resolveChain(boxedFrom, boxedTo, from.isPrimitive());
+        }
+        throw new MappingExecutionException("Ambiguous transformers from " + from.getName() + " to " + to.getName()
+                                            + ": " + candidates.stream()
+                                                    .map(c -> c.input().getName() + " -> " + c.output().getName())
+                                                    .toList());
+    }
+
+    /**
+     * @param primitive whether values of the source type are primitives; values converted by a transformer are not
+     */
+    private Optional<Function<?, ?>> resolveChain(Class<?> from, Class<?> to, boolean primitive) {
+        // the conversion that reached each type first, so following them back gives a shortest chain
+        Map<Class<?>, Hop> reachedBy = new HashMap<>();
+        Deque<Class<?>> queue = new ArrayDeque<>();
+        queue.add(from);
+        reachedBy.put(from, null);
+        while (!queue.isEmpty()) {
+            Class<?> type = queue.poll();
+            for (Candidate candidate : global) {
+                if (!candidate.acceptsSource(type, primitive && type == from)
+                    || reachedBy.containsKey(candidate.output())) {
+                    continue;
+                }
+                reachedBy.put(candidate.output(), new Hop(type, candidate));
+                if (to.isAssignableFrom(candidate.output())) {
+                    return Optional.of(chain(reachedBy, candidate.output()));
+                }
+                queue.add(candidate.output());
+            }
+        }
+        return Optional.empty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> chain(Map<Class<?>, Hop> reachedBy, Class<?> target) {
+        List<Function<Object, Object>> functions = new ArrayList<>();
+        for (Hop hop = reachedBy.get(target); hop != null; hop = reachedBy.get(hop.from())) {
+            functions.addFirst((Function<Object, Object>) hop.via().function());
+        }
+        Function<Object, Object>[] steps = functions.toArray(Function[]::new);
+        return value -> {
+            for (int i = 0; i < steps.length && value != null; i++) {
+                value = steps[i].apply(value);
+            }
+            return value;
+        };
+    }
+}
@@ -0,0 +1,319 @@
+package ru.andryxx.patcher.mapping;
+
+import ru.andryxx.patcher.annotations.Creator;
+import ru.andryxx.patcher.exceptions.MappingExecutionException;
+import ru.andryxx.patcher.mapping.access.AccessorFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Construction of an immutable type from an array of arguments, one per component, with a single call:
+ * <ul>
+ *     <li>the canonical constructor of a record;</li>
+ *     <li>a constructor or static method annotated with {@link Creator} with parameters, named after
+ *     the parameters if the class is compiled with {@code -parameters}, or else after the instance fields
+ *     declared in the same order and of the same types;</li>
+ *     <li>a builder returned by a public static {@code builder()} method and finished by its {@code build()},
+ *     if the type has no other creator and no setters or public non-final fields, so mutable types such as
+ *     Lombok {@code @Data @Builder} classes are patched through their setters. Its methods named after
+ *     a property of the type, optionally prefixed with {@code set} or {@code with}, taking the property type,
+ *     are components. Only components that are set are passed to the builder, so defaults of the builder
+ *     are kept for the others.</li>
+ * </ul>
+ * Components of an existing instance are read through getters or fields, so a patched copy of the instance
+ * is built from its current values and the patched ones.
+ */
+public final class Construction {
+    private static final MethodType BUILDER_SETTER = MethodType.methodType(Object.class, Object.class, Object.class);
+    private static final MethodType VOID_SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodHandle SAME_BUILDER =
+            MethodHandles.dropArguments(MethodHandles.identity(Object.class), 1, Object.class);
+    // argument of a component that is not set, only used by builders
+    private static final Object UNSET = new Object();
+
+    private final Class<?> type;
+    private final String[] names;
+    private final Class<?>[] types;
+    private final Function<Object[], Object> constructor;
+    // components may be left unset, since builder methods are called only for set components
+    private final boolean partial;
+    // readers of the components of an existing instance, resolved on first copy
+    private volatile Function<Object, Object>[] readers;
+
+    private Construction(Class<?> type, String[] names, Class<?>[] types, Function<Object[], Object> constructor,
+                         boolean partial) {
+        this.type = type;
+        this.names = names;
+        this.types = types;
+        this.constructor = constructor;
+        this.partial = partial;
+    }
+
+    public Class<?> type() {
+        return type;
+    }
+
+    /**
+     * @return names of the components in argument order; must not be modified
+     */
+    public String[] names() {
+        return names;
+    }
+
+    /**
+     * @return index of the component with the given name, or -1
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public Class<?> componentType(int index) {
+        return types[index];
+    }
+
+    /**
+     * @return new arguments filled with default values of the components, or marked as not set for builders
+     */
+    public Object[] arguments() {
+        Object[] arguments = new Object[types.length];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = partial ? UNSET : defaultValue(types[i]);
+        }
+        return arguments;
+    }
+
+    /**
+     * @return the argument of the component, or its default value if it is not set
+     */
+    public Object argument(Object[] arguments, int index) {
+        Object argument = arguments[index];
+        return argument == UNSET ? defaultValue(types[index]) : argument;
+    }
+
+    /**
+     * @return new arguments filled with the current values of the components of the instance
+     * @throws MappingExecutionException if a component has neither a getter nor a field
+     */
+    public Object[] arguments(Object instance) {
+        Function<Object, Object>[] readers = readers();
+        Object[] arguments = new Object[readers.length];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = readers[i].apply(instance);
+        }
+        return arguments;
+    }
+
+    /**
+     * Creates an instance from the arguments.
+     *
+     * @throws MappingExecutionException if the instance cannot be created
+     */
+    public Object construct(Object[] arguments) {
+        return constructor.apply(arguments);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Function<Object, Object>[] readers() {
+        Function<Object, Object>[] readers = this.readers;
+        if (readers == null) {
+            TypeMetadata metadata = TypeMetadata.of(type);
+            AccessorFactory factory = AccessorFactory.compiled();
+            readers = new Function[names.length];
+            for (int i = 0; i < names.length; i++) {
+                Method getter = metadata.properties().getter(capitalize(names[i]));
+                Field field = metadata.properties().declaredField(names[i]);
+                if (getter != null) {
+                    readers[i] = metadata.getter(factory, getter);
+                } else if (field != null) {
+                    readers[i] = metadata.getter(factory, field);
+                } else {
+                    throw new MappingExecutionException("Cannot read component '" + names[i] + "' of "
+                                                        + type.getName() + ": no getter or field");
+                }
+            }
+            this.readers = readers;
+        }
+        return readers;
+    }
+
+    /**
+     * @param creator    the {@link Creator} of the type, or null
+     * @param newable    whether the type has a constructor without parameters
+     * @return construction of the type, or empty if it is created without arguments or cannot be created
+     */
+    static Optional<Construction> resolve(Class<?> type, Executable creator, boolean newable) {
+        if (type.isRecord()) {
+            RecordComponent[] components = type.getRecordComponents();
+            Class<?>[] types = Arrays.stream(components).map(RecordComponent::getType).toArray(Class<?>[]::new);
+            try {
+                return Optional.of(ofExecutable(type, type.getDeclaredConstructor(types),
+                        Arrays.stream(components).map(RecordComponent::getName).toArray(String[]::new)));
+            } catch (NoSuchMethodException e) {
+                throw new MappingExecutionException("Unable to access canonical constructor of " + type.getName(), e);
+            }
+        }
+        if (creator != null && creator.getParameterCount() > 0) {
+            return Optional.of(ofExecutable(type, creator, parameterNames(type, creator)));
+        }
+        if (creator == null && !newable && !hasWritableProperties(type)) {
+            return ofBuilder(type);
+        }
+        return Optional.empty();
+    }
+
+    private static boolean hasWritableProperties(Class<?> type) {
+        TypeMetadata metadata = TypeMetadata.of(type);
+        return !metadata.setters().isEmpty()
+               || Arrays.stream(metadata.fields()).anyMatch(field -> !Modifier.isStatic(field.getModifiers())
+                                                                     && !Modifier.isFinal(field.getModifiers()));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+    }
+
+    private static Construction ofExecutable(Class<?> type, Executable executable, String[] names) {
+        MethodHandle handle;
+        try {
+            executable.trySetAccessible();
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            handle = executable instanceof Constructor<?> constructor
+                    ? lookup.unreflectConstructor(constructor)
+                    : lookup.unreflect((Method) executable);
+            handle = handle.asSpreader(Object[].class, names.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException e) {
+            throw new MappingExecutionException("Unable to access " + executable + " of " + type.getName(), e);
+        }
+        MethodHandle spreader = handle;
+        return new Construction(type, names, executable.getParameterTypes(), arguments -> {
+            try {
+                return spreader.invokeExact(arguments);
+            } catch (Throwable e) {
+                throw new MappingExecutionException("Unable to initialize instance " + type.getName(), e);
+            }
+        }, false);
+    }
+
+    private static Optional<Construction> ofBuilder(Class<?> type) {
+        Method builder;
+        Method build;
+        try {
+            builder = type.getMethod("builder");
+            build = builder.getReturnType().getMethod("build");
+        } catch (NoSuchMethodException e) {
+            return Optional.empty();
+        }
+        if (!Modifier.isStatic(builder.getModifiers()) || !type.isAssignableFrom(build.getReturnType())) {
+            return Optional.empty();
+        }
+        Class<?> builderType = builder.getReturnType();
+        PropertyIndex properties = TypeMetadata.of(type).properties();
+        Map<String, Method> components = new TreeMap<>();
+        for (Method method : builderType.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 1) {
+                continue;
+            }
+            String name = componentName(method.getName());
+            Method getter = properties.getter(capitalize(name));
+            Field field = properties.declaredField(name);
+            Class<?> propertyType = getter != null ? getter.getReturnType() : field != null ? field.getType() : null;
+            if (method.getParameterTypes()[0] == propertyType) {
+                components.putIfAbsent(name, method);
+            }
+        }
+        if (components.isEmpty()) {
+            return Optional.empty();
+        }
+        MethodHandle factory;
+        MethodHandle finisher;
+        MethodHandle[] setters = new MethodHandle[components.size()];
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            factory = lookup.unreflect(builder).asType(MethodType.methodType(Object.class));
+            finisher = lookup.unreflect(build).asType(MethodType.methodType(Object.class, Object.class));
+            int i = 0;
+            for (Method method : components.values()) {
+                MethodHandle setter = lookup.unreflect(method);
+                // the returned builder is used further, so builders returning copies are supported as well
+                setters[i++] = method.getReturnType() == void.class
+                        ? MethodHandles.foldArguments(SAME_BUILDER, setter.asType(VOID_SETTER))
+                        : setter.asType(BUILDER_SETTER);
+            }
+        } catch (IllegalAccessException e) {
+            throw new MappingExecutionException("Unable to access builder of " + type.getName(), e);
+        }
+        return Optional.of(new Construction(type,
+                components.keySet().toArray(String[]::new),
+                components.values().stream().map(method -> method.getParameterTypes()[0]).toArray(Class<?>[]::new),
+                arguments -> {
+                    try {
+                        Object instance = (Object) factory.invokeExact();
+                        for (int i = 0; i < setters.length; i++) {
+                            if (arguments[i] != UNSET) {
+                                instance = (Object) setters[i].invokeExact(instance, arguments[i]);
+                            }
+                        }
+                        return (Object) finisher.invokeExact(instance);
+                    } catch (Throwable e) {
+                        throw new MappingExecutionException("Unable to initialize instance " + type.getName(), e);
+                    }
+                }, true));
+    }
+
+    private static String[] parameterNames(Class<?> type, Executable creator) {
+        Parameter[] parameters = creator.getParameters();
+        if (Arrays.stream(parameters).allMatch(Parameter::isNamePresent)) {
+            return Arrays.stream(parameters).map(Parameter::getName).toArray(String[]::new);
+        }
+        List<Field> fields = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                fields.add(field);
+            }
+        }
+        Class<?>[] parameterTypes = creator.getParameterTypes();
+        if (!Arrays.equals(parameterTypes, fields.stream().map(Field::getType).toArray(Class<?>[]::new))) {
+            throw new MappingExecutionException("Cannot name parameters of @Creator " + creator
+                                                + ": compile with -parameters or declare fields in parameter order");
+        }
+        return fields.stream().map(Field::getName).toArray(String[]::new);
+    }
+
+    private static String componentName(String methodName) {
+        for (String prefix : new String[]{"set", "with"}) {
+            if (methodName.length() > prefix.length() && methodName.startsWith(prefix)
+                && Character.isUpperCase(methodName.charAt(prefix.length()))) {
+                return Character.toLowerCase(methodName.charAt(prefix.length()))
+                       + methodName.substring(prefix.length() + 1);
+            }
+        }
+        return methodName;
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+}
@@ -0,0 +1,25 @@
+package ru.andryxx.patcher.mapping;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Source object that tracks which of its fields were explicitly set, e.g. present in an HTTP PATCH body.
+ * <p>
+ * Patchers apply only the mappings of present fields: an explicitly set {@code null} is written,
+ * while an absent field is left untouched, and the cost of a patch depends on the number of present fields
+ * rather than on the width of the class.
+ */
+public interface PatchPresence {
+    /**
+     * Must return the same names for all instances of a class, since patchers read them once per class.
+     *
+     * @return names of tracked source fields; bit {@code i} of {@link #presentFields()} refers to element {@code i}
+     */
+    List<String> trackedFields();
+
+    /**
+     * @return bits of the tracked fields that were set
+     */
+    BitSet presentFields();
+}
@@ -0,0 +1,107 @@
+package ru.andryxx.patcher.mapping;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Name-based index of getters, setters and fields of a class, built once from its {@link TypeMetadata}.
+ * <p>
+ * Getters and setters are keyed by the part of the method name after the {@code get}/{@code is}/{@code set}
+ * prefix, accessors of record components by the capitalized component name, fields by their names. A missing key means there is no such member, so every lookup is a single
+ * hash probe and never throws.
+ */
+public final class PropertyIndex {
+    private final Map<String, Method> getters;
+    private final Map<String, Method> setters;
+    private final Map<String, Field> publicFields;
+    private final Map<String, Field> declaredFields;
+
+    PropertyIndex(Class<?> type, Method[] methods, Field[] fields, RecordComponent[] recordComponents) {
+        Map<String, Method> getters = new HashMap<>();
+        Map<String, Method> booleanGetters = new HashMap<>();
+        Map<String, Method> setters = new HashMap<>();
+        for (Method method : methods) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            String name = method.getName();
+            if (method.getParameterCount() == 0) {
+                if (name.startsWith("get")) {
+                    // the same choice as Class.getMethod for covariant overrides
+                    getters.merge(name.substring(3), method, PropertyIndex::mostSpecific);
+                } else if (name.startsWith("is") && method.getReturnType() == boolean.class) {
+                    booleanGetters.putIfAbsent(name.substring(2), method);
+                }
+            } else if (method.getParameterCount() == 1 && name.startsWith("set")) {
+                setters.putIfAbsent(name.substring(3), method);
+            }
+        }
+        // getX takes precedence over isX
+        booleanGetters.putAll(getters);
+        // and both take precedence over record component accessors
+        for (RecordComponent component : recordComponents) {
+            String name = component.getName();
+            booleanGetters.putIfAbsent(Character.toUpperCase(name.charAt(0)) + name.substring(1),
+                    component.getAccessor());
+        }
+
+        Map<String, Field> publicFields = new HashMap<>();
+        for (Field field : fields) {
+            // static fields are kept, since they hide instance fields of supertypes
+            publicFields.putIfAbsent(field.getName(), field);
+        }
+        Map<String, Field> declaredFields = new HashMap<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    declaredFields.putIfAbsent(field.getName(), field);
+                }
+            }
+        }
+
+        this.getters = Map.copyOf(booleanGetters);
+        this.setters = Map.copyOf(setters);
+        this.publicFields = Map.copyOf(publicFields);
+        this.declaredFields = Map.copyOf(declaredFields);
+    }
+
+    /**
+     * @param capitalizedName property name with the first letter capitalized
+     * @return public instance {@code get*} method without parameters, or boolean {@code is*} method
+     * if there is none, or the accessor of a record component; null if none exists
+     */
+    public Method getter(String capitalizedName) {
+        return getters.get(capitalizedName);
+    }
+
+    /**
+     * @param capitalizedName property name with the first letter capitalized
+     * @return first public instance {@code set*} method with a single parameter, or null
+     */
+    public Method setter(String capitalizedName) {
+        return setters.get(capitalizedName);
+    }
+
+    /**
+     * @return public instance field, as resolved by {@link Class#getField(String)}, or null
+     */
+    public Field publicField(String name) {
+        Field field = publicFields.get(name);
+        return field == null || Modifier.isStatic(field.getModifiers()) ? null : field;
+    }
+
+    /**
+     * @return instance field of any visibility declared in the type or its nearest superclass, or null
+     */
+    public Field declaredField(String name) {
+        return declaredFields.get(name);
+    }
+
+    private static Method mostSpecific(Method first, Method second) {
+        return first.getReturnType().isAssignableFrom(second.getReturnType()) ? second : first;
+    }
+}
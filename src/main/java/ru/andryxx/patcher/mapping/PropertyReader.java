@@ -0,0 +1,14 @@
+package ru.andryxx.patcher.mapping;
+
+import java.util.function.Function;
+
+/**
+ * Reads the current value of a property.
+ *
+ * @param getter    A function to retrieve the value from an object.
+ * @param valueType The type of the value returned by the getter.
+ */
+public record PropertyReader(
+        Function<Object, Object> getter,
+        Class<?> valueType
+) {}
@@ -0,0 +1,305 @@
+package ru.andryxx.patcher.mapping;
+
+import ru.andryxx.patcher.annotations.Creator;
+import ru.andryxx.patcher.annotations.Ignore;
+import ru.andryxx.patcher.annotations.IgnoreIfNull;
+import ru.andryxx.patcher.annotations.LogChange;
+import ru.andryxx.patcher.annotations.MapTo;
+import ru.andryxx.patcher.annotations.Transform;
+import ru.andryxx.patcher.exceptions.MappingExecutionException;
+import ru.andryxx.patcher.mapping.access.AccessorFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide cache of reflective data about a class: public members, annotation metadata
+ * and accessors created for its members.
+ * <p>
+ * Metadata is stored in a {@link ClassValue}, so it is computed once per class, shared by all patchers
+ * and registries, and does not prevent the class (and its class loader) from being unloaded.
+ */
+public final class TypeMetadata {
+    private static final ClassValue<TypeMetadata> CACHE = new ClassValue<>() {
+        @Override
+        protected TypeMetadata computeValue(Class<?> type) {
+            return new TypeMetadata(type);
+        }
+    };
+
+    /**
+     * Annotations declared on fields of a single class.
+     *
+     * @param ignored      fields annotated with {@link Ignore}
+     * @param ignoreIfNull fields annotated with {@link IgnoreIfNull}, or all declared fields if the class is
+     * @param logChange    fields annotated with {@link LogChange}, or all declared fields if the class is
+     * @param mapTo        target names from {@link MapTo}, keyed by field name
+     * @param transforms   transformer keys from {@link Transform}, keyed by field name
+     */
+    public record Annotations(
+            Set<String> ignored,
+            Set<String> ignoreIfNull,
+            Set<String> logChange,
+            Map<String, String> mapTo,
+            Map<String, List<String>> transforms
+    ) {
+    }
+
+    private record AccessorKey(AccessorFactory factory, Member member, boolean setter) {
+    }
+
+    private final Class<?> type;
+    private final Method[] methods;
+    private final Field[] fields;
+    private final List<Method> setters;
+    private final List<String> publicFieldNames;
+    private final Annotations annotations;
+    private final PropertyIndex properties;
+    private final RecordComponent[] recordComponents;
+    private final Map<AccessorKey, Object> accessors = new ConcurrentHashMap<>();
+    // resolved on first use, since most types are never instantiated by the patcher
+    private volatile Optional<Executable> creator;
+    private final Map<AccessorFactory, Optional<Supplier<Object>>> creators = new ConcurrentHashMap<>();
+    private volatile Optional<Construction> construction;
+
+    private TypeMetadata(Class<?> type) {
+        this.type = type;
+        this.methods = type.getMethods();
+        this.fields = type.getFields();
+        this.setters = Arrays.stream(methods).filter(TypeMetadata::isSetter).toList();
+        this.publicFieldNames = Arrays.stream(fields).map(Field::getName).toList();
+        this.annotations = scanAnnotations(type);
+        this.recordComponents = type.isRecord() ? type.getRecordComponents() : new RecordComponent[0];
+        this.properties = new PropertyIndex(type, methods, fields, recordComponents);
+    }
+
+    public static TypeMetadata of(Class<?> type) {
+        return CACHE.get(type);
+    }
+
+    public Class<?> type() {
+        return type;
+    }
+
+    /**
+     * @return public methods of the type, as returned by {@link Class#getMethods()}; must not be modified
+     */
+    public Method[] methods() {
+        return methods;
+    }
+
+    /**
+     * @return public fields of the type, as returned by {@link Class#getFields()}; must not be modified
+     */
+    public Field[] fields() {
+        return fields;
+    }
+
+    /**
+     * @return public instance methods named {@code set*} with a single parameter
+     */
+    public List<Method> setters() {
+        return setters;
+    }
+
+    public List<String> publicFieldNames() {
+        return publicFieldNames;
+    }
+
+    public Annotations annotations() {
+        return annotations;
+    }
+
+    public PropertyIndex properties() {
+        return properties;
+    }
+
+    /**
+     * @return components of a record type in declaration order, empty for other types; must not be modified
+     */
+    public RecordComponent[] recordComponents() {
+        return recordComponents;
+    }
+
+    /**
+     * Returns how an immutable instance of this type is created from its components, resolved on first use:
+     * records, types with a {@link Creator} with parameters and types created by a builder, see {@link Construction}.
+     *
+     * @return the construction, or empty if the type is created without arguments or cannot be created
+     * @throws MappingExecutionException if the {@link Creator} is invalid
+     */
+    public Optional<Construction> construction() {
+        Optional<Construction> construction = this.construction;
+        if (construction == null) {
+            Executable creator = annotatedCreator(type).orElse(null);
+            construction = Construction.resolve(type, creator, resolvedCreator().isPresent());
+            this.construction = construction;
+        }
+        return construction;
+    }
+
+    /**
+     * Returns a factory of new instances of this type, created by the given accessor factory on first use:
+     * the constructor or static method annotated with {@link Creator}, or else the accessible constructor
+     * without parameters. Inaccessible constructors, e.g. private ones of singletons, are only used when
+     * annotated with {@link Creator}. Exceptions of the creator are thrown as is.
+     *
+     * @return the factory, or empty if the type has no creator without parameters
+     * @throws MappingExecutionException if the {@link Creator} is invalid
+     */
+    public Optional<Supplier<Object>> creator(AccessorFactory factory) {
+        Optional<Supplier<Object>> creator = creators.get(factory);
+        if (creator == null) {
+            creator = resolvedCreator().map(factory::creator);
+            creators.putIfAbsent(factory, creator);
+        }
+        return creator;
+    }
+
+    private Optional<Executable> resolvedCreator() {
+        Optional<Executable> creator = this.creator;
+        if (creator == null) {
+            creator = resolveCreator(type);
+            this.creator = creator;
+        }
+        return creator;
+    }
+
+    /**
+     * Returns a getter for a member of this type created by the given factory, creating it on first use.
+     */
+    public Function<Object, Object> getter(AccessorFactory factory, Method method) {
+        return accessor(new AccessorKey(factory, method, false));
+    }
+
+    public Function<Object, Object> getter(AccessorFactory factory, Field field) {
+        return accessor(new AccessorKey(factory, field, false));
+    }
+
+    /**
+     * Returns a setter for a member of this type created by the given factory, creating it on first use.
+     */
+    public BiConsumer<Object, Object> setter(AccessorFactory factory, Method method) {
+        return accessor(new AccessorKey(factory, method, true));
+    }
+
+    public BiConsumer<Object, Object> setter(AccessorFactory factory, Field field) {
+        return accessor(new AccessorKey(factory, field, true));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T accessor(AccessorKey key) {
+        return (T) accessors.computeIfAbsent(key, TypeMetadata::createAccessor);
+    }
+
+    private static Object createAccessor(AccessorKey key) {
+        AccessorFactory factory = key.factory();
+        if (key.member() instanceof Method method) {
+            return key.setter() ? factory.setter(method) : factory.getter(method);
+        }
+        Field field = (Field) key.member();
+        return key.setter() ? factory.setter(field) : factory.getter(field);
+    }
+
+    private static Optional<Executable> resolveCreator(Class<?> type) {
+        Optional<Executable> creator = annotatedCreator(type);
+        if (creator.isPresent()) {
+            // a creator with parameters constructs the type from its components instead
+            return creator.filter(executable -> executable.getParameterCount() == 0);
+        }
+        if (type.isPrimitive() || type.isArray() || type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            return Optional.empty();
+        }
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            return constructor.canAccess(null) ? Optional.of(constructor) : Optional.empty();
+        } catch (NoSuchMethodException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<Executable> annotatedCreator(Class<?> type) {
+        if (type.isPrimitive() || type.isArray()) {
+            return Optional.empty();
+        }
+        List<Executable> creators = new ArrayList<>();
+        if (!type.isInterface() && !Modifier.isAbstract(type.getModifiers())) {
+            Arrays.stream(type.getDeclaredConstructors())
+                    .filter(constructor -> constructor.isAnnotationPresent(Creator.class))
+                    .forEach(creators::add);
+        }
+        Arrays.stream(type.getDeclaredMethods())
+                .filter(method -> method.isAnnotationPresent(Creator.class))
+                .forEach(creators::add);
+        if (creators.size() > 1) {
+            throw new MappingExecutionException("More than one @Creator in " + type.getName());
+        }
+        if (!creators.isEmpty() && creators.getFirst() instanceof Method method
+            && (!Modifier.isStatic(method.getModifiers()) || !type.isAssignableFrom(method.getReturnType()))) {
+            throw new MappingExecutionException("@Creator " + method + " must be a constructor or a static method"
+                                                + " returning " + type.getName());
+        }
+        return creators.stream().findFirst();
+    }
+
+    private static boolean isSetter(Method method) {
+        return method.getName().startsWith("set")
+               && method.getParameterCount() == 1
+               && Modifier.isPublic(method.getModifiers())
+               && !Modifier.isStatic(method.getModifiers());
+    }
+
+    private static Annotations scanAnnotations(Class<?> type) {
+        Set<String> ignored = new HashSet<>();
+        Set<String> ignoreIfNull = new HashSet<>();
+        Set<String> logChange = new HashSet<>();
+        Map<String, String> mapTo = new HashMap<>();
+        Map<String, List<String>> transforms = new HashMap<>();
+
+        boolean globalIgnoreNull = type.isAnnotationPresent(IgnoreIfNull.class);
+        boolean globalLogChange = type.isAnnotationPresent(LogChange.class);
+        for (Field field : type.getDeclaredFields()) {
+            if (field.isAnnotationPresent(Ignore.class)) {
+                ignored.add(field.getName());
+            }
+            if (globalIgnoreNull || field.isAnnotationPresent(IgnoreIfNull.class)) {
+                ignoreIfNull.add(field.getName());
+            }
+            if (globalLogChange || field.isAnnotationPresent(LogChange.class)) {
+                logChange.add(field.getName());
+            }
+            MapTo target = field.getAnnotation(MapTo.class);
+            if (target != null) {
+                mapTo.put(field.getName(), target.value());
+            }
+            Transform transform = field.getAnnotation(Transform.class);
+            if (transform != null) {
+                transforms.put(field.getName(), List.of(transform.value()));
+            }
+        }
+        return new Annotations(
+                Set.copyOf(ignored),
+                Set.copyOf(ignoreIfNull),
+                Set.copyOf(logChange),
+                Map.copyOf(mapTo),
+                Map.copyOf(transforms)
+        );
+    }
+}
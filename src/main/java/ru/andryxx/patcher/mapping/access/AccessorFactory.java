@@ -0,0 +1,78 @@
+package ru.andryxx.patcher.mapping.access;
+
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Turns resolved getters, setters and fields into functional accessors used by mapping pairs.
+ */
+public interface AccessorFactory {
+    /**
+     * Creates a function reading a value through the given getter method.
+     *
+     * @param method the getter method
+     * @return a function taking an instance and returning the getter result
+     */
+    Function<Object, Object> getter(Method method);
+
+    /**
+     * Creates a consumer writing a value through the given setter method.
+     *
+     * @param method the setter method
+     * @return a bi-consumer taking an instance and a new value
+     */
+    BiConsumer<Object, Object> setter(Method method);
+
+    /**
+     * Creates a function reading the value of the given field.
+     *
+     * @param field the field to read
+     * @return a function taking an instance and returning the field value
+     */
+    Function<Object, Object> getter(Field field);
+
+    /**
+     * Creates a consumer writing the value of the given field.
+     *
+     * @param field the field to write
+     * @return a bi-consumer taking an instance and a new value
+     */
+    BiConsumer<Object, Object> setter(Field field);
+
+    /**
+     * Creates a supplier of new instances calling the given constructor or static method without parameters.
+     *
+     * @param creator the constructor or static factory method
+     * @return a supplier returning a new instance on each call
+     */
+    default Supplier<Object> creator(Executable creator) {
+        return ReflectiveAccessorFactory.INSTANCE.creator(creator);
+    }
+
+    /**
+     * @return a factory invoking members through {@code Method.invoke} and {@code Field.get/set}
+     */
+    static AccessorFactory reflective() {
+        return ReflectiveAccessorFactory.INSTANCE;
+    }
+
+    /**
+     * @return a factory compiling members into direct lambdas via {@code LambdaMetafactory}
+     */
+    static AccessorFactory compiled() {
+        return LambdaAccessorFactory.INSTANCE;
+    }
+
+    /**
+     * @param mode memory ordering used for field reads and writes
+     * @return a factory accessing fields (including non-public ones) through {@code VarHandle}s
+     * and compiling methods via {@code LambdaMetafactory}
+     */
+    static AccessorFactory varHandles(FieldAccessMode mode) {
+        return new VarHandleAccessorFactory(mode);
+    }
+}
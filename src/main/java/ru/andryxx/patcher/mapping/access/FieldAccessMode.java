@@ -0,0 +1,32 @@
+package ru.andryxx.patcher.mapping.access;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * Memory ordering used by {@link java.lang.invoke.VarHandle}-based field accessors.
+ */
+public enum FieldAccessMode {
+    /**
+     * Plain reads and writes, same as ordinary field access.
+     */
+    PLAIN(VarHandle.AccessMode.GET, VarHandle.AccessMode.SET),
+
+    /**
+     * Opaque reads and writes: coherent per field, but without ordering guarantees for other fields.
+     */
+    OPAQUE(VarHandle.AccessMode.GET_OPAQUE, VarHandle.AccessMode.SET_OPAQUE),
+
+    /**
+     * Acquire reads and release writes: a write published with release is fully visible
+     * to a thread that observes it with acquire.
+     */
+    RELEASE_ACQUIRE(VarHandle.AccessMode.GET_ACQUIRE, VarHandle.AccessMode.SET_RELEASE);
+
+    final VarHandle.AccessMode read;
+    final VarHandle.AccessMode write;
+
+    FieldAccessMode(VarHandle.AccessMode read, VarHandle.AccessMode write) {
+        this.read = read;
+        this.write = write;
+    }
+}
@@ -0,0 +1,273 @@
+package ru.andryxx.patcher.mapping.access;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Accessor factory that spins getters and setters into direct {@link Function}/{@link BiConsumer}
+ * implementations via {@link LambdaMetafactory}, so each access is a plain interface call
+ * without varargs allocation or access checks.
+ * Fields are accessed through method handles.
+ * Members of type {@code int}, {@code long}, {@code double} and {@code boolean} are exposed as the
+ * {@code Of*} specializations of {@link PropertyGetter} and {@link PropertySetter}, so they can be copied without boxing.
+ * Members that cannot be reached by a private lookup (e.g. in non-open modules) fall back to reflection.
+ */
+public class LambdaAccessorFactory implements AccessorFactory {
+    static final LambdaAccessorFactory INSTANCE = new LambdaAccessorFactory();
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType GETTER_SAM = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_SAM = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final AccessorFactory fallback = ReflectiveAccessorFactory.INSTANCE;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Function<Object, Object> getter(Method method) {
+        Class<?> type = method.getReturnType();
+        try {
+            Class<?> owner = method.getDeclaringClass();
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, LOOKUP);
+            Class<?> samType = primitiveGetterType(type);
+            CallSite site = samType == null
+                    ? metafactory(lookup, Function.class, "apply", GETTER_SAM, method,
+                    MethodType.methodType(Primitives.boxed(type), owner))
+                    : metafactory(lookup, samType, getterName(type), MethodType.methodType(type, Object.class),
+                    method, MethodType.methodType(type, owner));
+            return (Function<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            return fallback.getter(method);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public BiConsumer<Object, Object> setter(Method method) {
+        Class<?> type = method.getParameterTypes()[0];
+        try {
+            Class<?> owner = method.getDeclaringClass();
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, LOOKUP);
+            Class<?> samType = primitiveSetterType(type);
+            CallSite site = samType == null
+                    ? metafactory(lookup, BiConsumer.class, "accept", SETTER_SAM, method,
+                    MethodType.methodType(void.class, owner, Primitives.boxed(type)))
+                    : metafactory(lookup, samType, setterName(type),
+                    MethodType.methodType(void.class, Object.class, type),
+                    method, MethodType.methodType(void.class, owner, type));
+            return (BiConsumer<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            return fallback.setter(method);
+        }
+    }
+
+    @Override
+    public Function<Object, Object> getter(Field field) {
+        try {
+            return fieldGetter(MethodHandles.privateLookupIn(field.getDeclaringClass(), LOOKUP).unreflectGetter(field),
+                    field);
+        } catch (IllegalAccessException e) {
+            return fallback.getter(field);
+        }
+    }
+
+    @Override
+    public BiConsumer<Object, Object> setter(Field field) {
+        try {
+            return fieldSetter(MethodHandles.privateLookupIn(field.getDeclaringClass(), LOOKUP).unreflectSetter(field),
+                    field);
+        } catch (IllegalAccessException e) {
+            return fallback.setter(field);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Supplier<Object> creator(Executable creator) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(creator.getDeclaringClass(), LOOKUP);
+            MethodHandle handle = creator instanceof Constructor<?> constructor
+                    ? lookup.unreflectConstructor(constructor)
+                    : lookup.unreflect((Method) creator);
+            CallSite site = LambdaMetafactory.metafactory(
+                    lookup,
+                    "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    handle,
+                    handle.type()
+            );
+            return (Supplier<Object>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            return fallback.creator(creator);
+        }
+    }
+
+    /**
+     * Wraps a getter handle of the field into an accessor calling it with exact types,
+     * unboxed for primitive fields.
+     */
+    static PropertyGetter fieldGetter(MethodHandle handle, Field field) {
+        Class<?> type = field.getType();
+        if (type == int.class) {
+            MethodHandle exact = handle.asType(MethodType.methodType(int.class, Object.class));
+            return (PropertyGetter.OfInt) instance -> {
+                try {
+                    return (int) exact.invokeExact(instance);
+                } catch (Throwable e) {
+                    throw rethrow(field, e);
+                }
+            };
+        }
+        if (type == long.class) {
+            MethodHandle exact = handle.asType(MethodType.methodType(long.class, Object.class));
+            return (PropertyGetter.OfLong) instance -> {
+                try {
+                    return (long) exact.invokeExact(instance);
+                } catch (Throwable e) {
+                    throw rethrow(field, e);
+                }
+            };
+        }
+        if (type == double.class) {
+            MethodHandle exact = handle.asType(MethodType.methodType(double.class, Object.class));
+            return (PropertyGetter.OfDouble) instance -> {
+                try {
+                    return (double) exact.invokeExact(instance);
+                } catch (Throwable e) {
+                    throw rethrow(field, e);
+                }
+            };
+        }
+        if (type == boolean.class) {
+            MethodHandle exact = handle.asType(MethodType.methodType(boolean.class, Object.class));
+            return (PropertyGetter.OfBoolean) instance -> {
+                try {
+                    return (boolean) exact.invokeExact(instance);
+                } catch (Throwable e) {
+                    throw rethrow(field, e);
+                }
+            };
+        }
+        MethodHandle boxed = handle.asType(GETTER_SAM);
+        return (PropertyGetter) instance -> {
+            try {
+                return boxed.invokeExact(instance);
+            } catch (Throwable e) {
+                throw rethrow(field, e);
+            }
+        };
+    }
+
+    /**
+     * Wraps a setter handle of the field into an accessor calling it with exact types,
+     * unboxed for primitive fields.
+     */
+    static PropertySetter fieldSetter(MethodHandle handle, Field field) {
+        Class<?> type = field.getType();
+        if (type == int.class) {
+            MethodHandle exact = handle.asType(MethodType.methodType(void.class, Object.class, int.class));
+            return (PropertySetter.OfInt) (instance, value) -> {
+                try {
+                    exact.invokeExact(instance, value);
+                } catch (Throwable e) {
+                    throw rethrow(field, e);
+                }
+            };
+        }
+        if (type == long.class) {
+            MethodHandle exact = handle.asType(MethodType.methodType(void.class, Object.class, long.class));
+            return (PropertySetter.OfLong) (instance, value) -> {
+                try {
+                    exact.invokeExact(instance, value);
+                } catch (Throwable e) {
+                    throw rethrow(field, e);
+                }
+            };
+        }
+        if (type == double.class) {
+            MethodHandle exact = handle.asType(MethodType.methodType(void.class, Object.class, double.class));
+            return (PropertySetter.OfDouble) (instance, value) -> {
+                try {
+                    exact.invokeExact(instance, value);
+                } catch (Throwable e) {
+                    throw rethrow(field, e);
+                }
+            };
+        }
+        if (type == boolean.class) {
+            MethodHandle exact = handle.asType(MethodType.methodType(void.class, Object.class, boolean.class));
+            return (PropertySetter.OfBoolean) (instance, value) -> {
+                try {
+                    exact.invokeExact(instance, value);
+                } catch (Throwable e) {
+                    throw rethrow(field, e);
+                }
+            };
+        }
+        MethodHandle boxed = handle.asType(SETTER_SAM);
+        return (PropertySetter) (instance, value) -> {
+            try {
+                boxed.invokeExact(instance, value);
+            } catch (Throwable e) {
+                throw rethrow(field, e);
+            }
+        };
+    }
+
+    private static CallSite metafactory(MethodHandles.Lookup lookup, Class<?> samType, String samName,
+                                        MethodType samMethodType, Method method, MethodType instantiatedType)
+            throws Exception {
+        return LambdaMetafactory.metafactory(
+                lookup,
+                samName,
+                MethodType.methodType(samType),
+                samMethodType,
+                lookup.unreflect(method),
+                instantiatedType
+        );
+    }
+
+    private static Class<?> primitiveGetterType(Class<?> type) {
+        if (type == int.class) return PropertyGetter.OfInt.class;
+        if (type == long.class) return PropertyGetter.OfLong.class;
+        if (type == double.class) return PropertyGetter.OfDouble.class;
+        if (type == boolean.class) return PropertyGetter.OfBoolean.class;
+        return null;
+    }
+
+    private static Class<?> primitiveSetterType(Class<?> type) {
+        if (type == int.class) return PropertySetter.OfInt.class;
+        if (type == long.class) return PropertySetter.OfLong.class;
+        if (type == double.class) return PropertySetter.OfDouble.class;
+        if (type == boolean.class) return PropertySetter.OfBoolean.class;
+        return null;
+    }
+
+    private static String getterName(Class<?> type) {
+        return "get" + Character.toUpperCase(type.getName().charAt(0)) + type.getName().substring(1);
+    }
+
+    private static String setterName(Class<?> type) {
+        return "set" + Character.toUpperCase(type.getName().charAt(0)) + type.getName().substring(1);
+    }
+
+    private static RuntimeException rethrow(Field field, Throwable e) {
+        if (e instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (e instanceof Error error) {
+            throw error;
+        }
+        return new RuntimeException("Failed to access field: " + field, e);
+    }
+}
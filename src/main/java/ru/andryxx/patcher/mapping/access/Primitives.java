@@ -0,0 +1,24 @@
+package ru.andryxx.patcher.mapping.access;
+
+import java.util.Map;
+
+final class Primitives {
+    private static final Map<Class<?>, Class<?>> PRIMITIVE_TO_BOXED = Map.ofEntries(
+            Map.entry(boolean.class, Boolean.class),
+            Map.entry(byte.class, Byte.class),
+            Map.entry(char.class, Character.class),
+            Map.entry(double.class, Double.class),
+            Map.entry(float.class, Float.class),
+            Map.entry(int.class, Integer.class),
+            Map.entry(long.class, Long.class),
+            Map.entry(short.class, Short.class),
+            Map.entry(void.class, Void.class)
+    );
+
+    private Primitives() {
+    }
+
+    static Class<?> boxed(Class<?> type) {
+        return type.isPrimitive() ? PRIMITIVE_TO_BOXED.get(type) : type;
+    }
+}
@@ -0,0 +1,71 @@
+package ru.andryxx.patcher.mapping.access;
+
+import java.util.function.Function;
+
+/**
+ * Getter that can additionally read primitive values without boxing.
+ * Default implementations unbox the result of {@link #apply(Object)}.
+ * Primitive-typed members are exposed through the {@code Of*} specializations,
+ * which implement the typed read directly and box only in {@link #apply(Object)}.
+ */
+public interface PropertyGetter extends Function<Object, Object> {
+    default int getInt(Object instance) {
+        return (Integer) apply(instance);
+    }
+
+    default long getLong(Object instance) {
+        return (Long) apply(instance);
+    }
+
+    default double getDouble(Object instance) {
+        return (Double) apply(instance);
+    }
+
+    default boolean getBoolean(Object instance) {
+        return (Boolean) apply(instance);
+    }
+
+    @FunctionalInterface
+    interface OfInt extends PropertyGetter {
+        @Override
+        int getInt(Object instance);
+
+        @Override
+        default Object apply(Object instance) {
+            return getInt(instance);
+        }
+    }
+
+    @FunctionalInterface
+    interface OfLong extends PropertyGetter {
+        @Override
+        long getLong(Object instance);
+
+        @Override
+        default Object apply(Object instance) {
+            return getLong(instance);
+        }
+    }
+
+    @FunctionalInterface
+    interface OfDouble extends PropertyGetter {
+        @Override
+        double getDouble(Object instance);
+
+        @Override
+        default Object apply(Object instance) {
+            return getDouble(instance);
+        }
+    }
+
+    @FunctionalInterface
+    interface OfBoolean extends PropertyGetter {
+        @Override
+        boolean getBoolean(Object instance);
+
+        @Override
+        default Object apply(Object instance) {
+            return getBoolean(instance);
+        }
+    }
+}
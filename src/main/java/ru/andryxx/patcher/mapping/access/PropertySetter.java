@@ -0,0 +1,71 @@
+package ru.andryxx.patcher.mapping.access;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Setter that can additionally write primitive values without boxing.
+ * Default implementations box the value and delegate to {@link #accept(Object, Object)}.
+ * Primitive-typed members are exposed through the {@code Of*} specializations,
+ * which implement the typed write directly and unbox only in {@link #accept(Object, Object)}.
+ */
+public interface PropertySetter extends BiConsumer<Object, Object> {
+    default void setInt(Object instance, int value) {
+        accept(instance, value);
+    }
+
+    default void setLong(Object instance, long value) {
+        accept(instance, value);
+    }
+
+    default void setDouble(Object instance, double value) {
+        accept(instance, value);
+    }
+
+    default void setBoolean(Object instance, boolean value) {
+        accept(instance, value);
+    }
+
+    @FunctionalInterface
+    interface OfInt extends PropertySetter {
+        @Override
+        void setInt(Object instance, int value);
+
+        @Override
+        default void accept(Object instance, Object value) {
+            setInt(instance, (Integer) value);
+        }
+    }
+
+    @FunctionalInterface
+    interface OfLong extends PropertySetter {
+        @Override
+        void setLong(Object instance, long value);
+
+        @Override
+        default void accept(Object instance, Object value) {
+            setLong(instance, (Long) value);
+        }
+    }
+
+    @FunctionalInterface
+    interface OfDouble extends PropertySetter {
+        @Override
+        void setDouble(Object instance, double value);
+
+        @Override
+        default void accept(Object instance, Object value) {
+            setDouble(instance, (Double) value);
+        }
+    }
+
+    @FunctionalInterface
+    interface OfBoolean extends PropertySetter {
+        @Override
+        void setBoolean(Object instance, boolean value);
+
+        @Override
+        default void accept(Object instance, Object value) {
+            setBoolean(instance, (Boolean) value);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ru.andryxx.patcher.mapping.access;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Accessor factory backed by core reflection.
+ */
+public class ReflectiveAccessorFactory implements AccessorFactory {
+    static final ReflectiveAccessorFactory INSTANCE = new ReflectiveAccessorFactory();
+
+    @Override
+    public Function<Object, Object> getter(Method method) {
+        return instance -> {
+            try {
+                return method.invoke(instance);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new RuntimeException("Failed to invoke getter: " + method, e);
+            }
+        };
+    }
+
+    @Override
+    public BiConsumer<Object, Object> setter(Method method) {
+        return (instance, value) -> {
+            try {
+                method.invoke(instance, value);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new RuntimeException("Failed to invoke setter: " + method, e);
+            }
+        };
+    }
+
+    @Override
+    public Function<Object, Object> getter(Field field) {
+        makeAccessible(field);
+        return instance -> {
+            try {
+                return field.get(instance);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("Failed to access field: " + field, e);
+            }
+        };
+    }
+
+    @Override
+    public BiConsumer<Object, Object> setter(Field field) {
+        makeAccessible(field);
+        return (instance, value) -> {
+            try {
+                field.set(instance, value);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("Failed to access field: " + field, e);
+            }
+        };
+    }
+
+    @Override
+    public Supplier<Object> creator(Executable creator) {
+        creator.trySetAccessible();
+        if (creator instanceof Constructor<?> constructor) {
+            return () -> {
+                try {
+                    return constructor.newInstance();
+                } catch (InvocationTargetException e) {
+                    throw rethrow(e.getCause());
+                } catch (InstantiationException | IllegalAccessException e) {
+                    throw new RuntimeException("Failed to invoke creator: " + constructor, e);
+                }
+            };
+        }
+        Method method = (Method) creator;
+        return () -> {
+            try {
+                return method.invoke(null);
+            } catch (InvocationTargetException e) {
+                throw rethrow(e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("Failed to invoke creator: " + method, e);
+            }
+        };
+    }
+
+    /**
+     * Throws an exception of a creator as is, like a compiled creator does, even if it is checked.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Throwable> RuntimeException rethrow(Throwable exception) throws T {
+        throw (T) exception;
+    }
+
+    private static void makeAccessible(Field field) {
+        if (!Modifier.isPublic(field.getModifiers())
+            || !Modifier.isPublic(field.getDeclaringClass().getModifiers())) {
+            field.trySetAccessible();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ru.andryxx.patcher.mapping.access;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Accessor factory reading and writing fields through {@link VarHandle}s obtained with
+ * {@link MethodHandles#privateLookupIn}, so non-public fields are reachable and primitive
+ * fields can be accessed without boxing (see {@link PropertyGetter} and {@link PropertySetter}).
+ * The access mode is bound once per accessor: the {@code VarHandle} is turned into a method handle
+ * of the mode's read or write operation and called with exact types.
+ * Methods are compiled by {@link LambdaAccessorFactory}. Like it, fields that cannot be reached
+ * by a private lookup fall back to reflection.
+ */
+public class VarHandleAccessorFactory implements AccessorFactory {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private final FieldAccessMode mode;
+    private final AccessorFactory methodFactory = LambdaAccessorFactory.INSTANCE;
+
+    public VarHandleAccessorFactory(FieldAccessMode mode) {
+        this.mode = mode;
+    }
+
+    public FieldAccessMode getMode() {
+        return mode;
+    }
+
+    @Override
+    public Function<Object, Object> getter(Method method) {
+        return methodFactory.getter(method);
+    }
+
+    @Override
+    public BiConsumer<Object, Object> setter(Method method) {
+        return methodFactory.setter(method);
+    }
+
+    @Override
+    public Supplier<Object> creator(Executable creator) {
+        return methodFactory.creator(creator);
+    }
+
+    @Override
+    public PropertyGetter getter(Field field) {
+        VarHandle handle = varHandle(field);
+        if (handle == null) {
+            return ReflectiveAccessorFactory.INSTANCE.getter(field)::apply;
+        }
+        return LambdaAccessorFactory.fieldGetter(handle.toMethodHandle(mode.read), field);
+    }
+
+    @Override
+    public PropertySetter setter(Field field) {
+        VarHandle handle = varHandle(field);
+        if (handle == null) {
+            return ReflectiveAccessorFactory.INSTANCE.setter(field)::accept;
+        }
+        return LambdaAccessorFactory.fieldSetter(handle.toMethodHandle(mode.write), field);
+    }
+
+    /**
+     * Factories with the same mode create equivalent accessors, so cached accessors can be shared.
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof VarHandleAccessorFactory that && mode == that.mode;
+    }
+
+    @Override
+    public int hashCode() {
+        return mode.hashCode();
+    }
+
+    private static VarHandle varHandle(Field field) {
+        try {
+            return MethodHandles.privateLookupIn(field.getDeclaringClass(), LOOKUP).unreflectVarHandle(field);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+}
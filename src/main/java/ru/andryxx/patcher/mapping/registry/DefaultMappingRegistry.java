@@ -1,22 +1,37 @@
 package ru.andryxx.patcher.mapping.registry;
 
 import ru.andryxx.patcher.exceptions.MatchingPathException;
+import ru.andryxx.patcher.mapping.Construction;
 import ru.andryxx.patcher.mapping.MappingPair;
 import ru.andryxx.patcher.mapping.MappingStrategy;
+import ru.andryxx.patcher.mapping.PropertyReader;
+import ru.andryxx.patcher.mapping.TypeMetadata;
+import ru.andryxx.patcher.mapping.access.AccessorFactory;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
+/**
+ * Default registry. Field paths may be nested, e.g. {@code address.city}: each segment is resolved
+ * by the {@link NamingResolver} and the accessors are chained once while scanning.
+ * Reading a nested path yields null if an intermediate object is null; writing to it is skipped,
+ * or the missing intermediate objects are created if {@link #setInstantiateNestedPaths(boolean)} is enabled.
+ * <p>
+ * Record components are read through their accessors. Components of an immutable target, such as a record
+ * or a type created by a builder ({@link TypeMetadata#construction()}), have no setters: they resolve to slots
+ * of the construction arguments, which are written by the patch and passed to the constructor
+ * once all values are gathered.
+ */
 public class DefaultMappingRegistry implements MappingRegistry {
     private record GetterResolution(Class<?> type, Function<Object, Object> func, String name) {
     }
@@ -26,12 +41,24 @@ public class DefaultMappingRegistry implements MappingRegistry {
 
     private final Map<String, Set<String>> userMappings = new ConcurrentHashMap<>();
     private final Map<String, Set<MappingPair>> resolvedMappings = new ConcurrentHashMap<>();
+    // reverse indexes, so that auto mapping checks each candidate in constant time
+    private final Map<String, String> userTargets = new ConcurrentHashMap<>();
+    private final Set<String> resolvedTargets = ConcurrentHashMap.newKeySet();
     private final NamingResolver namingResolver;
     private MappingStrategy mappingStrategy;
+    private AccessorFactory accessorFactory;
+    private boolean instantiateNestedPaths;
 
     public DefaultMappingRegistry(NamingResolver namingResolver, MappingStrategy mappingStrategy) {
+        this(namingResolver, mappingStrategy, AccessorFactory.reflective());
+    }
+
+    public DefaultMappingRegistry(NamingResolver namingResolver,
+                                  MappingStrategy mappingStrategy,
+                                  AccessorFactory accessorFactory) {
         this.namingResolver = namingResolver;
         this.mappingStrategy = mappingStrategy;
+        this.accessorFactory = accessorFactory;
     }
 
     @Override
@@ -39,10 +66,43 @@ public class DefaultMappingRegistry implements MappingRegistry {
         this.mappingStrategy = strategy;
     }
 
+    @Override
+    public void setAccessorFactory(AccessorFactory accessorFactory) {
+        this.accessorFactory = accessorFactory;
+    }
+
+    @Override
+    public void setInstantiateNestedPaths(boolean instantiate) {
+        this.instantiateNestedPaths = instantiate;
+    }
+
+    @Override
+    public DefaultMappingRegistry copy() {
+        DefaultMappingRegistry copy = derive();
+        userMappings.forEach((from, targets) -> copy.userMappings.put(from, new HashSet<>(targets)));
+        resolvedMappings.forEach((from, mappings) -> copy.resolvedMappings.put(from, new HashSet<>(mappings)));
+        copy.userTargets.putAll(userTargets);
+        copy.resolvedTargets.addAll(resolvedTargets);
+        return copy;
+    }
+
+    @Override
+    public DefaultMappingRegistry derive() {
+        DefaultMappingRegistry derived = new DefaultMappingRegistry(namingResolver, mappingStrategy, accessorFactory);
+        derived.instantiateNestedPaths = instantiateNestedPaths;
+        return derived;
+    }
+
     @Override
     public void registerFieldMapping(String fromPath, String toPath) {
-        userMappings.forEach((key, targets) -> targets.remove(toPath));
-        userMappings.entrySet().removeIf(entry -> entry.getValue().isEmpty());
+        String previousFrom = userTargets.put(toPath, fromPath);
+        if (previousFrom != null) {
+            Set<String> targets = userMappings.get(previousFrom);
+            targets.remove(toPath);
+            if (targets.isEmpty()) {
+                userMappings.remove(previousFrom);
+            }
+        }
         userMappings.computeIfAbsent(fromPath, _ -> new HashSet<>()).add(toPath);
     }
 
@@ -58,12 +118,13 @@ public class DefaultMappingRegistry implements MappingRegistry {
 
     @Override
     public Set<String> getAllRegisteredToFields() {
-        return userMappings.values().stream().flatMap(Set::stream).collect(Collectors.toSet());
+        return new HashSet<>(userTargets.keySet());
     }
 
     @Override
     public void scanEntityMappings(Class<?> fromType, Class<?> toType) throws MatchingPathException {
         resolvedMappings.clear();
+        resolvedTargets.clear();
         // explicit mappings
         for (Map.Entry<String, Set<String>> entry : userMappings.entrySet()) {
             String fromField = entry.getKey();
@@ -75,19 +136,28 @@ public class DefaultMappingRegistry implements MappingRegistry {
         // auto mappings (METHODS)
         if (mappingStrategy == MappingStrategy.USE_METHODS || mappingStrategy == MappingStrategy.USE_METHODS_AND_FIELDS) {
             resolveAutoMappings(
-                    toType.getMethods(),
+                    TypeMetadata.of(toType).setters().toArray(Method[]::new),
                     method -> uncapitalize(method.getName().substring(3)),
-                    this::isSetter,
+                    method -> true,
                     fromType,
                     toType
             );
         }
 
+        // auto mappings (CONSTRUCTION COMPONENTS)
+        TypeMetadata.of(toType).construction().ifPresent(construction -> resolveAutoMappings(
+                construction.names(),
+                Function.identity(),
+                component -> true,
+                fromType,
+                toType
+        ));
+
         // auto mappings (FIELDS)
         if (mappingStrategy == MappingStrategy.USE_FIELDS || mappingStrategy == MappingStrategy.USE_METHODS_AND_FIELDS) {
             resolveAutoMappings(
-                    toType.getFields(),
-                    Field::getName,
+                    namingResolver.resolveFieldNames(toType).toArray(String[]::new),
+                    Function.identity(),
                     f -> true,
                     fromType,
                     toType
@@ -97,11 +167,26 @@ public class DefaultMappingRegistry implements MappingRegistry {
     }
 
 
-    private boolean isSetter(Method method) {
-        return method.getName().startsWith("set")
-               && method.getParameterCount() == 1
-               && Modifier.isPublic(method.getModifiers())
-               && !Modifier.isStatic(method.getModifiers());
+    @Override
+    public Optional<Supplier<Object>> resolveCreator(Class<?> type) {
+        return TypeMetadata.of(type).creator(accessorFactory);
+    }
+
+    @Override
+    public Optional<PropertyReader> resolveTargetReader(Class<?> toType, String toFieldPath) {
+        Construction construction = TypeMetadata.of(toType).construction().orElse(null);
+        int component = construction != null ? construction.indexOf(toFieldPath) : -1;
+        if (component >= 0) {
+            return Optional.of(new PropertyReader(
+                    arguments -> construction.argument((Object[]) arguments, component),
+                    construction.componentType(component)));
+        }
+        try {
+            GetterResolution getter = resolveGetter(toType, toFieldPath);
+            return Optional.of(new PropertyReader(getter.func(), getter.type()));
+        } catch (MatchingPathException e) {
+            return Optional.empty();
+        }
     }
 
     private String uncapitalize(String name) {
@@ -109,7 +194,68 @@ public class DefaultMappingRegistry implements MappingRegistry {
         return Character.toLowerCase(name.charAt(0)) + name.substring(1);
     }
 
-    private GetterResolution resolveGetter(Class<?> type, String fieldName) throws MatchingPathException {
+    private GetterResolution resolveGetter(Class<?> type, String path) throws MatchingPathException {
+        int dot = path.lastIndexOf('.');
+        if (dot < 0) {
+            return resolvePropertyGetter(type, path);
+        }
+        GetterResolution owner = resolveGetter(type, path.substring(0, dot));
+        GetterResolution property = resolvePropertyGetter(owner.type(), path.substring(dot + 1));
+        Function<Object, Object> ownerGetter = owner.func();
+        Function<Object, Object> propertyGetter = property.func();
+        return new GetterResolution(
+                property.type(),
+                object -> {
+                    Object value = ownerGetter.apply(object);
+                    return value == null ? null : propertyGetter.apply(value);
+                },
+                owner.name() + "." + property.name());
+    }
+
+    private SetterResolution resolveSetter(Class<?> type, String path) throws MatchingPathException {
+        int dot = path.lastIndexOf('.');
+        if (dot < 0) {
+            return resolvePropertySetter(type, path);
+        }
+        String ownerPath = path.substring(0, dot);
+        GetterResolution owner = resolveGetter(type, ownerPath);
+        if (TypeMetadata.of(owner.type()).construction().isPresent()) {
+            throw new MatchingPathException(String.format(
+                    "Cannot write '%s' of %s: %s is immutable", path, type.getName(), owner.type().getName()));
+        }
+        SetterResolution property = resolvePropertySetter(owner.type(), path.substring(dot + 1));
+        Function<Object, Object> ownerGetter = owner.func();
+        BiConsumer<Object, Object> propertySetter = property.func();
+        BiConsumer<Object, Object> setter;
+        if (instantiateNestedPaths) {
+            Supplier<Object> creator = resolveCreator(owner.type())
+                    .orElseThrow(() -> new MatchingPathException(String.format(
+                            "Cannot instantiate '%s' of %s: no constructor without parameters or @Creator in %s",
+                            ownerPath, type.getName(), owner.type().getName())));
+            BiConsumer<Object, Object> ownerSetter = resolveSetter(type, ownerPath).func();
+            setter = (object, value) -> {
+                Object ownerObject = ownerGetter.apply(object);
+                if (ownerObject == null) {
+                    if (value == null) {
+                        return;
+                    }
+                    ownerObject = creator.get();
+                    ownerSetter.accept(object, ownerObject);
+                }
+                propertySetter.accept(ownerObject, value);
+            };
+        } else {
+            setter = (object, value) -> {
+                Object ownerObject = ownerGetter.apply(object);
+                if (ownerObject != null) {
+                    propertySetter.accept(ownerObject, value);
+                }
+            };
+        }
+        return new SetterResolution(property.type(), setter, owner.name() + "." + property.name());
+    }
+
+    private GetterResolution resolvePropertyGetter(Class<?> type, String fieldName) throws MatchingPathException {
         boolean allowMethods = mappingStrategy == MappingStrategy.USE_METHODS
                                || mappingStrategy == MappingStrategy.USE_METHODS_AND_FIELDS;
         boolean allowFields = mappingStrategy == MappingStrategy.USE_FIELDS
@@ -119,13 +265,7 @@ public class DefaultMappingRegistry implements MappingRegistry {
             Method mGetter = namingResolver.resolveGetter(type, fieldName).orElse(null);
             if (mGetter != null) {
                 Class<?> getterType = mGetter.getReturnType();
-                Function<Object, Object> getterFunc = instance -> {
-                    try {
-                        return mGetter.invoke(instance);
-                    } catch (IllegalAccessException | InvocationTargetException e) {
-                        throw new RuntimeException("Failed to invoke getter: " + mGetter, e);
-                    }
-                };
+                Function<Object, Object> getterFunc = metadata(mGetter).getter(accessorFactory, mGetter);
                 return new GetterResolution(getterType, getterFunc, mGetter.getName());
             }
         }
@@ -137,13 +277,7 @@ public class DefaultMappingRegistry implements MappingRegistry {
                                     allowMethods ? " or getter" : "", fieldName, type.getName())
                     ));
             Class<?> getterType = field.getType();
-            Function<Object, Object> getterFunc = instance -> {
-                try {
-                    return field.get(instance);
-                } catch (IllegalAccessException e) {
-                    throw new RuntimeException("Failed to access field: " + field, e);
-                }
-            };
+            Function<Object, Object> getterFunc = metadata(field).getter(accessorFactory, field);
             return new GetterResolution(getterType, getterFunc, field.getName());
         }
 
@@ -154,7 +288,19 @@ public class DefaultMappingRegistry implements MappingRegistry {
     }
 
 
-    private SetterResolution resolveSetter(Class<?> type, String fieldName) throws MatchingPathException {
+    private SetterResolution resolvePropertySetter(Class<?> type, String fieldName) throws MatchingPathException {
+        Construction construction = TypeMetadata.of(type).construction().orElse(null);
+        if (construction != null) {
+            int component = construction.indexOf(fieldName);
+            if (component < 0) {
+                throw new MatchingPathException(
+                        String.format("Cannot find component '%s' in immutable %s", fieldName, type.getName()));
+            }
+            return new SetterResolution(
+                    construction.componentType(component),
+                    (arguments, value) -> ((Object[]) arguments)[component] = value,
+                    fieldName);
+        }
         boolean allowMethods = mappingStrategy == MappingStrategy.USE_METHODS
                                || mappingStrategy == MappingStrategy.USE_METHODS_AND_FIELDS;
         boolean allowFields = mappingStrategy == MappingStrategy.USE_FIELDS
@@ -164,13 +310,7 @@ public class DefaultMappingRegistry implements MappingRegistry {
             Method mSetter = namingResolver.resolveSetter(type, fieldName).orElse(null);
             if (mSetter != null) {
                 Class<?> setterType = mSetter.getParameterTypes()[0];
-                BiConsumer<Object, Object> setterFunc = (instance, value) -> {
-                    try {
-                        mSetter.invoke(instance, value);
-                    } catch (IllegalAccessException | InvocationTargetException e) {
-                        throw new RuntimeException("Failed to invoke setter: " + mSetter, e);
-                    }
-                };
+                BiConsumer<Object, Object> setterFunc = metadata(mSetter).setter(accessorFactory, mSetter);
                 return new SetterResolution(setterType, setterFunc, mSetter.getName());
             }
         }
@@ -182,13 +322,7 @@ public class DefaultMappingRegistry implements MappingRegistry {
                                     allowMethods ? " or setter" : "", fieldName, type.getName())
                     ));
             Class<?> setterType = field.getType();
-            BiConsumer<Object, Object> setterFunc = (instance, value) -> {
-                try {
-                    field.set(instance, value);
-                } catch (IllegalAccessException e) {
-                    throw new RuntimeException("Failed to access field: " + field, e);
-                }
-            };
+            BiConsumer<Object, Object> setterFunc = metadata(field).setter(accessorFactory, field);
             return new SetterResolution(setterType, setterFunc, field.getName());
         }
 
@@ -198,6 +332,13 @@ public class DefaultMappingRegistry implements MappingRegistry {
         );
     }
 
+    /**
+     * Accessors are cached in the metadata of the declaring class and shared with other registries.
+     */
+    private static TypeMetadata metadata(Member member) {
+        return TypeMetadata.of(member.getDeclaringClass());
+    }
+
     private <T> void resolveAutoMappings(
             T[] elements,
             Function<T, String> fieldNameExtractor,
@@ -210,10 +351,9 @@ public class DefaultMappingRegistry implements MappingRegistry {
 
             String fieldName = fieldNameExtractor.apply(element);
             if (userMappings.containsKey(fieldName)
-                || userMappings.values().stream().anyMatch(s -> s.contains(fieldName))
+                || userTargets.containsKey(fieldName)
                 || resolvedMappings.containsKey(fieldName)
-                || resolvedMappings.values().stream().anyMatch(s -> s.stream()
-                    .anyMatch(m -> m.toFieldName().equals(fieldName)))) {
+                || resolvedTargets.contains(fieldName)) {
                 continue;
                 // do smth with this statement
             }
@@ -225,6 +365,7 @@ public class DefaultMappingRegistry implements MappingRegistry {
     }
 
     private void resolve(GetterResolution fromType, SetterResolution toType, String fromName, String toName, boolean isAutoMapping) {
+        resolvedTargets.add(toName);
         resolvedMappings.computeIfAbsent(fromName, _ -> new HashSet<>())
                 .add(new MappingPair(
                         fromType.func(),
@@ -1,61 +1,69 @@
 package ru.andryxx.patcher.mapping.registry;
 
+import ru.andryxx.patcher.mapping.PropertyIndex;
+import ru.andryxx.patcher.mapping.TypeMetadata;
+
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.Optional;
 
 /**
- * This implementation does not support nested paths
+ * Resolves single path segments. Nested paths are split into segments by {@link DefaultMappingRegistry}.
  */
 public class DefaultNamingResolver implements NamingResolver {
+    private final boolean includeNonPublicFields;
+
+    public DefaultNamingResolver() {
+        this(false);
+    }
+
+    /**
+     * @param includeNonPublicFields whether non-public instance fields declared in the type
+     *                               or its superclasses are resolved as well
+     */
+    public DefaultNamingResolver(boolean includeNonPublicFields) {
+        this.includeNonPublicFields = includeNonPublicFields;
+    }
+
     @Override
     public Optional<Method> resolveGetter(Class<?> type, String path) {
-        String getterName = "get" + capitalize(path);
-        try {
-            Method method = type.getMethod(getterName);
-            if (isPublicInstance(method) && method.getParameterCount() == 0) {
-                return Optional.of(method);
-            }
-        } catch (NoSuchMethodException ignored) {
-        }
-
-        // checks boolean (isBoolean)
-        String booleanGetterName = "is" + capitalize(path);
-        try {
-            Method method = type.getMethod(booleanGetterName);
-            if (isPublicInstance(method) &&
-                method.getParameterCount() == 0 &&
-                method.getReturnType() == boolean.class) {
-                return Optional.of(method);
-            }
-        } catch (NoSuchMethodException ignored) {
-        }
-        return Optional.empty();
+        return Optional.ofNullable(TypeMetadata.of(type).properties().getter(capitalize(path)));
     }
 
     @Override
     public Optional<Method> resolveSetter(Class<?> type, String path) {
-        String setterName = "set" + capitalize(path);
-        for (Method method : type.getMethods()) {
-            if (method.getName().equals(setterName)
-                && isPublicInstance(method)
-                && method.getParameterCount() == 1) {
-                return Optional.of(method);
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(TypeMetadata.of(type).properties().setter(capitalize(path)));
     }
 
     @Override
     public Optional<Field> resolveField(Class<?> type, String path) {
-        try {
-            Field field = type.getField(path);
-            if (isPublicInstance(field)) {
-                return Optional.of(field);
+        PropertyIndex properties = TypeMetadata.of(type).properties();
+        Field field = properties.publicField(path);
+        if (field == null && includeNonPublicFields) {
+            field = properties.declaredField(path);
+        }
+        return Optional.ofNullable(field);
+    }
+
+    @Override
+    public List<String> resolveFieldNames(Class<?> type) {
+        if (!includeNonPublicFields) {
+            return NamingResolver.super.resolveFieldNames(type);
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                    names.add(field.getName());
+                }
             }
-        } catch (NoSuchFieldException ignored) {}
-        return Optional.empty();
+        }
+        return new ArrayList<>(names);
     }
 
     @Override
@@ -63,16 +71,6 @@ public class DefaultNamingResolver implements NamingResolver {
         return Optional.of(fieldName);
     }
 
-    private boolean isPublicInstance(Method method) {
-        int modifiers = method.getModifiers();
-        return Modifier.isPublic(modifiers) && !Modifier.isStatic(modifiers);
-    }
-
-    private boolean isPublicInstance(Field field) {
-        int modifiers = field.getModifiers();
-        return Modifier.isPublic(modifiers) && !Modifier.isStatic(modifiers);
-    }
-
     private String capitalize(String name) {
         if (name == null || name.isEmpty()) return name;
         return Character.toUpperCase(name.charAt(0)) + name.substring(1);
@@ -3,10 +3,14 @@ package ru.andryxx.patcher.mapping.registry;
 import ru.andryxx.patcher.exceptions.MatchingPathException;
 import ru.andryxx.patcher.mapping.MappingPair;
 import ru.andryxx.patcher.mapping.MappingStrategy;
+import ru.andryxx.patcher.mapping.PropertyReader;
+import ru.andryxx.patcher.mapping.TypeMetadata;
+import ru.andryxx.patcher.mapping.access.AccessorFactory;
 
 import java.util.Collection;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Interface for managing field mappings between objects.
@@ -21,7 +25,42 @@ public interface MappingRegistry {
     void setStrategy(MappingStrategy strategy);
 
     /**
-     * Registers a field mapping between two paths.
+     * Sets a factory used to turn resolved getters, setters and fields into accessors.
+     * Required by {@code Patcher.withAccessorFactory}: implementations must use it for accessors resolved afterwards.
+     *
+     * @param accessorFactory The accessor factory
+     */
+    void setAccessorFactory(AccessorFactory accessorFactory);
+
+    /**
+     * Sets whether null intermediate objects of nested target paths, e.g. {@code address} of
+     * {@code address.city}, are created with their constructor without parameters before writing.
+     * Required by {@code Patcher.withNestedInstantiation}: implementations must apply it to setters resolved afterwards.
+     *
+     * @param instantiate whether to create missing intermediate objects
+     */
+    void setInstantiateNestedPaths(boolean instantiate);
+
+    /**
+     * Creates an independent registry with the same settings and mappings.
+     * Required by {@code Patcher.freeze}: a frozen patcher shares the registry with the patchers derived from it
+     * and with the patcher it was frozen from, which copy it before changing mappings or settings.
+     *
+     * @return a copy of this registry
+     */
+    MappingRegistry copy();
+
+    /**
+     * Creates an empty registry with the same settings, used to resolve mappings of nested objects
+     * of other types with the configuration of a patcher.
+     * Required by deep patching and by nested maps of {@code MapPatcher}.
+     *
+     * @return a registry with the settings of this registry and without mappings
+     */
+    MappingRegistry derive();
+
+    /**
+     * Registers a field mapping between two paths. Paths may be nested, e.g. {@code address.city}.
      *
      * @param fromPath The source field path.
      * @param toPath   The target field path.
@@ -58,4 +97,27 @@ public interface MappingRegistry {
      * @param toType   The target entity class.
      */
     void scanEntityMappings(Class<?> fromType, Class<?> toType) throws MatchingPathException;
+
+    /**
+     * Resolves a getter of a target field, used to read its current value before patching.
+     *
+     * @param toType      The target entity class.
+     * @param toFieldPath The target field path.
+     * @return An {@link Optional} containing the getter, or empty if the field cannot be read.
+     */
+    default Optional<PropertyReader> resolveTargetReader(Class<?> toType, String toFieldPath) {
+        return Optional.empty();
+    }
+
+    /**
+     * Resolves a factory of new instances of a type, used to create targets, nested objects and collections.
+     * Registries with an accessor factory should create it with that factory.
+     *
+     * @param type The class to instantiate.
+     * @return An {@link Optional} containing the factory, or empty if the type has no creator without parameters.
+     * @see TypeMetadata#creator(AccessorFactory)
+     */
+    default Optional<Supplier<Object>> resolveCreator(Class<?> type) {
+        return TypeMetadata.of(type).creator(AccessorFactory.compiled());
+    }
 }
\ No newline at end of file
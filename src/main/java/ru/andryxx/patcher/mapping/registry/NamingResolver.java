@@ -1,7 +1,10 @@
 package ru.andryxx.patcher.mapping.registry;
 
+import ru.andryxx.patcher.mapping.TypeMetadata;
+
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.List;
 import java.util.Optional;
 
 public interface NamingResolver {
@@ -32,6 +35,16 @@ public interface NamingResolver {
      */
     Optional<Field> resolveField(Class<?> type, String path);
 
+    /**
+     * Lists names of fields in the given type that may be resolved by {@link #resolveField(Class, String)}.
+     *
+     * @param type the class type to list fields of
+     * @return names of candidate fields
+     */
+    default List<String> resolveFieldNames(Class<?> type) {
+        return TypeMetadata.of(type).publicFieldNames();
+    }
+
     /**
      * Resolves the entity path for a given entity type and field name.
      * @param entityType the class type of the entity
@@ -0,0 +1,17 @@
+package ru.andryxx.patcher.classes;
+
+/**
+ * Sample {@link TestDTO} instances shared by the engine tests.
+ */
+public final class TestDTOs {
+    private TestDTOs() {
+    }
+
+    public static TestDTO of(String fullName, int age) {
+        TestDTO dto = new TestDTO();
+        dto.setFullName(fullName);
+        dto.setAge(age);
+        dto.setBirthdate("2000-01-01");
+        return dto;
+    }
+}
@@ -0,0 +1,51 @@
+package ru.andryxx.patcher.classes;
+
+import ru.andryxx.patcher.mapping.registry.NamingResolver;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * Presents any type as having {@code width} public fields {@code p0 .. p<width - 1>},
+ * each backed by its real {@code publicField}. Allows measuring how mapping scans scale
+ * with class width without generating classes.
+ */
+public class WideTypeNamingResolver implements NamingResolver {
+    private final List<String> names;
+
+    public WideTypeNamingResolver(int width) {
+        this.names = IntStream.range(0, width).mapToObj(i -> "p" + i).toList();
+    }
+
+    @Override
+    public Optional<Method> resolveGetter(Class<?> type, String path) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Method> resolveSetter(Class<?> type, String path) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Field> resolveField(Class<?> type, String path) {
+        try {
+            return path.startsWith("p") ? Optional.of(type.getField("publicField")) : Optional.empty();
+        } catch (NoSuchFieldException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public List<String> resolveFieldNames(Class<?> type) {
+        return names;
+    }
+
+    @Override
+    public Optional<String> resolveEntityPath(Class<?> entityType, String fieldName) {
+        return Optional.of(fieldName);
+    }
+}
@@ -0,0 +1,154 @@
+package ru.andryxx.patcher.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.andryxx.patcher.mapping.MappingStrategy;
+import ru.andryxx.patcher.mapping.access.AccessorFactory;
+import ru.andryxx.patcher.mapping.registry.DefaultMappingRegistry;
+import ru.andryxx.patcher.mapping.registry.DefaultNamingResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ChangeDetectionTest {
+    public static class Dto {
+        public String name;
+        public int age;
+        public int total;
+        public double ratio;
+        public boolean active;
+    }
+
+    public static class Entity {
+        final List<String> writes = new ArrayList<>();
+        private String name;
+        private int age;
+        private long total;
+        private double ratio;
+        private boolean active;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            writes.add("name");
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            writes.add("age");
+            this.age = age;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public void setTotal(long total) {
+            writes.add("total");
+            this.total = total;
+        }
+
+        public double getRatio() {
+            return ratio;
+        }
+
+        public void setRatio(double ratio) {
+            writes.add("ratio");
+            this.ratio = ratio;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public void setActive(boolean active) {
+            writes.add("active");
+            this.active = active;
+        }
+    }
+
+    private static Patcher<Dto, Entity> getPatcher(AccessorFactory accessorFactory, boolean generateCode) {
+        return Patcher.forType(Dto.class, Entity.class)
+                .withAccessorFactory(accessorFactory)
+                .withCodeGeneration(generateCode)
+                .detectChanges();
+    }
+
+    private static Dto getDto() {
+        Dto dto = new Dto();
+        dto.name = "foo";
+        dto.age = 10;
+        dto.total = 20;
+        dto.ratio = Double.NaN;
+        dto.active = true;
+        return dto;
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void shouldSkipUnchangedValues_CompiledAccessors(boolean generateCode) {
+        var patcher = getPatcher(AccessorFactory.compiled(), generateCode);
+        Entity entity = new Entity();
+        entity.name = "foo";
+        entity.total = 20L;
+        entity.ratio = Double.NaN;
+
+        patcher.patch(getDto(), entity);
+
+        assertEquals(List.of("active", "age"), entity.writes.stream().sorted().toList());
+        assertEquals(3, patcher.getSkippedWrites());
+
+        entity.writes.clear();
+        patcher.patch(getDto(), entity);
+
+        assertEquals(List.of(), entity.writes);
+        assertEquals(8, patcher.getSkippedWrites());
+    }
+
+    @Test
+    public void shouldSkipUnchangedValues_ReflectiveAccessors() {
+        var patcher = getPatcher(AccessorFactory.reflective(), false);
+        Entity entity = new Entity();
+        entity.age = 10;
+
+        patcher.patch(getDto(), entity);
+
+        assertEquals(List.of("active", "name", "ratio", "total"), entity.writes.stream().sorted().toList());
+        assertEquals(1, patcher.getSkippedWrites());
+    }
+
+    @Test
+    public void shouldAlwaysWrite_WhenDisabled() {
+        var engine = new PatcherEngine<>(Dto.class, Entity.class, new DefaultMappingRegistry(
+                new DefaultNamingResolver(), MappingStrategy.USE_METHODS_AND_FIELDS));
+        engine.setDetectChanges(true);
+        engine.setDetectChanges(false);
+        Entity entity = new Entity();
+
+        engine.patch(new Dto(), entity);
+
+        assertEquals(5, entity.writes.size());
+        assertEquals(0, engine.getSkippedWrites());
+    }
+
+    @Test
+    public void shouldCountSeparately_ForDerivedFrozenPatchers() {
+        var frozen = getPatcher(AccessorFactory.compiled(), false).freeze();
+        var derived = frozen.ignoreTo("name");
+
+        frozen.patch(getDto(), new Entity());
+        derived.patch(new Dto(), new Entity());
+
+        assertEquals(0, frozen.getSkippedWrites());
+        assertEquals(4, derived.getSkippedWrites());
+    }
+}
@@ -0,0 +1,105 @@
+package ru.andryxx.patcher.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class CollectionMergeTest {
+    public static class ItemDto {
+        public Long id;
+        public String name;
+
+        public ItemDto() {
+        }
+
+        public ItemDto(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    public static class Item {
+        public Long id;
+        public String name;
+        public int quantity;
+    }
+
+    public static class OrderDto {
+        public List<ItemDto> items;
+    }
+
+    public static class Order {
+        public List<Item> items;
+        public Set<Item> archive;
+    }
+
+    private static Item getItem(long id, String name) {
+        Item item = new Item();
+        item.id = id;
+        item.name = name;
+        item.quantity = 5;
+        return item;
+    }
+
+    private static OrderDto getDto(ItemDto... items) {
+        OrderDto dto = new OrderDto();
+        dto.items = List.of(items);
+        return dto;
+    }
+
+    @Test
+    public void shouldMergeByKey_InPlace() {
+        var patcher = Patcher.forType(OrderDto.class, Order.class)
+                .withCollectionMerge("items",
+                        CollectionMerge.byKey(ItemDto.class, Item.class, dto -> dto.id, item -> item.id));
+        Order order = new Order();
+        Item kept = getItem(1, "old");
+        List<Item> items = new ArrayList<>(List.of(kept, getItem(2, "removed")));
+        order.items = items;
+
+        patcher.patch(getDto(new ItemDto(1L, "new"), new ItemDto(null, "added")), order);
+
+        assertSame(items, order.items);
+        assertEquals(2, items.size());
+        assertSame(kept, items.get(0));
+        assertEquals("new", kept.name);
+        assertEquals(5, kept.quantity);
+        assertEquals("added", items.get(1).name);
+    }
+
+    @Test
+    public void shouldReplaceOrAppend_KeepingTargetCollection() {
+        Order order = new Order();
+        List<Item> items = new ArrayList<>(List.of(getItem(1, "old")));
+        order.items = items;
+
+        Patcher.forType(OrderDto.class, Order.class)
+                .withCollectionMerge("items", CollectionMerge.append(ItemDto.class, Item.class))
+                .patch(getDto(new ItemDto(2L, "appended")), order);
+        assertEquals(List.of("old", "appended"), items.stream().map(item -> item.name).toList());
+
+        Patcher.forType(OrderDto.class, Order.class)
+                .withCollectionMerge("items", CollectionMerge.replace(ItemDto.class, Item.class))
+                .patch(getDto(new ItemDto(3L, "replaced")), order);
+        assertSame(items, order.items);
+        assertEquals(List.of("replaced"), items.stream().map(item -> item.name).toList());
+    }
+
+    @Test
+    public void shouldCreateMissingTargetCollections() {
+        var patcher = Patcher.forType(OrderDto.class, Order.class)
+                .withFieldMapping("items", "archive")
+                .withCollectionMerge("items",
+                        CollectionMerge.byKey(ItemDto.class, Item.class, dto -> dto.id, item -> item.id));
+
+        Order order = patcher.map(getDto(new ItemDto(1L, "first")));
+
+        assertEquals(1, order.archive.size());
+        assertEquals("first", order.archive.iterator().next().name);
+    }
+}
@@ -0,0 +1,143 @@
+package ru.andryxx.patcher.engine;
+
+import org.junit.jupiter.api.Test;
+import ru.andryxx.patcher.annotations.Creator;
+import ru.andryxx.patcher.exceptions.MappingExecutionException;
+import ru.andryxx.patcher.mapping.access.AccessorFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CreatorTest {
+    public static class Source {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class FactoryTarget {
+        private String name;
+        private String origin;
+
+        private FactoryTarget(String origin) {
+            this.origin = origin;
+        }
+
+        @Creator
+        static FactoryTarget create() {
+            return new FactoryTarget("factory");
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getOrigin() {
+            return origin;
+        }
+    }
+
+    public static class InvalidTarget {
+        @Creator
+        public InvalidTarget(String name) {
+        }
+    }
+
+    public static class HiddenTarget {
+        private String name;
+
+        private HiddenTarget() {
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class CreatedHiddenTarget {
+        private String name;
+
+        @Creator
+        private CreatedHiddenTarget() {
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class FailingTarget {
+        private String name;
+
+        public FailingTarget() {
+            throw new IllegalStateException("not now");
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    @Test
+    public void shouldMapWithCreatorFactory() {
+        Source source = new Source();
+        source.setName("foo");
+
+        FactoryTarget target = Patcher.forType(Source.class, FactoryTarget.class).map(source);
+
+        assertEquals("foo", target.getName());
+        assertEquals("factory", target.getOrigin());
+    }
+
+    @Test
+    public void shouldMapWithPrivateConstructor_OnlyIfAnnotated() {
+        Source source = new Source();
+        source.setName("foo");
+
+        CreatedHiddenTarget target = Patcher.forType(Source.class, CreatedHiddenTarget.class).map(source);
+
+        assertEquals("foo", target.getName());
+        assertThrows(MappingExecutionException.class,
+                () -> Patcher.forType(Source.class, HiddenTarget.class).map(source));
+    }
+
+    @Test
+    public void shouldThrowCreatorExceptionsAsIs() {
+        var patcher = Patcher.forType(Source.class, FailingTarget.class)
+                .withAccessorFactory(AccessorFactory.reflective());
+
+        var e = assertThrows(MappingExecutionException.class, () -> patcher.map(new Source()));
+
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    public void shouldRejectCreatorWithUnnamedParameters() {
+        var patcher = Patcher.forType(Source.class, InvalidTarget.class);
+
+        assertThrows(MappingExecutionException.class, () -> patcher.map(new Source()));
+    }
+}
@@ -0,0 +1,148 @@
+package ru.andryxx.patcher.engine;
+
+import org.junit.jupiter.api.Test;
+import ru.andryxx.patcher.classes.TestAddress;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class DeepPatchTest {
+    public static class AddressDto {
+        public String city;
+    }
+
+    public static class PostalDto {
+        public String zipCode;
+    }
+
+    public static class PostalPersonDto {
+        public PostalDto address;
+    }
+
+    public static class PersonDto {
+        public String name;
+        public AddressDto address;
+    }
+
+    public static class Person {
+        public String name;
+        public TestAddress address;
+    }
+
+    public static class Home {
+        public String city;
+    }
+
+    public static class Work {
+        public String city;
+    }
+
+    public static class PlacesDto {
+        public AddressDto home;
+        public AddressDto work;
+    }
+
+    public static class Places {
+        public Home home;
+        public Work work;
+    }
+
+    public static class Node {
+        public String name;
+        public Node left;
+        public Node right;
+    }
+
+    private static PersonDto getDto() {
+        PersonDto dto = new PersonDto();
+        dto.name = "foo";
+        dto.address = new AddressDto();
+        dto.address.city = "Kazan";
+        return dto;
+    }
+
+    @Test
+    public void shouldPatchNestedBeans_IntoExistingTargets() {
+        var patcher = Patcher.forType(PersonDto.class, Person.class).deep();
+        Person person = new Person();
+        TestAddress address = new TestAddress("Moscow", 101000);
+        person.address = address;
+
+        patcher.patch(getDto(), person);
+
+        assertEquals("foo", person.name);
+        assertSame(address, person.address);
+        assertEquals("Kazan", address.getCity());
+        assertEquals(101000, address.getZipCode());
+    }
+
+    @Test
+    public void shouldCreateMissingTargets() {
+        var patcher = Patcher.forType(PersonDto.class, Person.class).deep().freeze();
+
+        Person person = patcher.map(getDto());
+
+        assertEquals("Kazan", person.address.getCity());
+        assertEquals(0, person.address.getZipCode());
+    }
+
+    @Test
+    public void shouldKeepSharedReferencesAndCycles() {
+        var patcher = Patcher.forType(Node.class, Node.class).deep().freeze();
+        Node root = new Node();
+        root.name = "root";
+        Node child = new Node();
+        child.name = "child";
+        root.left = child;
+        root.right = child;
+        child.left = root;
+
+        Node target = patcher.map(root);
+
+        assertNotSame(root, target);
+        assertEquals("child", target.left.name);
+        assertSame(target.left, target.right);
+        assertSame(target, target.left.left);
+
+        Node second = patcher.map(root);
+        assertNotSame(target.left, second.left);
+        assertSame(second, second.left.left);
+    }
+
+    @Test
+    public void shouldPatchNestedBeans_WithParentConfiguration() {
+        PostalPersonDto dto = new PostalPersonDto();
+        dto.address = new PostalDto();
+        dto.address.zipCode = "420000";
+        var parsing = Patcher.forType(PostalPersonDto.class, Person.class).deep()
+                .withTransformer(String.class, Integer.class, Integer::valueOf)
+                .freeze();
+        var shifting = Patcher.forType(PostalPersonDto.class, Person.class).deep()
+                .withTransformer(String.class, Integer.class, value -> Integer.parseInt(value) + 1)
+                .freeze();
+
+        Person parsed = parsing.map(dto);
+        Person shifted = shifting.map(dto);
+        Person reconfigured = parsing.withTransformer(String.class, Integer.class, value -> 0).map(dto);
+
+        assertEquals(420000, parsed.address.getZipCode());
+        assertEquals(420001, shifted.address.getZipCode());
+        assertEquals(0, reconfigured.address.getZipCode());
+        assertEquals(420000, parsing.map(dto).address.getZipCode());
+    }
+
+    @Test
+    public void shouldPatchSharedSource_IntoTargetsOfEachType() {
+        PlacesDto dto = new PlacesDto();
+        dto.home = new AddressDto();
+        dto.home.city = "Kazan";
+        dto.work = dto.home;
+        Places places = new Places();
+
+        Patcher.forType(PlacesDto.class, Places.class).deep().patch(dto, places);
+
+        assertEquals("Kazan", places.home.city);
+        assertEquals("Kazan", places.work.city);
+    }
+}
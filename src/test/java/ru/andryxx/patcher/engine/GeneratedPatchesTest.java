@@ -0,0 +1,66 @@
+package ru.andryxx.patcher.engine;
+
+import org.junit.jupiter.api.Test;
+import ru.andryxx.patcher.logging.PatchLogger;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Loading of patches generated by the real processor is tested in the entity-patcher-processor module.
+ */
+public class GeneratedPatchesTest {
+    public static class Dto {
+        public String name;
+    }
+
+    public static class Entity {
+        public String name;
+    }
+
+    private record FixedPatch(Map<String, String> mappings) implements GeneratedPatch<Dto, Entity> {
+        @Override
+        public Class<Dto> fromType() {
+            return Dto.class;
+        }
+
+        @Override
+        public Class<Entity> toType() {
+            return Entity.class;
+        }
+
+        @Override
+        public void patch(Dto fromObject, Entity toObject, PatchLogger logger) {
+            toObject.name = "generated";
+        }
+    }
+
+    @Test
+    public void shouldNameGeneratedPatch_ByNamingConvention() {
+        assertEquals("ru.andryxx.patcher.engine.GeneratedPatchesTest_DtoToGeneratedPatchesTest_EntityPatch",
+                GeneratedPatches.className(Dto.class, Entity.class));
+        assertNull(GeneratedPatches.find(Dto.class, Entity.class));
+    }
+
+    @Test
+    public void shouldUseGeneratedPatch_OnlyWithMappingsOfPlan() {
+        Dto dto = new Dto();
+        dto.name = "runtime";
+        Entity planned = new Entity();
+        Entity differing = new Entity();
+        Entity unknown = new Entity();
+
+        Patcher.forType(Dto.class, Entity.class).withGeneratedPatch(new FixedPatch(Map.of("name", "name")))
+                .patch(dto, planned);
+        Patcher.forType(Dto.class, Entity.class).withGeneratedPatch(new FixedPatch(Map.of()))
+                .patch(dto, differing);
+        Patcher.forType(Dto.class, Entity.class).withGeneratedPatch(new FixedPatch(null))
+                .patch(dto, unknown);
+
+        assertEquals("generated", planned.name);
+        assertEquals("runtime", differing.name);
+        assertEquals("runtime", unknown.name);
+    }
+}
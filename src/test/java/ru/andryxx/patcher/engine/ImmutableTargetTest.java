@@ -0,0 +1,210 @@
+package ru.andryxx.patcher.engine;
+
+import org.junit.jupiter.api.Test;
+import ru.andryxx.patcher.annotations.Creator;
+import ru.andryxx.patcher.exceptions.MappingExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ImmutableTargetTest {
+    public static class Source {
+        private String name;
+        private Integer age;
+
+        public Source(String name, Integer age) {
+            this.name = name;
+            this.age = age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+    }
+
+    public record Person(String name, Integer age, String city) {
+    }
+
+    public static final class BuiltPerson {
+        private final String name;
+        private final Integer age;
+        private final String city;
+
+        private BuiltPerson(String name, Integer age, String city) {
+            this.name = name;
+            this.age = age;
+            this.city = city;
+        }
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public String getCity() {
+            return city;
+        }
+
+        public static final class Builder {
+            private String name;
+            private Integer age;
+            private String city = "Unknown";
+
+            public Builder name(String name) {
+                this.name = name;
+                return this;
+            }
+
+            public Builder age(Integer age) {
+                this.age = age;
+                return this;
+            }
+
+            public Builder city(String city) {
+                this.city = city;
+                return this;
+            }
+
+            public BuiltPerson build() {
+                return new BuiltPerson(name, age, city);
+            }
+        }
+    }
+
+    /**
+     * Shaped like a Lombok {@code @Data @Builder} class: a builder, setters and no constructor without parameters.
+     */
+    public static class DataPerson {
+        private String name;
+        private Integer age;
+
+        DataPerson(String name, Integer age) {
+            this.name = name;
+            this.age = age;
+        }
+
+        public static Builder builder() {
+            return new Builder();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public void setAge(Integer age) {
+            this.age = age;
+        }
+
+        public static class Builder {
+            private String name;
+            private Integer age;
+
+            public Builder name(String name) {
+                this.name = name;
+                return this;
+            }
+
+            public Builder age(Integer age) {
+                this.age = age;
+                return this;
+            }
+
+            public DataPerson build() {
+                return new DataPerson(name, age);
+            }
+        }
+    }
+
+    public static final class CreatedPerson {
+        private final String name;
+        private final Integer age;
+
+        @Creator
+        public CreatedPerson(String name, Integer age) {
+            this.name = name;
+            this.age = age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+    }
+
+    @Test
+    public void shouldPatchCopyOfRecord() {
+        var patcher = Patcher.forType(Source.class, Person.class).ignoreNull();
+        Person person = new Person("foo", 30, "Moscow");
+
+        Person copy = patcher.patchCopy(new Source("bar", null), person);
+
+        assertEquals(new Person("bar", 30, "Moscow"), copy);
+        assertEquals(new Person("foo", 30, "Moscow"), person);
+        assertThrows(MappingExecutionException.class, () -> patcher.patch(new Source("bar", null), person));
+    }
+
+    @Test
+    public void shouldConstructWithBuilder() {
+        var patcher = Patcher.forType(Source.class, BuiltPerson.class).ignoreNull();
+        BuiltPerson person = BuiltPerson.builder().name("foo").age(30).city("Moscow").build();
+
+        BuiltPerson copy = patcher.patchCopy(new Source(null, 31), person);
+        BuiltPerson mapped = patcher.map(new Source("bar", 20));
+
+        assertNotSame(person, copy);
+        assertEquals("foo", copy.getName());
+        assertEquals(31, copy.getAge());
+        assertEquals("Moscow", copy.getCity());
+        assertEquals("bar", mapped.getName());
+        assertEquals(20, mapped.getAge());
+        assertEquals("Unknown", mapped.getCity());
+    }
+
+    @Test
+    public void shouldPatchMutableTypeWithBuilder_ThroughSetters() {
+        var patcher = Patcher.forType(Source.class, DataPerson.class).ignoreNull();
+        DataPerson person = DataPerson.builder().name("foo").age(30).build();
+
+        patcher.patch(new Source("bar", null), person);
+
+        assertEquals("bar", person.getName());
+        assertEquals(30, person.getAge());
+        assertThrows(MappingExecutionException.class, () -> patcher.patchCopy(new Source("bar", null), person));
+    }
+
+    @Test
+    public void shouldConstructWithCreatorParameters() {
+        var patcher = Patcher.forType(Source.class, CreatedPerson.class);
+
+        CreatedPerson copy = patcher.patchCopy(new Source("bar", 20), new CreatedPerson("foo", 30));
+
+        assertEquals("bar", copy.getName());
+        assertEquals(20, copy.getAge());
+        assertThrows(MappingExecutionException.class,
+                () -> Patcher.forType(Source.class, CreatorTest.Source.class)
+                        .patchCopy(new Source("bar", 20), new CreatorTest.Source()));
+    }
+}
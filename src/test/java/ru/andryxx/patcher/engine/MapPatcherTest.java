@@ -0,0 +1,207 @@
+package ru.andryxx.patcher.engine;
+
+import org.junit.jupiter.api.Test;
+import ru.andryxx.patcher.annotations.IgnoreIfNull;
+import ru.andryxx.patcher.annotations.LogChange;
+import ru.andryxx.patcher.classes.TestAddress;
+import ru.andryxx.patcher.classes.TestEntity;
+import ru.andryxx.patcher.exceptions.MappingExecutionException;
+import ru.andryxx.patcher.logging.PatchLogger;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MapPatcherTest {
+    public static class Document {
+        public String title = "title";
+        public Map<String, Object> tags = new HashMap<>(Map.of("a", 1, "b", Map.of("c", 2)));
+        public long size = 5;
+        public short version = 1;
+    }
+
+    public static class Profile {
+        @IgnoreIfNull
+        private String nickname = "nick";
+        @LogChange
+        private String email = "foo@example.com";
+        private int rating = 1;
+        private TestAddress address = new TestAddress("Moscow", 101000);
+
+        public String getNickname() {
+            return nickname;
+        }
+
+        public void setNickname(String nickname) {
+            this.nickname = nickname;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public void setEmail(String email) {
+            this.email = email;
+        }
+
+        public int getRating() {
+            return rating;
+        }
+
+        public void setRating(int rating) {
+            this.rating = rating;
+        }
+
+        public TestAddress getAddress() {
+            return address;
+        }
+
+        public void setAddress(TestAddress address) {
+            this.address = address;
+        }
+    }
+
+    private static TestEntity getEntity() {
+        TestEntity entity = new TestEntity();
+        entity.setName("foo");
+        entity.setAge(10);
+        entity.setActive(true);
+        entity.setAddress(new TestAddress("Moscow", 101000));
+        return entity;
+    }
+
+    @Test
+    public void shouldApplyOnlyPresentKeys_WithNullRemoval() {
+        var patcher = Patcher.forMap(TestEntity.class);
+        Map<String, Object> patch = new HashMap<>();
+        patch.put("name", null);
+        patch.put("active", null);
+        patch.put("birthdate", "2000-01-02");
+        patch.put("unknown", "ignored");
+        TestEntity entity = getEntity();
+
+        patcher.patch(patch, entity);
+
+        assertNull(entity.getName());
+        assertEquals(false, entity.isActive());
+        assertEquals(10, entity.getAge());
+        assertEquals(LocalDate.of(2000, 1, 2), entity.getBirthdate());
+    }
+
+    @Test
+    public void shouldMergeNestedObjects() {
+        var patcher = Patcher.forMap(TestEntity.class);
+        TestEntity entity = getEntity();
+        TestAddress address = entity.getAddress();
+
+        patcher.patch(Map.of("address", Map.of("city", "Kazan")), entity);
+
+        assertSame(address, entity.getAddress());
+        assertEquals("Kazan", address.getCity());
+        assertEquals(101000, address.getZipCode());
+
+        TestEntity empty = patcher.map(Map.of("address", Map.of("zipCode", 420000)));
+        assertEquals(420000, empty.getAddress().getZipCode());
+        assertNull(empty.getAddress().getCity());
+    }
+
+    @Test
+    public void shouldMergeMapProperties_AndConvertNumbers() {
+        var patcher = Patcher.forMap(Document.class);
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("c", null);
+        nested.put("d", 3);
+        Map<String, Object> tags = new LinkedHashMap<>();
+        tags.put("a", null);
+        tags.put("b", nested);
+        Document document = new Document();
+
+        patcher.patch(Map.of("tags", tags, "size", 7, "version", 2), document);
+
+        assertEquals(Map.of("b", Map.of("d", 3)), document.tags);
+        assertEquals(7L, document.size);
+        assertEquals((short) 2, document.version);
+        assertThrows(MappingExecutionException.class, () -> patcher.patch(Map.of("version", 100_000), document));
+        assertThrows(MappingExecutionException.class, () -> patcher.patch(Map.of("size", 1.5), document));
+    }
+
+    @Test
+    public void shouldUseKeyMappingsAndTransformers_ByRuntimeType() {
+        var patcher = Patcher.forMap(TestEntity.class)
+                .withFieldMapping("fullName", "name")
+                .withTransformer("fullName", Transformer.of(String.class, String.class, String::toUpperCase))
+                .withTransformer(Double.class, Integer.class, Double::intValue)
+                .ignoreTo("active");
+        TestEntity entity = getEntity();
+
+        patcher.patch(Map.of("fullName", "bar", "name", "ignored", "age", 20.7, "active", false), entity);
+
+        assertEquals("BAR", entity.getName());
+        assertEquals(20, entity.getAge());
+        assertEquals(true, entity.isActive());
+    }
+
+    @Test
+    public void shouldWrapConversionErrors_WithKeyName() {
+        var patcher = Patcher.forMap(TestEntity.class);
+
+        var e = assertThrows(MappingExecutionException.class,
+                () -> patcher.patch(Map.of("age", "twenty"), getEntity()));
+        assertEquals("Exception during mapping age to age", e.getMessage());
+    }
+
+    @Test
+    public void shouldApplyPatcherSettings_ToMapSources() {
+        List<String> changes = new ArrayList<>();
+        PatchLogger logger = new PatchLogger() {
+            @Override
+            public void logObjInfo(Object from, Object to) {
+            }
+
+            @Override
+            public void log(String fromField, String toField, Object newValue) {
+                changes.add(fromField + "=" + newValue);
+            }
+        };
+        var patcher = Patcher.forMap(Profile.class)
+                .withLogger(logger)
+                .withTransformer(String.class, Integer.class, Integer::valueOf)
+                .withCondition("rating", (map, profile) -> profile.getRating() < 5)
+                .freeze();
+        var ignoringNull = patcher.ignoreNull();
+        Map<String, Object> patch = new HashMap<>();
+        patch.put("nickname", null);
+        patch.put("email", "bar@example.com");
+        patch.put("rating", "5");
+        patch.put("address", Map.of("zipCode", "420000"));
+        Profile profile = new Profile();
+
+        patcher.patch(patch, profile);
+        patcher.patch(Map.of("rating", "7"), profile);
+
+        assertEquals("nick", profile.getNickname());
+        assertEquals("bar@example.com", profile.getEmail());
+        assertEquals(5, profile.getRating());
+        assertEquals(420000, profile.getAddress().getZipCode());
+        assertEquals(List.of("email=bar@example.com"), changes);
+
+        assertFalse(ignoringNull == patcher);
+        ignoringNull.patch(Map.of("address", new HashMap<>(Map.of("city", "Kazan"))), profile);
+        Map<String, Object> clear = new HashMap<>();
+        clear.put("city", null);
+        ignoringNull.patch(Map.of("address", clear), profile);
+        assertEquals("Kazan", profile.getAddress().getCity());
+        patcher.patch(Map.of("address", clear), profile);
+
+        assertNull(profile.getAddress().getCity());
+    }
+}
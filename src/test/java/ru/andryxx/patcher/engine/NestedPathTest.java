@@ -0,0 +1,83 @@
+package ru.andryxx.patcher.engine;
+
+import org.junit.jupiter.api.Test;
+import ru.andryxx.patcher.annotations.MapTo;
+import ru.andryxx.patcher.classes.TestAddress;
+import ru.andryxx.patcher.classes.TestEntity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class NestedPathTest {
+    public static class FlatDto {
+        public String name;
+        public String city;
+        @MapTo("address.zipCode")
+        public int zip;
+    }
+
+    private static FlatDto getDto() {
+        FlatDto dto = new FlatDto();
+        dto.name = "foo";
+        dto.city = "Kazan";
+        dto.zip = 420000;
+        return dto;
+    }
+
+    @Test
+    public void shouldPatchNestedTargetPaths() {
+        var patcher = Patcher.forType(FlatDto.class, TestEntity.class)
+                .withFieldMapping("city", "address.city");
+        TestEntity entity = new TestEntity();
+        TestAddress address = new TestAddress("Moscow", 101000);
+        entity.setAddress(address);
+
+        patcher.patch(getDto(), entity);
+
+        assertEquals("foo", entity.getName());
+        assertSame(address, entity.getAddress());
+        assertEquals("Kazan", address.getCity());
+        assertEquals(420000, address.getZipCode());
+    }
+
+    @Test
+    public void shouldSkipOrInstantiateNullIntermediateObjects() {
+        var patcher = Patcher.forType(FlatDto.class, TestEntity.class)
+                .withFieldMapping("city", "address.city")
+                .freeze();
+        TestEntity entity = new TestEntity();
+
+        patcher.patch(getDto(), entity);
+        assertNull(entity.getAddress());
+
+        patcher.withNestedInstantiation(true).patch(getDto(), entity);
+        assertEquals("Kazan", entity.getAddress().getCity());
+        assertEquals(420000, entity.getAddress().getZipCode());
+    }
+
+    @Test
+    public void shouldReadNestedSourcePaths_AndPatchOnlySelectedPaths() {
+        var patcher = Patcher.forType(TestEntity.class, FlatDto.class)
+                .withFieldMapping("address.city", "city");
+        TestEntity entity = new TestEntity();
+        entity.setName("foo");
+        FlatDto dto = new FlatDto();
+
+        patcher.patch(entity, dto);
+        assertNull(dto.city);
+
+        entity.setAddress(new TestAddress("Kazan", 420000));
+        patcher.patchOnly("city").apply(entity, dto);
+        assertEquals("Kazan", dto.city);
+
+        var reverse = Patcher.forType(FlatDto.class, TestEntity.class)
+                .withFieldMapping("city", "address.city");
+        TestEntity target = new TestEntity();
+        target.setAddress(new TestAddress("Moscow", 101000));
+        reverse.patchOnly("address.city").apply(getDto(), target);
+        assertNull(target.getName());
+        assertEquals("Kazan", target.getAddress().getCity());
+        assertEquals(101000, target.getAddress().getZipCode());
+    }
+}
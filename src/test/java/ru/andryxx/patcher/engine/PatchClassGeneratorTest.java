@@ -0,0 +1,116 @@
+package ru.andryxx.patcher.engine;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.andryxx.patcher.classes.TestDTO;
+import ru.andryxx.patcher.classes.TestDTOs;
+import ru.andryxx.patcher.classes.TestEntity;
+import ru.andryxx.patcher.exceptions.MappingExecutionException;
+import ru.andryxx.patcher.logging.PatchLogger;
+import ru.andryxx.patcher.mapping.MappingStrategy;
+import ru.andryxx.patcher.mapping.registry.DefaultMappingRegistry;
+import ru.andryxx.patcher.mapping.registry.DefaultNamingResolver;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class PatchClassGeneratorTest {
+    private static PatcherEngine<TestDTO, TestEntity> getEngine() {
+        var engine = new PatcherEngine<>(
+                TestDTO.class,
+                TestEntity.class,
+                new DefaultMappingRegistry(new DefaultNamingResolver(), MappingStrategy.USE_METHODS_AND_FIELDS)
+        );
+        engine.setCodeGeneration(true);
+        return engine;
+    }
+
+    private static TestDTO getDto() {
+        TestDTO dto = TestDTOs.of("foo", 10);
+        dto.setActive(true);
+        dto.publicField = "bar";
+        return dto;
+    }
+
+    @Test
+    public void shouldGenerateHiddenClass() {
+        var engine = getEngine();
+        engine.patch(getDto(), new TestEntity());
+
+        var compiled = engine.getPlan().compiled();
+        assertNotNull(compiled);
+        assertTrue(compiled.getClass().isHidden());
+    }
+
+    @Test
+    public void shouldPatchSameAsInterpreted() {
+        var engine = getEngine();
+        engine.addStaticFieldMapping("fullName", "name");
+        engine.addGlobalTransformer(Transformer.of(String.class, LocalDate.class, LocalDate::parse));
+
+        var interpreted = getEngine();
+        interpreted.setCodeGeneration(false);
+        interpreted.addStaticFieldMapping("fullName", "name");
+        interpreted.addGlobalTransformer(Transformer.of(String.class, LocalDate.class, LocalDate::parse));
+
+        TestEntity entity = new TestEntity();
+        TestEntity expected = new TestEntity();
+        engine.patch(getDto(), entity);
+        interpreted.patch(getDto(), expected);
+
+        assertEquals(expected, entity);
+        assertEquals(LocalDate.of(2000, 1, 1), entity.getBirthdate());
+    }
+
+    @Test
+    public void shouldApplyNullChecksAndConditions() {
+        var engine = getEngine();
+        engine.addStaticFieldMapping("fullName", "name");
+        engine.ignoreNullField("fullName", true);
+        engine.addFieldCondition("age", (d, e) -> d.getAge() > 20);
+
+        TestDTO dto = getDto();
+        dto.setFullName(null);
+        TestEntity entity = new TestEntity();
+        entity.setName("name");
+        entity.setAge(5);
+        engine.patch(dto, entity);
+
+        assertEquals("name", entity.getName());
+        assertEquals(5, entity.getAge());
+        assertEquals("bar", entity.publicField);
+    }
+
+    @Test
+    public void shouldLogOnlyFlaggedFields() {
+        var engine = getEngine();
+        PatchLogger logger = Mockito.mock(PatchLogger.class);
+        engine.setLogger(logger);
+        engine.setFieldLogChange("age", true);
+
+        engine.patch(getDto(), new TestEntity());
+
+        verify(logger, times(1)).log(eq("age"), eq("age"), eq(10));
+        verify(logger, never()).log(eq("publicField"), eq("publicField"), eq("bar"));
+    }
+
+    @Test
+    public void shouldWrapStepExceptions() {
+        var engine = getEngine();
+        engine.addFieldTransformer("birthdate", Transformer.of(String.class, LocalDate.class, LocalDate::parse));
+
+        TestDTO dto = getDto();
+        dto.setBirthdate("2000-янв-01");
+
+        var e = assertThrows(MappingExecutionException.class, () -> engine.patch(dto, new TestEntity()));
+        assertEquals("Exception during mapping birthdate to birthdate", e.getMessage());
+    }
+}
@@ -0,0 +1,115 @@
+package ru.andryxx.patcher.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.andryxx.patcher.mapping.PatchPresence;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class PatchPresenceTest {
+    public static class PartialDto implements PatchPresence {
+        private static final List<String> FIELDS = List.of("name", "age", "email");
+
+        private final BitSet present = new BitSet();
+        private String name;
+        private Integer age;
+        private String email;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            present.set(0);
+            this.name = name;
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public void setAge(Integer age) {
+            present.set(1);
+            this.age = age;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public void setEmail(String email) {
+            present.set(2);
+            this.email = email;
+        }
+
+        @Override
+        public List<String> trackedFields() {
+            return FIELDS;
+        }
+
+        @Override
+        public BitSet presentFields() {
+            return present;
+        }
+    }
+
+    public static class Entity {
+        public String name = "foo";
+        public Integer age = 10;
+        public String email = "foo@example.com";
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void shouldPatchOnlyPresentFields_IncludingNulls(boolean generateCode) {
+        var patcher = Patcher.forType(PartialDto.class, Entity.class)
+                .withCodeGeneration(generateCode)
+                .freeze();
+        PartialDto dto = new PartialDto();
+        dto.setName(null);
+        dto.setAge(20);
+        Entity entity = new Entity();
+
+        patcher.patch(dto, entity);
+
+        assertNull(entity.name);
+        assertEquals(20, entity.age);
+        assertEquals("foo@example.com", entity.email);
+    }
+
+    @Test
+    public void shouldReportOnlyPresentFields_InResult() {
+        var patcher = Patcher.forType(PartialDto.class, Entity.class);
+        PartialDto dto = new PartialDto();
+        dto.setEmail("bar@example.com");
+        Entity entity = new Entity();
+
+        PatchResult result = patcher.patchWithResult(dto, entity);
+
+        assertEquals(Set.of("email"), result.getChangedFields());
+        assertEquals("foo", entity.name);
+        assertEquals(10, entity.age);
+    }
+
+    @Test
+    public void shouldApplyUserConfiguration_ToPresentFields() {
+        var patcher = Patcher.forType(PartialDto.class, Entity.class)
+                .ignoreNull("name")
+                .withFieldMapping("email", "name");
+        PartialDto dto = new PartialDto();
+        dto.setEmail("bar@example.com");
+        Entity entity = new Entity();
+
+        patcher.patch(dto, entity);
+
+        assertEquals("bar@example.com", entity.name);
+        assertEquals("foo@example.com", entity.email);
+        assertEquals(10, entity.age);
+    }
+}
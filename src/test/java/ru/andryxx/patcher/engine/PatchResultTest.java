@@ -0,0 +1,91 @@
+package ru.andryxx.patcher.engine;
+
+import org.junit.jupiter.api.Test;
+import ru.andryxx.patcher.classes.TestAddress;
+import ru.andryxx.patcher.classes.TestDTO;
+import ru.andryxx.patcher.classes.TestDTOs;
+import ru.andryxx.patcher.classes.TestEntity;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PatchResultTest {
+    private static TestDTO getDto() {
+        TestDTO dto = TestDTOs.of("foo", 10);
+        dto.publicField = "bar";
+        return dto;
+    }
+
+    private static TestEntity getEntity() {
+        TestEntity entity = new TestEntity();
+        entity.setName("foo");
+        entity.setAge(5);
+        entity.setBirthdate(LocalDate.of(2000, 1, 1));
+        return entity;
+    }
+
+    @Test
+    public void shouldReportChangedFields_WithOldAndNewValues() {
+        var patcher = Patcher.forType(TestDTO.class, TestEntity.class)
+                .withFieldMapping("fullName", "name");
+        TestEntity entity = getEntity();
+
+        PatchResult result = patcher.patchWithResult(getDto(), entity);
+
+        assertTrue(result.hasChanges());
+        assertEquals(Set.of("age", "publicField"), result.getChangedFields());
+        assertEquals(2, result.getChangedSteps().cardinality());
+        assertEquals(5, result.getOldValue("age"));
+        assertEquals(10, result.getNewValue("age"));
+        assertNull(result.getOldValue("publicField"));
+        assertEquals("bar", result.getNewValue("publicField"));
+        assertFalse(result.isChanged("name"));
+        assertFalse(result.isChanged("birthdate"));
+        assertEquals(10, entity.getAge());
+    }
+
+    @Test
+    public void shouldReportNoChanges_ForRepeatedPatch() {
+        var patcher = Patcher.forType(TestDTO.class, TestEntity.class)
+                .withFieldMapping("fullName", "name")
+                .withCodeGeneration()
+                .freeze();
+        TestEntity entity = getEntity();
+        patcher.patch(getDto(), entity);
+
+        PatchResult result = patcher.patchWithResult(getDto(), entity);
+
+        assertFalse(result.hasChanges());
+        assertEquals(Set.of(), result.getChangedFields());
+        assertEquals("PatchResult[]", result.toString());
+    }
+
+    @Test
+    public void shouldReportNestedObjects_OnlyIfReplaced() {
+        var patcher = Patcher.forType(DeepPatchTest.PersonDto.class, DeepPatchTest.Person.class).deep().freeze();
+        DeepPatchTest.PersonDto dto = new DeepPatchTest.PersonDto();
+        dto.name = "foo";
+        dto.address = new DeepPatchTest.AddressDto();
+        dto.address.city = "Kazan";
+        DeepPatchTest.Person existing = new DeepPatchTest.Person();
+        existing.name = "foo";
+        existing.address = new TestAddress("Moscow", 101000);
+        DeepPatchTest.Person created = new DeepPatchTest.Person();
+
+        PatchResult patched = patcher.patchWithResult(dto, existing);
+        PatchResult replaced = patcher.patchWithResult(dto, created);
+
+        assertFalse(patched.hasChanges());
+        assertEquals("Kazan", existing.address.getCity());
+        assertEquals(Set.of("name", "address"), replaced.getChangedFields());
+        assertNull(replaced.getOldValue("address"));
+        assertInstanceOf(TestAddress.class, replaced.getNewValue("address"));
+        assertEquals("Kazan", ((TestAddress) replaced.getNewValue("address")).getCity());
+    }
+}
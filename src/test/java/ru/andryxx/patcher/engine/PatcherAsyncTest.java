@@ -0,0 +1,87 @@
+package ru.andryxx.patcher.engine;
+
+import org.junit.jupiter.api.Test;
+import ru.andryxx.patcher.classes.TestDTO;
+import ru.andryxx.patcher.classes.TestDTOs;
+import ru.andryxx.patcher.classes.TestEntity;
+import ru.andryxx.patcher.exceptions.MappingExecutionException;
+import ru.andryxx.patcher.exceptions.ValidationException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PatcherAsyncTest {
+    @Test
+    public void shouldPatchAsync_OnVirtualThread() {
+        AtomicInteger platformThreads = new AtomicInteger();
+        var patcher = Patcher.forType(TestDTO.class, TestEntity.class)
+                .withFieldMapping("fullName", "name")
+                .withMap((dto, entity) -> {
+                    if (!Thread.currentThread().isVirtual()) {
+                        platformThreads.incrementAndGet();
+                    }
+                });
+        TestEntity entity = new TestEntity();
+
+        TestEntity result = patcher.patchAsync(TestDTOs.of("foo", 10), entity).join();
+
+        assertSame(entity, result);
+        assertEquals("foo", entity.getName());
+        assertEquals(0, platformThreads.get());
+        assertEquals(10, patcher.mapAsync(TestDTOs.of("foo", 10)).join().getAge());
+    }
+
+    @Test
+    public void shouldNotBeLimitedByPoolSize_BlockingValidator() {
+        var patcher = Patcher.forType(TestDTO.class, TestEntity.class)
+                .withValidator(entity -> {
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })
+                .freeze();
+        List<TestDTO> dtos = IntStream.range(0, 1000).mapToObj(age -> TestDTOs.of("foo", age)).toList();
+
+        List<TestEntity> entities = assertTimeoutPreemptively(Duration.ofSeconds(20), () ->
+                patcher.mapAllAsync(dtos).stream().map(CompletableFuture::join).toList());
+
+        for (int i = 0; i < entities.size(); i++) {
+            assertEquals(i, entities.get(i).getAge());
+        }
+    }
+
+    @Test
+    public void shouldCompleteExceptionally_OnlyFailedElements() {
+        var patcher = Patcher.forType(TestDTO.class, TestEntity.class)
+                .withValidator(entity -> {
+                    if (entity.getAge() == 1) {
+                        throw new ValidationException("age");
+                    }
+                });
+        List<TestDTO> dtos = IntStream.range(0, 3).mapToObj(age -> TestDTOs.of("foo", age)).toList();
+        dtos.get(2).setBirthdate("not a date");
+        List<TestEntity> entities = List.of(new TestEntity(), new TestEntity(), new TestEntity());
+
+        List<CompletableFuture<TestEntity>> results = patcher.patchAllAsync(dtos, entities);
+
+        assertSame(entities.get(0), results.get(0).join());
+        var validation = assertThrows(CompletionException.class, () -> results.get(1).join());
+        assertInstanceOf(ValidationException.class, validation.getCause());
+        var mapping = assertThrows(CompletionException.class, () -> results.get(2).join());
+        assertInstanceOf(MappingExecutionException.class, mapping.getCause());
+        assertTrue(results.stream().allMatch(CompletableFuture::isDone));
+    }
+}
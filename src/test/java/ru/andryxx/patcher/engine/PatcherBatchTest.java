@@ -0,0 +1,75 @@
+package ru.andryxx.patcher.engine;
+
+import org.junit.jupiter.api.Test;
+import ru.andryxx.patcher.classes.TestDTO;
+import ru.andryxx.patcher.classes.TestDTOs;
+import ru.andryxx.patcher.classes.TestEntity;
+import ru.andryxx.patcher.exceptions.MappingExecutionException;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PatcherBatchTest {
+    private static Patcher<TestDTO, TestEntity> getPatcher() {
+        return Patcher.forType(TestDTO.class, TestEntity.class)
+                .withFieldMapping("fullName", "name")
+                .withParallelismThreshold(100);
+    }
+
+    @Test
+    public void shouldMapAll_InInputOrder() {
+        List<TestDTO> dtos = IntStream.range(0, 10_000).mapToObj(age -> TestDTOs.of("foo" + age, age))
+                .collect(LinkedList::new, List::add, List::addAll);
+
+        List<TestEntity> entities = getPatcher().freeze().mapAll(dtos);
+
+        assertEquals(dtos.size(), entities.size());
+        for (int i = 0; i < entities.size(); i++) {
+            assertEquals(i, entities.get(i).getAge());
+            assertEquals("foo" + i, entities.get(i).getName());
+        }
+    }
+
+    @Test
+    public void shouldMapAll_Arrays() {
+        TestDTO[] dtos = IntStream.range(0, 1000).mapToObj(age -> TestDTOs.of("foo" + age, age))
+                .toArray(TestDTO[]::new);
+
+        TestEntity[] entities = getPatcher().mapAll(dtos);
+
+        assertEquals(TestEntity[].class, entities.getClass());
+        for (int i = 0; i < entities.length; i++) {
+            assertEquals(i, entities[i].getAge());
+        }
+    }
+
+    @Test
+    public void shouldPatchAll_PairsWithSameIndex() {
+        List<TestDTO> dtos = IntStream.range(0, 1000).mapToObj(age -> TestDTOs.of("foo" + age, age)).toList();
+        List<TestEntity> entities = new ArrayList<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            entities.add(new TestEntity());
+        }
+
+        getPatcher().patchAll(dtos, entities);
+
+        for (int i = 0; i < entities.size(); i++) {
+            assertEquals("foo" + i, entities.get(i).getName());
+        }
+        assertThrows(IllegalArgumentException.class, () -> getPatcher().patchAll(dtos, entities.subList(0, 10)));
+    }
+
+    @Test
+    public void shouldRethrowMappingException_FromParallelBatch() {
+        List<TestDTO> dtos = IntStream.range(0, 1000).mapToObj(age -> TestDTOs.of("foo" + age, age)).toList();
+        dtos.get(500).setBirthdate("not a date");
+
+        var e = assertThrows(MappingExecutionException.class, () -> getPatcher().mapAll(dtos));
+        assertEquals("Exception during mapping birthdate to birthdate", e.getMessage());
+    }
+}
@@ -24,7 +24,9 @@ import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
@@ -665,6 +667,26 @@ public class PatcherEngineTest {
         assertFalse(entity.isActive());
     }
 
+    @Test
+    public void shouldPatch_WithUnresolvableMappingToIgnoredField() {
+        var engine = getEngine(MappingStrategy.USE_METHODS_AND_FIELDS);
+
+        TestDTO dto = new TestDTO();
+        dto.setFullName("name");
+        dto.setActive(true);
+
+        TestEntity entity = new TestEntity();
+        entity.setAge(5);
+
+        engine.addStaticFieldMapping("fullName", "age");
+        engine.ignoreToField("age", true);
+        engine.patch(dto, entity);
+        engine.patchSelective(Set.of("active"), dto, entity);
+
+        assertEquals(5, entity.getAge());
+        assertTrue(entity.isActive());
+    }
+
     @Test
     public void shouldMapWithDefaultCtor_SameAsPatchOnNew() {
         var engine = getEngine(MappingStrategy.USE_METHODS_AND_FIELDS);
@@ -704,4 +726,43 @@ public class PatcherEngineTest {
         assertTrue(entity.isActive());
         assertEquals("publicField", entity.publicField);
     }
+
+    @Test
+    public void shouldReusePlan_UntilConfigurationChanges() {
+        var engine = getEngine(MappingStrategy.USE_METHODS_AND_FIELDS);
+        engine.addStaticFieldMapping("fullName", "name");
+
+        TestDTO dto = new TestDTO();
+        dto.setFullName("name");
+        dto.setAge(10);
+
+        engine.patch(dto, new TestEntity());
+        var plan = engine.getPlan();
+        engine.patch(dto, new TestEntity());
+        assertSame(plan, engine.getPlan());
+
+        engine.ignoreToField("age", true);
+        TestEntity entity = new TestEntity();
+        engine.patch(dto, entity);
+        assertNotSame(plan, engine.getPlan());
+        assertEquals(0, entity.getAge());
+        assertEquals("name", entity.getName());
+    }
+
+    @Test
+    public void shouldEvaluateNullChecksPerCall_WithCachedPlan() {
+        var engine = getEngine(MappingStrategy.USE_METHODS_AND_FIELDS);
+        engine.addStaticFieldMapping("fullName", "name");
+        engine.ignoreNullField("fullName", true);
+
+        TestDTO dto = new TestDTO();
+        dto.setFullName("foo");
+        TestEntity entity = new TestEntity();
+        engine.patch(dto, entity);
+        assertEquals("foo", entity.getName());
+
+        dto.setFullName(null);
+        engine.patch(dto, entity);
+        assertEquals("foo", entity.getName());
+    }
 }
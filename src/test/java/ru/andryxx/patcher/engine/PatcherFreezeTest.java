@@ -0,0 +1,129 @@
+package ru.andryxx.patcher.engine;
+
+import org.junit.jupiter.api.Test;
+import ru.andryxx.patcher.classes.TestDTO;
+import ru.andryxx.patcher.classes.TestDTOs;
+import ru.andryxx.patcher.classes.TestEntity;
+import ru.andryxx.patcher.mapping.MappingStrategy;
+import ru.andryxx.patcher.mapping.registry.DefaultMappingRegistry;
+import ru.andryxx.patcher.mapping.registry.DefaultNamingResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PatcherFreezeTest {
+    @Test
+    public void shouldNotBeAffected_ByChangesOfOriginalPatcher() {
+        var patcher = Patcher.forType(TestDTO.class, TestEntity.class)
+                .withFieldMapping("fullName", "name");
+        var frozen = patcher.freeze();
+        patcher.ignoreTo("name");
+
+        TestEntity entity = new TestEntity();
+        frozen.patch(TestDTOs.of("foo", 10), entity);
+
+        assertTrue(frozen.isFrozen());
+        assertFalse(patcher.isFrozen());
+        assertSame(frozen, frozen.freeze());
+        assertEquals("foo", entity.getName());
+    }
+
+    @Test
+    public void shouldCopyOnWrite_WhenFrozenPatcherIsConfigured() {
+        var frozen = Patcher.forType(TestDTO.class, TestEntity.class)
+                .withFieldMapping("fullName", "name")
+                .freeze();
+        var derived = frozen.ignoreTo("name");
+
+        TestEntity fromFrozen = new TestEntity();
+        frozen.patch(TestDTOs.of("foo", 10), fromFrozen);
+        TestEntity fromDerived = new TestEntity();
+        derived.patch(TestDTOs.of("foo", 10), fromDerived);
+
+        assertNotSame(frozen, derived);
+        assertTrue(derived.isFrozen());
+        assertEquals("foo", fromFrozen.getName());
+        assertNull(fromDerived.getName());
+        assertEquals(10, fromDerived.getAge());
+    }
+
+    @Test
+    public void shouldPatchConcurrently_WithSharedFrozenPatcher() throws Exception {
+        var frozen = Patcher.forType(TestDTO.class, TestEntity.class)
+                .withFieldMapping("fullName", "name")
+                .freeze();
+
+        List<Future<TestEntity>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 1000; i++) {
+                int age = i;
+                results.add(executor.submit(() -> {
+                    TestDTO dto = TestDTOs.of("foo", 10);
+                    dto.setAge(age);
+                    return frozen.map(dto);
+                }));
+            }
+        }
+        for (int i = 0; i < results.size(); i++) {
+            TestEntity entity = results.get(i).get();
+            assertEquals("foo", entity.getName());
+            assertEquals(i, entity.getAge());
+        }
+    }
+
+    @Test
+    public void shouldShareRegistry_UntilMappingsChange() {
+        AtomicInteger copies = new AtomicInteger();
+        var registry = new DefaultMappingRegistry(new DefaultNamingResolver(), MappingStrategy.USE_METHODS_AND_FIELDS) {
+            @Override
+            public DefaultMappingRegistry copy() {
+                copies.incrementAndGet();
+                return super.copy();
+            }
+        };
+        var patcher = Patcher.defaultPatcher(TestDTO.class, TestEntity.class)
+                .useMappingRegistry(registry)
+                .withFieldMapping("fullName", "name");
+        var frozen = patcher.freeze();
+        var derived = frozen.ignoreTo("age");
+
+        TestEntity entity = new TestEntity();
+        derived.patch(TestDTOs.of("foo", 10), entity);
+
+        assertEquals("foo", entity.getName());
+        assertEquals(0, entity.getAge());
+        assertEquals(0, copies.get());
+        frozen.withFieldMapping("age", "age");
+        assertEquals(1, copies.get());
+        patcher.withFieldMapping("birthdate", "birthdate");
+        assertEquals(2, copies.get());
+        patcher.withFieldMapping("age", "age");
+        assertEquals(2, copies.get());
+    }
+
+    @Test
+    public void shouldCopyRegistry_WhenOriginalChangesMappingsAfterFreeze() {
+        var patcher = Patcher.forType(TestDTO.class, TestEntity.class);
+        var frozen = patcher.freeze();
+        patcher.withFieldMapping("fullName", "name");
+
+        TestEntity fromFrozen = new TestEntity();
+        frozen.patch(TestDTOs.of("foo", 10), fromFrozen);
+        TestEntity fromPatcher = new TestEntity();
+        patcher.patch(TestDTOs.of("foo", 10), fromPatcher);
+
+        assertNull(fromFrozen.getName());
+        assertEquals("foo", fromPatcher.getName());
+    }
+}
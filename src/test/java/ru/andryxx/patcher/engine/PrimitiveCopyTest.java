@@ -0,0 +1,111 @@
+package ru.andryxx.patcher.engine;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.andryxx.patcher.mapping.MappingStrategy;
+import ru.andryxx.patcher.mapping.access.AccessorFactory;
+import ru.andryxx.patcher.mapping.registry.DefaultMappingRegistry;
+import ru.andryxx.patcher.mapping.registry.DefaultNamingResolver;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrimitiveCopyTest {
+    public static class Dto {
+        public int count;
+        public int total;
+        public long size;
+        public double ratio;
+        public boolean active;
+
+        private int age;
+
+        public int getAge() {
+            return age;
+        }
+    }
+
+    public static class Entity {
+        public int count;
+        public long total;
+        public double size;
+        public double ratio;
+        public boolean active;
+
+        private int age;
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+    }
+
+    private static PatcherEngine<Dto, Entity> getEngine(boolean generateCode) {
+        var engine = new PatcherEngine<>(Dto.class, Entity.class, new DefaultMappingRegistry(
+                new DefaultNamingResolver(), MappingStrategy.USE_METHODS_AND_FIELDS, AccessorFactory.compiled()));
+        engine.setCodeGeneration(generateCode);
+        return engine;
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void shouldCopyAndWidenPrimitives_WithoutBoxingSteps(boolean generateCode) {
+        var engine = getEngine(generateCode);
+        Dto dto = new Dto();
+        dto.count = 1;
+        dto.total = 2;
+        dto.size = 3L;
+        dto.ratio = 0.5;
+        dto.active = true;
+        dto.age = 42;
+        Entity entity = new Entity();
+
+        engine.patch(dto, entity);
+
+        assertEquals(1, entity.count);
+        assertEquals(2L, entity.total);
+        assertEquals(3.0, entity.size);
+        assertEquals(0.5, entity.ratio);
+        assertTrue(entity.active);
+        assertEquals(42, entity.age);
+        assertEquals(6, engine.getPlan().steps().length);
+        assertTrue(Arrays.stream(engine.getPlan().steps()).allMatch(step -> step.primitiveCopy() != null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void shouldUseBoxedStep_WhenChangeIsLogged(boolean generateCode) {
+        var engine = getEngine(generateCode);
+        engine.setFieldLogChange("total", true);
+        Dto dto = new Dto();
+        dto.total = 2;
+        Entity entity = new Entity();
+
+        engine.patch(dto, entity);
+
+        assertEquals(2L, entity.total);
+        var step = Arrays.stream(engine.getPlan().steps())
+                .filter(s -> s.mapping().toFieldName().equals("total"))
+                .findFirst()
+                .orElseThrow();
+        assertNull(step.primitiveCopy());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void shouldPreferRegisteredTransformer_OverWidening(boolean generateCode) {
+        var engine = getEngine(generateCode);
+        engine.addGlobalTransformer(Transformer.of(Integer.class, Long.class, value -> value * 10L));
+        Dto dto = new Dto();
+        dto.count = 1;
+        dto.total = 2;
+        Entity entity = new Entity();
+
+        engine.patch(dto, entity);
+
+        assertEquals(1, entity.count);
+        assertEquals(20L, entity.total);
+    }
+}
@@ -0,0 +1,67 @@
+package ru.andryxx.patcher.engine;
+
+import org.junit.jupiter.api.Test;
+import ru.andryxx.patcher.classes.TestDTO;
+import ru.andryxx.patcher.classes.TestDTOs;
+import ru.andryxx.patcher.classes.TestEntity;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ProjectionTest {
+    @Test
+    public void shouldProjectToMap_WithTargetNamesAndTransformers() {
+        var patcher = Patcher.forType(TestDTO.class, TestEntity.class)
+                .withFieldMapping("fullName", "name")
+                .ignoreNull("publicField");
+
+        Map<String, Object> map = patcher.toMap(TestDTOs.of("foo", 10));
+
+        assertEquals(Map.of("name", "foo", "age", 10, "active", false,
+                "birthdate", LocalDate.of(2000, 1, 1)), map);
+        assertFalse(map.containsKey("publicField"));
+        assertEquals(patcher.getColumns().stream().filter(map::containsKey).toList(), List.copyOf(map.keySet()));
+    }
+
+    @Test
+    public void shouldProjectRows_InColumnOrder() {
+        var patcher = Patcher.forType(TestEntity.class, TestEntity.class)
+                .withParallelismThreshold(10)
+                .freeze();
+        List<TestEntity> entities = IntStream.range(0, 100).mapToObj(i -> {
+            TestEntity entity = new TestEntity();
+            entity.setName("name" + i);
+            entity.setAge(i);
+            return entity;
+        }).toList();
+
+        List<Object[]> rows = patcher.toRows(entities);
+
+        List<String> columns = patcher.getColumns();
+        int name = columns.indexOf("name");
+        int age = columns.indexOf("age");
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(columns.size(), rows.get(i).length);
+            assertEquals("name" + i, rows.get(i)[name]);
+            assertEquals(i, rows.get(i)[age]);
+        }
+        assertArrayEquals(rows.get(5), patcher.toRow(entities.get(5)));
+    }
+
+    @Test
+    public void shouldShareKeyInstances_BetweenMaps() {
+        var patcher = Patcher.forType(TestDTO.class, TestEntity.class).freeze();
+
+        String first = patcher.toMap(TestDTOs.of("foo", 1)).keySet().iterator().next();
+        String second = patcher.toMap(TestDTOs.of("foo", 2)).keySet().iterator().next();
+
+        assertSame(first, second);
+    }
+}
@@ -0,0 +1,58 @@
+package ru.andryxx.patcher.engine;
+
+import org.junit.jupiter.api.Test;
+import ru.andryxx.patcher.classes.TestDTO;
+import ru.andryxx.patcher.classes.TestEntity;
+import ru.andryxx.patcher.exceptions.MappingExecutionException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RecordMappingTest {
+    public record PersonRecord(String name, int age, LocalDate birthdate) {
+    }
+
+    @Test
+    public void shouldReadRecordComponents() {
+        var patcher = Patcher.forType(PersonRecord.class, TestEntity.class);
+        TestEntity entity = new TestEntity();
+
+        patcher.patch(new PersonRecord("foo", 30, LocalDate.of(2000, 1, 1)), entity);
+
+        assertEquals("foo", entity.getName());
+        assertEquals(30, entity.getAge());
+        assertEquals(LocalDate.of(2000, 1, 1), entity.getBirthdate());
+    }
+
+    @Test
+    public void shouldCreateRecordTargets_WithCanonicalConstructor() {
+        var patcher = Patcher.forType(TestDTO.class, PersonRecord.class)
+                .withFieldMapping("fullName", "name")
+                .freeze();
+        TestDTO dto = new TestDTO();
+        dto.setFullName("foo");
+        dto.setAge(30);
+        dto.setBirthdate("2000-01-01");
+
+        assertEquals(new PersonRecord("foo", 30, LocalDate.of(2000, 1, 1)), patcher.map(dto));
+        assertEquals(List.of(new PersonRecord(null, 0, null)),
+                patcher.ignoreNull().mapAll(List.of(new TestDTO())));
+        assertThrows(MappingExecutionException.class,
+                () -> patcher.patch(dto, new PersonRecord(null, 0, null)));
+    }
+
+    @Test
+    public void shouldCopyRecords() {
+        var patcher = Patcher.forType(PersonRecord.class, PersonRecord.class);
+        PersonRecord record = new PersonRecord("foo", 30, null);
+
+        PersonRecord copy = patcher.map(record);
+
+        assertEquals(record, copy);
+        assertNull(copy.birthdate());
+    }
+}
@@ -0,0 +1,179 @@
+package ru.andryxx.patcher.engine;
+
+import org.junit.jupiter.api.Test;
+import ru.andryxx.patcher.exceptions.MappingExecutionException;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TransformerTableTest {
+    public static class Source {
+        private Integer count;
+        private String total;
+
+        public Integer getCount() {
+            return count;
+        }
+
+        public void setCount(Integer count) {
+            this.count = count;
+        }
+
+        public String getTotal() {
+            return total;
+        }
+
+        public void setTotal(String total) {
+            this.total = total;
+        }
+    }
+
+    public static class Target {
+        private String count;
+        private long total;
+
+        public String getCount() {
+            return count;
+        }
+
+        public void setCount(String count) {
+            this.count = count;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public void setTotal(long total) {
+            this.total = total;
+        }
+    }
+
+    public static class Person {
+        private Integer age;
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public void setAge(Integer age) {
+            this.age = age;
+        }
+    }
+
+    public static class Account {
+        private Long age = 5L;
+
+        public Long getAge() {
+            return age;
+        }
+
+        public void setAge(Long age) {
+            this.age = age;
+        }
+    }
+
+    @Test
+    public void shouldNotPassBoxedSources_ToPrimitiveTransformers() {
+        var table = new TransformerTable(Map.of(int.class, Map.of(Long.class, (Function<Integer, Long>) Long::valueOf)),
+                Map.of());
+        Account account = new Account();
+
+        Patcher.forType(Person.class, Account.class).patch(new Person(), account);
+
+        assertEquals(5L, account.getAge());
+        assertNull(table.global(Integer.class, Long.class));
+        assertSame(table.global(int.class, Long.class), table.global(int.class, Number.class));
+    }
+
+    @Test
+    public void shouldMatchGlobalTransformersThroughSupertypesAndBoxing() {
+        var patcher = Patcher.forType(Source.class, Target.class)
+                .withTransformer(Object.class, String.class, value -> "object " + value)
+                .withTransformer(Number.class, String.class, value -> "number " + value)
+                .withTransformer(String.class, Long.class, Long::valueOf);
+        Source source = new Source();
+        source.setCount(1);
+        source.setTotal("42");
+        Target target = new Target();
+
+        patcher.patch(source, target);
+
+        assertEquals("number 1", target.getCount());
+        assertEquals(42L, target.getTotal());
+    }
+
+    @Test
+    public void shouldMemoizeResolvedTransformers() {
+        Function<Number, String> number = String::valueOf;
+        Function<Object, String> object = String::valueOf;
+        var table = new TransformerTable(
+                Map.of(Number.class, Map.of(String.class, number), Object.class, Map.of(String.class, object)),
+                Map.of("count", List.of(Transformer.of(Integer.class, CharSequence.class, String::valueOf))));
+
+        assertSame(number, table.global(Integer.class, String.class));
+        assertSame(number, table.global(int.class, CharSequence.class));
+        assertSame(object, table.global(Boolean.class, String.class));
+        assertSame(table.field("count", int.class, CharSequence.class),
+                table.field("count", int.class, CharSequence.class));
+        assertNull(table.field("count", int.class, String.class));
+        assertNull(table.global(String.class, Integer.class));
+    }
+
+    @Test
+    public void shouldChainGlobalTransformers() {
+        var patcher = Patcher.forType(Source.class, Target.class)
+                .withTransformer(Integer.class, Long.class, Integer::longValue)
+                .withTransformer(Long.class, String.class, value -> "long " + value)
+                .withTransformer(String.class, LocalDateTime.class, LocalDateTime::parse)
+                .withTransformer(LocalDateTime.class, Instant.class, value -> value.toInstant(ZoneOffset.UTC))
+                .withTransformer(Instant.class, Long.class, Instant::toEpochMilli);
+        Source source = new Source();
+        source.setCount(1);
+        source.setTotal("1970-01-01T00:00:01");
+        Target target = new Target();
+
+        patcher.patch(source, target);
+
+        assertEquals("long 1", target.getCount());
+        assertEquals(1000L, target.getTotal());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldPreferShortestChain() {
+        var table = new TransformerTable(Map.of(
+                String.class, Map.of(Integer.class, (Function<String, Integer>) Integer::valueOf),
+                Integer.class, Map.of(Long.class, (Function<Integer, Long>) Integer::longValue,
+                        BigDecimal.class, (Function<Integer, BigDecimal>) BigDecimal::valueOf),
+                Long.class, Map.of(BigDecimal.class, (Function<Long, BigDecimal>) value -> BigDecimal.TEN)),
+                Map.of());
+
+        var chain = (Function<Object, Object>) table.global(String.class, BigDecimal.class);
+
+        assertEquals(BigDecimal.valueOf(5), chain.apply("5"));
+        assertNull(chain.apply(null));
+        assertNull(table.global(BigDecimal.class, String.class));
+    }
+
+    @Test
+    public void shouldRejectAmbiguousTransformers() {
+        var table = new TransformerTable(
+                Map.of(Number.class, Map.of(String.class, String::valueOf),
+                        Comparable.class, Map.of(String.class, String::valueOf)),
+                Map.of());
+
+        assertThrows(MappingExecutionException.class, () -> table.global(Integer.class, Serializable.class));
+    }
+}
@@ -0,0 +1,64 @@
+package ru.andryxx.patcher.mapping;
+
+import org.junit.jupiter.api.Test;
+import ru.andryxx.patcher.annotations.Ignore;
+import ru.andryxx.patcher.annotations.IgnoreIfNull;
+import ru.andryxx.patcher.annotations.MapTo;
+import ru.andryxx.patcher.annotations.Transform;
+import ru.andryxx.patcher.classes.TestDTO;
+import ru.andryxx.patcher.classes.TestEntity;
+import ru.andryxx.patcher.mapping.access.AccessorFactory;
+import ru.andryxx.patcher.mapping.access.FieldAccessMode;
+import ru.andryxx.patcher.mapping.registry.DefaultMappingRegistry;
+import ru.andryxx.patcher.mapping.registry.DefaultNamingResolver;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class TypeMetadataTest {
+    @IgnoreIfNull
+    public static class AnnotatedDto {
+        @Ignore
+        public String secret;
+        @MapTo("fullName")
+        @Transform({"a", "b"})
+        public String name;
+    }
+
+    @Test
+    public void shouldComputeMetadataOncePerClass() {
+        assertSame(TypeMetadata.of(TestEntity.class), TypeMetadata.of(TestEntity.class));
+        assertEquals(List.of("publicField", "publicObjectField", "staticField"),
+                TypeMetadata.of(TestEntity.class).publicFieldNames().stream().sorted().toList());
+    }
+
+    @Test
+    public void shouldScanFieldAnnotations() {
+        var annotations = TypeMetadata.of(AnnotatedDto.class).annotations();
+
+        assertEquals(Set.of("secret"), annotations.ignored());
+        assertEquals(Set.of("secret", "name"), annotations.ignoreIfNull());
+        assertEquals(Set.of(), annotations.logChange());
+        assertEquals(Map.of("name", "fullName"), annotations.mapTo());
+        assertEquals(Map.of("name", List.of("a", "b")), annotations.transforms());
+    }
+
+    @Test
+    public void shouldShareAccessors_BetweenRegistries() {
+        var first = new DefaultMappingRegistry(new DefaultNamingResolver(), MappingStrategy.USE_METHODS_AND_FIELDS,
+                AccessorFactory.varHandles(FieldAccessMode.PLAIN));
+        var second = new DefaultMappingRegistry(new DefaultNamingResolver(), MappingStrategy.USE_METHODS_AND_FIELDS,
+                AccessorFactory.varHandles(FieldAccessMode.PLAIN));
+        first.scanEntityMappings(TestDTO.class, TestEntity.class);
+        second.scanEntityMappings(TestDTO.class, TestEntity.class);
+
+        MappingPair firstAge = first.getFieldMappings("age").iterator().next();
+        MappingPair secondAge = second.getFieldMappings("age").iterator().next();
+        assertSame(firstAge.getter(), secondAge.getter());
+        assertSame(firstAge.setter(), secondAge.setter());
+    }
+}
@@ -0,0 +1,96 @@
+package ru.andryxx.patcher.mapping.access;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import ru.andryxx.patcher.classes.TestDTO;
+import ru.andryxx.patcher.classes.TestEntity;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AccessorFactoryTest {
+    static Stream<AccessorFactory> factories() {
+        return Stream.of(AccessorFactory.reflective(), AccessorFactory.compiled());
+    }
+
+    @ParameterizedTest
+    @MethodSource("factories")
+    public void shouldReadAndWrite_Methods(AccessorFactory factory) throws Exception {
+        TestDTO dto = new TestDTO();
+        dto.setFullName("foo");
+        dto.setAge(10);
+        TestEntity entity = new TestEntity();
+
+        var nameGetter = factory.getter(TestDTO.class.getMethod("getFullName"));
+        var ageGetter = factory.getter(TestDTO.class.getMethod("getAge"));
+        var nameSetter = factory.setter(TestEntity.class.getMethod("setName", String.class));
+        var ageSetter = factory.setter(TestEntity.class.getMethod("setAge", int.class));
+
+        nameSetter.accept(entity, nameGetter.apply(dto));
+        ageSetter.accept(entity, ageGetter.apply(dto));
+
+        assertEquals(Integer.class, ageGetter.apply(dto).getClass());
+        assertEquals("foo", entity.getName());
+        assertEquals(10, entity.getAge());
+    }
+
+    @ParameterizedTest
+    @MethodSource("factories")
+    public void shouldReadAndWrite_Fields(AccessorFactory factory) throws Exception {
+        TestDTO dto = new TestDTO();
+        dto.publicField = "foo";
+        TestEntity entity = new TestEntity();
+
+        var getter = factory.getter(TestDTO.class.getField("publicField"));
+        var setter = factory.setter(TestEntity.class.getField("publicObjectField"));
+        setter.accept(entity, getter.apply(dto));
+
+        assertEquals("foo", entity.publicObjectField);
+    }
+
+    @ParameterizedTest
+    @MethodSource("factories")
+    public void shouldFail_NullToPrimitiveSetter(AccessorFactory factory) throws Exception {
+        var ageSetter = factory.setter(TestEntity.class.getMethod("setAge", int.class));
+
+        assertThrows(RuntimeException.class, () -> ageSetter.accept(new TestEntity(), null));
+    }
+
+    @Test
+    public void shouldExposePrimitiveAccessors_Compiled() throws Exception {
+        TestDTO dto = new TestDTO();
+        dto.setAge(10);
+        dto.setActive(true);
+        TestEntity entity = new TestEntity();
+
+        var ageGetter = AccessorFactory.compiled().getter(TestDTO.class.getMethod("getAge"));
+        var ageSetter = AccessorFactory.compiled().setter(TestEntity.class.getMethod("setAge", int.class));
+        var activeGetter = AccessorFactory.compiled().getter(TestDTO.class.getDeclaredField("active"));
+        var activeSetter = AccessorFactory.compiled().setter(TestEntity.class.getDeclaredField("active"));
+
+        assertInstanceOf(PropertyGetter.OfInt.class, ageGetter);
+        assertInstanceOf(PropertySetter.OfInt.class, ageSetter);
+        assertInstanceOf(PropertyGetter.OfBoolean.class, activeGetter);
+        assertInstanceOf(PropertySetter.OfBoolean.class, activeSetter);
+
+        ((PropertySetter) ageSetter).setInt(entity, ((PropertyGetter) ageGetter).getInt(dto));
+        ((PropertySetter) activeSetter).setBoolean(entity, ((PropertyGetter) activeGetter).getBoolean(dto));
+        assertEquals(10, entity.getAge());
+        assertTrue(entity.isActive());
+        assertEquals(10, ageGetter.apply(dto));
+    }
+
+    @Test
+    public void shouldSpinLambdasInsideOwnerClass_Compiled() throws Exception {
+        var getter = AccessorFactory.compiled().getter(TestDTO.class.getMethod("getAge"));
+        var setter = AccessorFactory.compiled().setter(TestEntity.class.getMethod("setAge", int.class));
+
+        assertEquals(TestDTO.class, getter.getClass().getNestHost());
+        assertEquals(TestEntity.class, setter.getClass().getNestHost());
+    }
+}
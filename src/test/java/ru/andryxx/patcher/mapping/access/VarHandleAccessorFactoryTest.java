@@ -0,0 +1,73 @@
+package ru.andryxx.patcher.mapping.access;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VarHandleAccessorFactoryTest {
+    static class Entity {
+        private String name;
+        private int age;
+        private long version;
+        private double score;
+        private boolean active;
+    }
+
+    @ParameterizedTest
+    @EnumSource(FieldAccessMode.class)
+    public void shouldReadAndWrite_PrivateFields(FieldAccessMode mode) throws Exception {
+        var factory = new VarHandleAccessorFactory(mode);
+        Entity entity = new Entity();
+
+        var setter = factory.setter(Entity.class.getDeclaredField("name"));
+        var getter = factory.getter(Entity.class.getDeclaredField("name"));
+        setter.accept(entity, "foo");
+
+        assertEquals("foo", entity.name);
+        assertEquals("foo", getter.apply(entity));
+    }
+
+    @ParameterizedTest
+    @EnumSource(FieldAccessMode.class)
+    public void shouldReadAndWrite_PrimitivesUnboxed(FieldAccessMode mode) throws Exception {
+        var factory = new VarHandleAccessorFactory(mode);
+        Entity entity = new Entity();
+
+        factory.setter(Entity.class.getDeclaredField("age")).setInt(entity, 42);
+        factory.setter(Entity.class.getDeclaredField("version")).setLong(entity, 7L);
+        factory.setter(Entity.class.getDeclaredField("score")).setDouble(entity, 0.5);
+        factory.setter(Entity.class.getDeclaredField("active")).setBoolean(entity, true);
+
+        assertEquals(42, factory.getter(Entity.class.getDeclaredField("age")).getInt(entity));
+        assertEquals(7L, factory.getter(Entity.class.getDeclaredField("version")).getLong(entity));
+        assertEquals(0.5, factory.getter(Entity.class.getDeclaredField("score")).getDouble(entity));
+        assertTrue(factory.getter(Entity.class.getDeclaredField("active")).getBoolean(entity));
+    }
+
+    @Test
+    public void shouldBoxPrimitives_ThroughFunctionalInterfaces() throws Exception {
+        var factory = AccessorFactory.varHandles(FieldAccessMode.PLAIN);
+        Entity entity = new Entity();
+
+        factory.setter(Entity.class.getDeclaredField("age")).accept(entity, 10);
+
+        Object age = factory.getter(Entity.class.getDeclaredField("age")).apply(entity);
+        assertInstanceOf(Integer.class, age);
+        assertEquals(10, age);
+        assertFalse(entity.active);
+    }
+
+    @Test
+    public void shouldFail_NullToPrimitiveField() throws Exception {
+        var setter = AccessorFactory.varHandles(FieldAccessMode.PLAIN)
+                .setter(Entity.class.getDeclaredField("age"));
+
+        assertThrows(NullPointerException.class, () -> setter.accept(new Entity(), null));
+    }
+}
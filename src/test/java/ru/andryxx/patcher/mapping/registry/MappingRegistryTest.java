@@ -3,9 +3,12 @@ package ru.andryxx.patcher.mapping.registry;
 import org.junit.jupiter.api.Test;
 import ru.andryxx.patcher.classes.TestDTO;
 import ru.andryxx.patcher.classes.TestEntity;
+import ru.andryxx.patcher.classes.WideTypeNamingResolver;
 import ru.andryxx.patcher.exceptions.MatchingPathException;
 import ru.andryxx.patcher.mapping.MappingPair;
 import ru.andryxx.patcher.mapping.MappingStrategy;
+import ru.andryxx.patcher.mapping.access.AccessorFactory;
+import ru.andryxx.patcher.mapping.access.FieldAccessMode;
 
 import java.util.Set;
 
@@ -123,4 +126,42 @@ public class MappingRegistryTest {
         mapping.setter().accept(entity, 20);
         assertEquals(20, entity.getAge());
     }
+
+    @Test
+    public void shouldResolvePrivateFields_VarHandles() {
+        MappingRegistry registry = new DefaultMappingRegistry(new DefaultNamingResolver(true),
+                MappingStrategy.USE_FIELDS, AccessorFactory.varHandles(FieldAccessMode.PLAIN));
+
+        registry.scanEntityMappings(TestDTO.class, TestEntity.class);
+        assertThat(registry.getAllResolvedFromObject(),
+                containsInAnyOrder("age", "active", "publicField", "birthdate"));
+
+        TestDTO dto = new TestDTO();
+        dto.setAge(20);
+        TestEntity entity = new TestEntity();
+        MappingPair mapping = registry.getFieldMappings("age").iterator().next();
+        mapping.setter().accept(entity, mapping.getter().apply(dto));
+
+        assertEquals(20, entity.getAge());
+    }
+
+    @Test
+    public void shouldScanWideTypes_ExcludingExplicitTargets() {
+        int width = 5_000;
+        MappingRegistry registry = new DefaultMappingRegistry(new WideTypeNamingResolver(width),
+                MappingStrategy.USE_FIELDS);
+        registry.registerFieldMapping("p0", "p1");
+        registry.registerFieldMapping("p2", "p3");
+        registry.registerFieldMapping("p4", "p3");
+
+        registry.scanEntityMappings(TestDTO.class, TestEntity.class);
+
+        assertEquals(width - 2, registry.getAllResolvedFromObject().size());
+        assertFalse(registry.getAllResolvedFromObject().contains("p1"));
+        assertFalse(registry.getAllResolvedFromObject().contains("p3"));
+        assertEquals("p1", registry.getFieldMappings("p0").iterator().next().toFieldName());
+        assertEquals("p2", registry.getFieldMappings("p2").iterator().next().toFieldName());
+        assertEquals("p3", registry.getFieldMappings("p4").iterator().next().toFieldName());
+        assertEquals(Set.of("p1", "p3"), registry.getAllRegisteredToFields());
+    }
 }
@@ -8,6 +8,33 @@ import ru.andryxx.patcher.classes.TestEntity;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 public class NamingResolverTest {
+    public static class Base {
+        private String inherited;
+
+        public Object getValue() {
+            return null;
+        }
+
+        public Boolean isFlag() {
+            return null;
+        }
+    }
+
+    public static class Derived extends Base {
+        @Override
+        public String getValue() {
+            return null;
+        }
+
+        public boolean isEnabled() {
+            return true;
+        }
+
+        public boolean getEnabled() {
+            return true;
+        }
+    }
+
     @Test
     public void shouldReturnGetters_SimpleTypes() {
         NamingResolver resolver = new DefaultNamingResolver();
@@ -125,4 +152,44 @@ public class NamingResolverTest {
 
         Assertions.assertFalse(opMethod.isPresent());
     }
+
+    @Test
+    public void shouldReturnPrivateField_IncludeNonPublicFields() {
+        NamingResolver resolver = new DefaultNamingResolver(true);
+
+        var opField = resolver.resolveField(TestEntity.class, "someField");
+        var opStaticField = resolver.resolveField(TestEntity.class, "staticField");
+
+        Assertions.assertTrue(opField.isPresent());
+        Assertions.assertFalse(opStaticField.isPresent());
+        Assertions.assertTrue(resolver.resolveFieldNames(TestEntity.class).contains("someField"));
+        Assertions.assertFalse(resolver.resolveFieldNames(TestEntity.class).contains("staticField"));
+    }
+
+    @Test
+    public void shouldReturnMostSpecificGetter_CovariantOverride() {
+        NamingResolver resolver = new DefaultNamingResolver();
+
+        var opGetter = resolver.resolveGetter(Derived.class, "value");
+
+        Assertions.assertTrue(opGetter.isPresent());
+        Assertions.assertEquals(String.class, opGetter.get().getReturnType());
+    }
+
+    @Test
+    public void shouldPreferGetPrefix_OverIsPrefix() {
+        NamingResolver resolver = new DefaultNamingResolver();
+
+        Assertions.assertEquals("getEnabled", resolver.resolveGetter(Derived.class, "enabled").orElseThrow().getName());
+        Assertions.assertFalse(resolver.resolveGetter(Derived.class, "flag").isPresent());
+    }
+
+    @Test
+    public void shouldReturnSuperclassPrivateField_IncludeNonPublicFields() {
+        var opField = new DefaultNamingResolver(true).resolveField(Derived.class, "inherited");
+
+        Assertions.assertTrue(opField.isPresent());
+        Assertions.assertEquals(Base.class, opField.get().getDeclaringClass());
+        Assertions.assertFalse(new DefaultNamingResolver().resolveField(Derived.class, "inherited").isPresent());
+    }
 }